@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Compares cold start of the standard jar with the fast-startup build (Spring AOT + AppCDS).
+# For each variant it reports the time from launching the JVM to the first successful
+# GET /api/v1/employees, and the process RSS at that moment.
+#
+# Usage: scripts/startup-benchmark.sh [runs]          (run from employeesytem/, default 5 runs)
+#
+# The database comes from SPRING_DATASOURCE_URL, _USERNAME, _PASSWORD and _DRIVER_CLASS_NAME.
+# EXTRA_CLASSPATH adds a driver the jar does not ship, e.g. H2 for a local run:
+#   SPRING_DATASOURCE_URL='jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE' \
+#   SPRING_DATASOURCE_DRIVER_CLASS_NAME=org.h2.Driver SPRING_DATASOURCE_USERNAME=sa \
+#   SPRING_DATASOURCE_PASSWORD= EXTRA_CLASSPATH=~/.m2/repository/com/h2database/h2/2.3.232/h2-2.3.232.jar \
+#   scripts/startup-benchmark.sh
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+EXTRA_CLASSPATH=${EXTRA_CLASSPATH:-}
+MAIN_CLASS=org.employeesytem.EmployeeSytemApplication
+OUT=target/startup-benchmark
+JAR_NAME=$(mvn -q help:evaluate -Dexpression=project.build.finalName -DforceStdout).jar
+
+echo "Building the standard jar..."
+mvn -q -DskipTests clean package
+mkdir -p "$OUT"
+cp "target/$JAR_NAME" "$OUT/standard.jar"
+echo "Building the fast-startup jar and training the CDS archive..."
+mvn -q -DskipTests -Pfast-startup package -Dfast-startup.training-classpath="$EXTRA_CLASSPATH"
+
+standard() {
+    if [ -n "$EXTRA_CLASSPATH" ]; then
+        # PropertiesLauncher reads the same nested jars as java -jar and can add loader.path
+        exec java -Dloader.path="$EXTRA_CLASSPATH" -cp "$OUT/standard.jar" \
+            org.springframework.boot.loader.launch.PropertiesLauncher --server.port="$PORT"
+    else
+        exec java -jar "$OUT/standard.jar" --server.port="$PORT"
+    fi
+}
+
+fast_startup() {
+    # The class path must match the training run's for the archive to be used
+    exec java -XX:SharedArchiveFile=target/fast-startup/application.jsa -Xlog:cds*=off -Dspring.aot.enabled=true \
+        -cp "target/fast-startup/$JAR_NAME:$EXTRA_CLASSPATH" "$MAIN_CLASS" --server.port="$PORT"
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    local variant=$1 run=$2 start pid elapsed rss
+    start=$(now_ms)
+    "$variant" > "$OUT/$variant-$run.log" 2>&1 &
+    pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/api/v1/employees?size=1")" = "200" ]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$variant exited before serving, see $OUT/$variant-$run.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ { print int($2 / 1024) }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$variant,$run,$elapsed,$rss" | tee -a "$OUT/startup.csv"
+}
+
+echo "variant,run,first_get_ms,rss_mb" | tee "$OUT/startup.csv"
+for run in $(seq 1 "$RUNS"); do
+    measure standard "$run"
+    measure fast_startup "$run"
+done
+
+median() {
+    grep "^$1," "$OUT/startup.csv" | cut -d, -f"$2" | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+echo
+for variant in standard fast_startup; do
+    printf '%-13s median first GET %5d ms, median RSS %4d MB (%d runs)\n' \
+        "$variant" "$(median "$variant" 3)" "$(median "$variant" 4)" "$RUNS"
+done
@@ -0,0 +1,109 @@
+package org.employeesytem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * Brings tables created by an earlier release up to {@code schema.sql}, which only creates the tables
+ * that are missing. Every step looks at the database's metadata first and does nothing if it has
+ * been applied, so it runs on each start after {@code schema.sql}, unless {@code spring.sql.init.mode}
+ * is {@code never}. The statements are ones MySQL and H2 both accept.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class SchemaUpgrade implements InitializingBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaUpgrade.class);
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+
+    public SchemaUpgrade(DataSource dataSource, Environment environment) {
+        this.dataSource = dataSource;
+        this.enabled = !"never".equalsIgnoreCase(environment.getProperty("spring.sql.init.mode", "always"));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            apply(dataSource);
+        }
+    }
+
+    public static void apply(DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // Optimistic locking: rows written before it start at version 0.
+        addColumn(jdbc, "employee", "version", "BIGINT NOT NULL DEFAULT 0");
+        // Delta export: rows written before it count as changed when the column is added.
+        addColumn(jdbc, "employee", "last_modified", "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)");
+        addIndex(jdbc, "employee", "idx_employee_last_modified", "last_modified");
+        addColumn(jdbc, "employee_change_log", "deleted", "BOOLEAN NOT NULL DEFAULT FALSE");
+        widenToMicroseconds(jdbc, "employee_change_log", "changed_at", "NOT NULL DEFAULT CURRENT_TIMESTAMP(6)");
+        addIndex(jdbc, "employee_change_log", "idx_employee_change_log_changed_at", "changed_at");
+    }
+
+    private static void addColumn(JdbcTemplate jdbc, String table, String column, String definition) {
+        if (tableExists(jdbc, table) && !columnExists(jdbc, table, column)) {
+            LOGGER.info("Adding column {}.{}", table, column);
+            jdbc.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    private static void addIndex(JdbcTemplate jdbc, String table, String index, String column) {
+        if (tableExists(jdbc, table) && !indexExists(jdbc, table, index)) {
+            LOGGER.info("Creating index {} on {}", index, table);
+            jdbc.execute("CREATE INDEX " + index + " ON " + table + " (" + column + ")");
+        }
+    }
+
+    private static void widenToMicroseconds(JdbcTemplate jdbc, String table, String column, String constraints) {
+        Integer digits = jdbc.execute((ConnectionCallback<Integer>) connection -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+                return columns.next() ? columns.getInt("DECIMAL_DIGITS") : null;
+            }
+        });
+        if (digits != null && digits < 6) {
+            LOGGER.info("Widening {}.{} to TIMESTAMP(6)", table, column);
+            jdbc.execute("ALTER TABLE " + table + " MODIFY COLUMN " + column + " TIMESTAMP(6) " + constraints);
+        }
+    }
+
+    private static boolean tableExists(JdbcTemplate jdbc, String table) {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, table, null)) {
+                return tables.next();
+            }
+        }));
+    }
+
+    private static boolean columnExists(JdbcTemplate jdbc, String table, String column) {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, column)) {
+                return columns.next();
+            }
+        }));
+    }
+
+    private static boolean indexExists(JdbcTemplate jdbc, String table, String index) {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+                while (indexes.next()) {
+                    if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }));
+    }
+}
@@ -0,0 +1,57 @@
+package org.employeesytem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.repository.sharded.EmployeeShards;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens a Hikari pool of {@code employee.sharding.pool-size} connections per entry of
+ * {@code employee.sharding.shards}, which take the same keys as {@code spring.datasource}, and runs
+ * {@code schema.sql} and the {@link SchemaUpgrade} on each unless {@code spring.sql.init.mode} is
+ * {@code never}. The shards hold only employees; the id sequence, change log and audit trail stay in {@code spring.datasource}.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("sharded")
+public class ShardDataSourceConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public EmployeeShards employeeShards(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        List<DataSourceProperties> settings = Binder.get(environment)
+                .bind("employee.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+                .orElseThrow(() -> new IllegalStateException("The sharded profile needs employee.sharding.shards"));
+        int poolSize = environment.getProperty("employee.sharding.pool-size", Integer.class, 12);
+        boolean initialize = !"never".equalsIgnoreCase(environment.getProperty("spring.sql.init.mode", "always"));
+        List<HikariDataSource> pools = new ArrayList<>(settings.size());
+        try {
+            for (DataSourceProperties properties : settings) {
+                HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+                pool.setPoolName("employee-shard-" + pools.size());
+                pool.setMaximumPoolSize(poolSize);
+                meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                pools.add(pool);
+                if (initialize) {
+                    new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(pool);
+                    SchemaUpgrade.apply(pool);
+                }
+            }
+        } catch (RuntimeException exception) {
+            pools.forEach(HikariDataSource::close);
+            throw exception;
+        }
+        return new EmployeeShards(pools);
+    }
+}
@@ -0,0 +1,47 @@
+package org.employeesytem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.service.BulkheadSettings;
+import org.employeesytem.service.WorkloadClass;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Replaces the single auto-configured pool with one Hikari pool per {@link WorkloadClass}, all
+ * pointing at {@code spring.datasource}, sized from {@code employee.bulkhead.<workload>.pool-size},
+ * and a background pool of {@code employee.background.pool-size} for work outside the bulkheads.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WorkloadDataSourceConfiguration {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<WorkloadClass, HikariDataSource> pools = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            BulkheadSettings settings = BulkheadSettings.resolve(environment, workload);
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName("employee-" + workload.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+            pool.setMaximumPoolSize(settings.poolSize());
+            pool.setMinimumIdle(settings.poolSize());
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            pools.put(workload, pool);
+        }
+        HikariDataSource background = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        background.setPoolName("employee-background");
+        background.setMaximumPoolSize(environment.getProperty("employee.background.pool-size", Integer.class, 2));
+        background.setMinimumIdle(1);
+        meterRegistry.ifAvailable(registry -> background.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return new WorkloadRoutingDataSource(pools, background);
+    }
+}
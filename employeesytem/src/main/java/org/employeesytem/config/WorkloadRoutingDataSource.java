@@ -0,0 +1,44 @@
+package org.employeesytem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.employeesytem.service.EmployeeBulkheads;
+import org.employeesytem.service.WorkloadClass;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the workload the calling thread belongs to. Threads outside
+ * the bulkheads, such as schema initialization, the change log poller, the audit writer or the actuator
+ * health check, use a background pool of their own, so they never take a connection a write is
+ * waiting for.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private final Map<WorkloadClass, HikariDataSource> pools;
+    private final HikariDataSource background;
+
+    public WorkloadRoutingDataSource(Map<WorkloadClass, HikariDataSource> pools, HikariDataSource background) {
+        this.pools = Map.copyOf(pools);
+        this.background = background;
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(background);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return EmployeeBulkheads.currentWorkload();
+    }
+
+    public HikariDataSource getPool(WorkloadClass workload) {
+        return pools.get(workload);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+        background.close();
+    }
+}
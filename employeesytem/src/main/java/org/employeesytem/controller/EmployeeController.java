@@ -1,14 +1,30 @@
 package org.employeesytem.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.Validator;
 import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeLookup;
+import org.employeesytem.dto.EmployeePatch;
+import org.employeesytem.dto.EmployeeSuggestion;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.service.EmployeeChangeStream;
+import org.employeesytem.service.EmployeeDeltaExporter;
+import org.employeesytem.service.EmployeeParallelExporter;
 import org.employeesytem.service.EmployeeService;
+import org.employeesytem.service.EmployeeSuggestionIndex;
 import org.employeesytem.util.CSVExporter;
+import org.employeesytem.util.ContentCoding;
+import org.employeesytem.util.StreamCompressor;
 import org.employeesytem.validation.DepartmentValue;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -16,50 +32,141 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/v1/employees")
 @Validated
 public class EmployeeController {
+    static final String NEXT_WATERMARK = "X-Next-Watermark";
 
     private final EmployeeService employeeService;
     private final CSVExporter csvExporter;
+    private final Validator validator;
+    private final EmployeeChangeStream changeStream;
+    private final EmployeeSuggestionIndex suggestionIndex;
+    private final EmployeeParallelExporter parallelExporter;
+    private final StreamCompressor streamCompressor;
+    private final EmployeeDeltaExporter deltaExporter;
+    private final ObjectWriter employeeWriter;
+    private final int maxLookupIds;
+    private final int maxDeleteIds;
 
     @Autowired
-    public EmployeeController(EmployeeService employeeService, CSVExporter csvExporter) {
+    public EmployeeController(EmployeeService employeeService, CSVExporter csvExporter, Validator validator,
+                              EmployeeChangeStream changeStream, EmployeeSuggestionIndex suggestionIndex,
+                              EmployeeParallelExporter parallelExporter, StreamCompressor streamCompressor,
+                              EmployeeDeltaExporter deltaExporter, ObjectMapper objectMapper,
+                              @Value("${employee.lookup.max-ids:1000}") int maxLookupIds,
+                              @Value("${employee.delete.max-ids:1000}") int maxDeleteIds) {
         this.employeeService = employeeService;
         this.csvExporter = csvExporter;
+        this.validator = validator;
+        this.changeStream = changeStream;
+        this.suggestionIndex = suggestionIndex;
+        this.parallelExporter = parallelExporter;
+        this.streamCompressor = streamCompressor;
+        this.deltaExporter = deltaExporter;
+        this.employeeWriter = objectMapper.writerFor(Employee.class);
+        this.maxLookupIds = maxLookupIds;
+        this.maxDeleteIds = maxDeleteIds;
     }
 
+    /**
+     * A page of employees, optionally filtered by name and department. {@code minSalary} and
+     * {@code maxSalary} restrict it to a salary range instead of a name; such pages can be sorted by
+     * salary or id only, and are sorted by salary unless asked otherwise.
+     */
     @GetMapping
     public ResponseEntity<Page<Employee>> findAllEmployees(
             @RequestParam(defaultValue = "0")
             @Min(value = 0, message = "Page number cannot be negative.") int page,
             @RequestParam(defaultValue = "5")
-            @Min(value = 1, message = "Page size must be at least 1.") int size,
+            @Min(value = 1, message = "Page size must be at least 1.")
+            @Max(value = 1000, message = "Page size must not exceed 1000.") int size,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) @DepartmentValue String department,
+            @RequestParam(required = false)
+            @DecimalMin(value = "0", message = "minSalary cannot be negative.") BigDecimal minSalary,
+            @RequestParam(required = false)
+            @DecimalMin(value = "0", message = "maxSalary cannot be negative.") BigDecimal maxSalary,
             Sort sort) {
         PageRequest pageRequest = PageRequest.of(page, size, sort);
+        if (minSalary != null || maxSalary != null) {
+            if (StringUtils.hasText(name)) {
+                throw new InvalidRequestException("minSalary and maxSalary cannot be combined with name.");
+            }
+            if (minSalary != null && maxSalary != null && minSalary.compareTo(maxSalary) > 0) {
+                throw new InvalidRequestException("minSalary must not exceed maxSalary.");
+            }
+            return ResponseEntity.ok(employeeService.findBySalaryRange(pageRequest, department, minSalary, maxSalary));
+        }
         Page<Employee> allEmployees = employeeService.findAllEmployees(pageRequest, name, department);
         return ResponseEntity.ok(allEmployees);
     }
 
+    /**
+     * Every employee {@link #findAllEmployees} would page through, as one JSON object per line, for
+     * clients that want them all. Employees are written as they are read from a cursor on the bulk
+     * bulkhead, ordered by the requested sort and then id, so memory use does not grow with the
+     * result. A write blocks while the client is not reading, which holds the cursor where it is; the
+     * response is flushed after every fetch of rows.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamEmployees(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) @DepartmentValue String department,
+            Sort sort,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream lines = response.getOutputStream();
+        int[] written = {0};
+        try {
+            employeeService.exportEmployees(name, department, sort, employee -> {
+                try {
+                    lines.write(employeeWriter.writeValueAsBytes(employee));
+                    lines.write('\n');
+                    if (++written[0] % EmployeeRepository.EXPORT_FETCH_SIZE == 0) {
+                        lines.flush();
+                    }
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        } catch (RuntimeException exception) {
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw exception;
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Employee> addEmployee(@Valid @RequestBody Employee employee) {
         Employee savedEmployee = employeeService.addEmployee(employee);
@@ -70,15 +177,45 @@ public class EmployeeController {
     public ResponseEntity<Employee> findEmployeeById(
             @Min(value = 1, message = "Employee ID must be positive.")
             @PathVariable int id) {
-        return ResponseEntity.ok(employeeService.findByEmployeeId(id));
+        return withETag(employeeService.findByEmployeeId(id));
+    }
+
+    /**
+     * The employees with the given ids, in the order asked for, and the ids that have none, for
+     * clients resolving many ids in one round trip. {@link #lookupEmployeesInBody} takes the ids as a
+     * JSON array instead, for lists too long for a URL.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<EmployeeLookup> lookupEmployees(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(employeeService.lookupEmployees(limit(ids, maxLookupIds, "looked up")));
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<EmployeeLookup> lookupEmployeesInBody(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(employeeService.lookupEmployees(limit(ids, maxLookupIds, "looked up")));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Employee> updateEmployee(
             @Min(value = 1, message = "Employee ID must be positive.")
             @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody Employee employee) {
-        return ResponseEntity.ok(employeeService.updateEmployee(id, employee));
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            employee.setVersion(parseVersion(ifMatch));
+        }
+        return withETag(employeeService.updateEmployee(id, employee));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchEmployee(
+            @Min(value = 1, message = "Employee ID must be positive.")
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Map<String, Object> mergePatch) {
+        Long expectedVersion = ifMatch == null || ifMatch.trim().equals("*") ? null : parseVersion(ifMatch);
+        Long version = employeeService.patchEmployee(id, EmployeePatch.of(mergePatch, validator), expectedVersion);
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
     }
 
     @DeleteMapping("/{id}")
@@ -89,26 +226,161 @@ public class EmployeeController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Deletes the employees with the given ids, or those matching name and department. Like
+     * {@link #lookupEmployees}, {@link #deleteEmployeesInBody} takes the ids as a JSON array instead,
+     * for lists too long for a URL; both accept at most {@code employee.delete.max-ids}.
+     */
+    @DeleteMapping
+    public ResponseEntity<Integer> deleteEmployees(
+            @RequestParam(required = false) List<Integer> ids,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) @DepartmentValue String department) {
+        List<Integer> limited = ids == null ? null : limit(ids, maxDeleteIds, "deleted");
+        return ResponseEntity.ok(employeeService.deleteEmployees(limited, name, department));
+    }
+
+    @PostMapping("/delete")
+    public ResponseEntity<Integer> deleteEmployeesInBody(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(employeeService.deleteEmployees(limit(ids, maxDeleteIds, "deleted"), null, null));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeStream.subscribe(lastEventId);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<EmployeeSuggestion>> suggestEmployees(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "Suggestion limit must be at least 1.")
+            @Max(value = 50, message = "Suggestion limit must not exceed 50.") int limit) {
+        return ResponseEntity.ok(suggestionIndex.suggest(prefix, limit));
+    }
+
     @GetMapping("/count")
     public ResponseEntity<Long> getEmployeeCount() {
         return ResponseEntity.ok(employeeService.getEmployeeCount());
     }
 
     @GetMapping("/export")
-    public ResponseEntity<Resource> exportEmployeesToCSV(
+    public void exportEmployeesToCSV(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) @DepartmentValue String department,
-            Sort sort
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @RequestParam(required = false) String compress,
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Sort sort,
+            HttpServletResponse response
     ) throws IOException {
-        List<Employee> employees = employeeService.findAllEmployeesForExport(name, department, sort);
-        byte[] csvBytes = csvExporter.writeEmployeesToCsv(employees);
+        ContentCoding coding = contentCoding(compress, acceptEncoding);
         String timestamp = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
-        String fileName = "employees_" + timestamp + ".csv";
-        Resource resource = new ByteArrayResource(csvBytes);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentLength(csvBytes.length)
-                .body(resource);
+        if (since != null) {
+            if (name != null || department != null || parallel) {
+                throw new InvalidRequestException("since cannot be combined with name, department or parallel.");
+            }
+            LocalDateTime from = watermark(since);
+            streamCsv(response, coding, "employees_delta_" + timestamp + ".csv", csv -> {
+                try {
+                    deltaExporter.exportChangesSince(from, next -> {
+                        response.setHeader(NEXT_WATERMARK, String.valueOf(next));
+                        write(csv, csvExporter.deltaHeader());
+                    }, employee -> write(csv, csvExporter.encodeChanged(employee)),
+                            id -> write(csv, csvExporter.encodeDeleted(id)));
+                } catch (UncheckedIOException exception) {
+                    throw exception.getCause();
+                }
+            });
+            return;
+        }
+        response.setHeader(NEXT_WATERMARK, String.valueOf(deltaExporter.currentWatermark()));
+        streamCsv(response, coding, "employees_" + timestamp + ".csv", csv -> {
+            if (parallel) {
+                parallelExporter.exportToCsv(name, department, sort, csv);
+                return;
+            }
+            csv.write(csvExporter.header());
+            try {
+                employeeService.exportEmployees(name, department, sort,
+                        employee -> write(csv, csvExporter.encode(employee)));
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+        });
+    }
+
+    /**
+     * Writes the CSV straight into the response, compressing it as it is produced unless
+     * {@code coding} is identity. The headers are dropped again if the export fails before the first
+     * buffer reaches the client, so that the error is reported as usual.
+     */
+    private void streamCsv(HttpServletResponse response, ContentCoding coding, String fileName,
+                                    StreamCompressor.Body body) throws IOException {
+        response.setContentType("text/csv");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (coding != ContentCoding.IDENTITY) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, coding.token());
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        try {
+            streamCompressor.compress(coding, response.getOutputStream(), body);
+        } catch (RuntimeException exception) {
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw exception;
+        }
+    }
+
+    private static void write(OutputStream csv, byte[] bytes) {
+        try {
+            csv.write(bytes);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static LocalDateTime watermark(String since) {
+        try {
+            return LocalDateTime.parse(since.trim());
+        } catch (DateTimeParseException exception) {
+            throw new InvalidRequestException("since must be a watermark returned in " + NEXT_WATERMARK + ".");
+        }
+    }
+
+    private static ContentCoding contentCoding(String compress, String acceptEncoding) {
+        if (compress == null) {
+            return ContentCoding.negotiate(acceptEncoding);
+        }
+        return ContentCoding.forName(compress).orElseThrow(
+                () -> new InvalidRequestException("compress must be one of: gzip, deflate, none."));
+    }
+
+    private static ResponseEntity<Employee> withETag(Employee employee) {
+        if (employee == null || employee.getVersion() == null) {
+            return ResponseEntity.ok(employee);
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(employee.getVersion())).body(employee);
+    }
+
+    private static List<Integer> limit(List<Integer> ids, int max, String action) {
+        if (ids.size() > max) {
+            throw new InvalidRequestException("At most " + max + " ids can be " + action + " at once.");
+        }
+        return ids;
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException exception) {
+            throw new InvalidRequestException("If-Match must carry an employee version, got " + ifMatch + ".");
+        }
     }
 }
@@ -1,19 +1,25 @@
 package org.employeesytem.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.employeesytem.validation.DepartmentValue;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@DynamicUpdate
 @Table(name = "employee")
 public class Employee {
     @Id
@@ -39,6 +45,16 @@ public class Employee {
     @Min(value = 1, message = "Salary must be a positive number.")
     private BigDecimal salary;
 
+    @Version
+    private Long version;
+
+    /**
+     * Stamped by the database on every insert and update, for delta exports; never written from here.
+     */
+    @Column(name = "last_modified", insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime lastModified;
+
     public Employee() {
     }
 
@@ -75,6 +91,14 @@ public class Employee {
         return salary;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
     public void setId(int id) {
         this.id = id;
     }
@@ -99,6 +123,14 @@ public class Employee {
         this.salary = salary;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public void setLastModified(LocalDateTime lastModified) {
+        this.lastModified = lastModified;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
@@ -0,0 +1,19 @@
+package org.employeesytem.dto;
+
+import java.time.Instant;
+
+/**
+ * One row of the {@code employee_audit} trail: an employee as JSON before and after a write made
+ * through {@code EmployeeService}. A create has no {@code before} and a delete no {@code after}. The
+ * {@code eventId} is unique, so a record replayed from the audit spool is written at most once.
+ */
+public record EmployeeAuditRecord(String eventId, Action action, int employeeId, String before, String after,
+                                  Instant occurredAt) {
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        PATCH,
+        DELETE
+    }
+}
@@ -0,0 +1,45 @@
+package org.employeesytem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by {@code EmployeeService} after a write has been committed. An update carries either
+ * the full {@code employee} (PUT) or only the patched {@code changes} and new {@code version} (PATCH).
+ * A delete carries the requested {@code ids}; a delete by criteria carries neither, meaning any
+ * row matching {@code name}/{@code department} may be gone.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EmployeeChangedEvent(Type type, Integer id, Employee employee, Map<String, Object> changes,
+                                   Long version, List<Integer> ids, String name, String department) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(Type.CREATED, employee.getId(), employee, null, employee.getVersion(),
+                null, null, null);
+    }
+
+    public static EmployeeChangedEvent updated(Employee employee) {
+        return new EmployeeChangedEvent(Type.UPDATED, employee.getId(), employee, null, employee.getVersion(),
+                null, null, null);
+    }
+
+    public static EmployeeChangedEvent patched(int id, Map<String, Object> changes, Long version) {
+        return new EmployeeChangedEvent(Type.UPDATED, id, null, changes, version, null, null, null);
+    }
+
+    public static EmployeeChangedEvent deleted(List<Integer> ids) {
+        return new EmployeeChangedEvent(Type.DELETED, null, null, null, null, ids, null, null);
+    }
+
+    public static EmployeeChangedEvent deletedMatching(String name, String department) {
+        return new EmployeeChangedEvent(Type.DELETED, null, null, null, null, null, name, department);
+    }
+}
@@ -0,0 +1,11 @@
+package org.employeesytem.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What changed between two delta export watermarks: the employees inserted or updated, the ids
+ * deleted and not since recreated, and the watermark to ask from next time.
+ */
+public record EmployeeDelta(List<Employee> changed, List<Integer> deleted, LocalDateTime next) {
+}
@@ -0,0 +1,10 @@
+package org.employeesytem.dto;
+
+import java.util.List;
+
+/**
+ * The answer to a multi-get: the employees found, in the order their ids were asked for, and the ids
+ * asked for that have no employee.
+ */
+public record EmployeeLookup(List<Employee> employees, List<Integer> missing) {
+}
@@ -0,0 +1,84 @@
+package org.employeesytem.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.employeesytem.exceptions.InvalidEmployeePatchException;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The validated, typed columns of a JSON merge patch against an {@link Employee}. Only the fields
+ * present in the patch are converted and checked against the constraints declared on the entity.
+ */
+public final class EmployeePatch {
+    private static final Map<String, Class<?>> PATCHABLE_FIELDS = Map.of(
+            "firstName", String.class,
+            "lastName", String.class,
+            "email", String.class,
+            "department", String.class,
+            "salary", BigDecimal.class);
+
+    private final Map<String, Object> changes;
+
+    private EmployeePatch(Map<String, Object> changes) {
+        this.changes = Collections.unmodifiableMap(changes);
+    }
+
+    public static EmployeePatch of(Map<String, Object> mergePatch, Validator validator) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        mergePatch.forEach((field, value) -> {
+            Class<?> type = PATCHABLE_FIELDS.get(field);
+            if (type == null) {
+                errors.put(field, "Field cannot be patched.");
+                return;
+            }
+            Object converted;
+            try {
+                converted = convert(value, type);
+            } catch (IllegalArgumentException exception) {
+                errors.put(field, exception.getMessage());
+                return;
+            }
+            Set<ConstraintViolation<Employee>> violations = validator.validateValue(Employee.class, field, converted);
+            if (violations.isEmpty()) {
+                changes.put(field, converted);
+            } else {
+                errors.put(field, violations.iterator().next().getMessage());
+            }
+        });
+        if (!errors.isEmpty()) {
+            throw new InvalidEmployeePatchException(errors);
+        }
+        return new EmployeePatch(changes);
+    }
+
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+        if (type == String.class) {
+            if (value instanceof String) {
+                return value;
+            }
+            throw new IllegalArgumentException("Must be a string.");
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Must be a number.");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.employeesytem.dto;
+
+/**
+ * One type-ahead match returned by {@code GET /api/v1/employees/suggest}.
+ */
+public record EmployeeSuggestion(int id, String firstName, String lastName) {
+}
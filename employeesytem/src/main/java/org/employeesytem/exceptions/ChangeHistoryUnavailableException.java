@@ -0,0 +1,7 @@
+package org.employeesytem.exceptions;
+
+public class ChangeHistoryUnavailableException extends RuntimeException {
+    public ChangeHistoryUnavailableException(String message) {
+        super(message);
+    }
+}
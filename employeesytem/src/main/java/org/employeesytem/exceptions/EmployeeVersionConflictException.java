@@ -0,0 +1,7 @@
+package org.employeesytem.exceptions;
+
+public class EmployeeVersionConflictException extends RuntimeException {
+    public EmployeeVersionConflictException(String message) {
+        super(message);
+    }
+}
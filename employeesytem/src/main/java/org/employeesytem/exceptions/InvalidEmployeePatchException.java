@@ -0,0 +1,16 @@
+package org.employeesytem.exceptions;
+
+import java.util.Map;
+
+public class InvalidEmployeePatchException extends RuntimeException {
+    private final Map<String, String> errors;
+
+    public InvalidEmployeePatchException(Map<String, String> errors) {
+        super("Invalid employee patch: " + errors);
+        this.errors = errors;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,118 @@
+package org.employeesytem.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parameters bound to one prepared statement, reused across its executions. Primitive values are
+ * kept unboxed next to a tag saying which type they were bound as, so binding allocates nothing once
+ * the arrays have grown to the statement's parameter count; {@link #toList} boxes them only for a
+ * statement that turned out slow.
+ */
+final class BoundParameters {
+    private static final byte UNSET = 0;
+    private static final byte OBJECT = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+
+    private Object[] objects = new Object[0];
+    private long[] primitives = new long[0];
+    private byte[] types = new byte[0];
+    private int count;
+
+    void bindNull(int index) {
+        bind(index, (Object) null);
+    }
+
+    void bind(int index, Object value) {
+        int slot = slot(index, OBJECT);
+        objects[slot] = value;
+    }
+
+    void bind(int index, boolean value) {
+        int slot = slot(index, BOOLEAN);
+        primitives[slot] = value ? 1 : 0;
+    }
+
+    void bind(int index, byte value) {
+        int slot = slot(index, BYTE);
+        primitives[slot] = value;
+    }
+
+    void bind(int index, short value) {
+        int slot = slot(index, SHORT);
+        primitives[slot] = value;
+    }
+
+    void bind(int index, int value) {
+        int slot = slot(index, INT);
+        primitives[slot] = value;
+    }
+
+    void bind(int index, long value) {
+        int slot = slot(index, LONG);
+        primitives[slot] = value;
+    }
+
+    void bind(int index, float value) {
+        int slot = slot(index, FLOAT);
+        primitives[slot] = Float.floatToRawIntBits(value);
+    }
+
+    void bind(int index, double value) {
+        int slot = slot(index, DOUBLE);
+        primitives[slot] = Double.doubleToRawLongBits(value);
+    }
+
+    void clear() {
+        Arrays.fill(objects, 0, count, null);
+        Arrays.fill(types, 0, count, UNSET);
+        count = 0;
+    }
+
+    /**
+     * The values bound so far, by position, with {@code null} for a parameter bound to SQL
+     * {@code NULL} or not bound at all.
+     */
+    List<Object> toList() {
+        List<Object> values = new ArrayList<>(count);
+        for (int slot = 0; slot < count; slot++) {
+            long bits = primitives[slot];
+            values.add(switch (types[slot]) {
+                case OBJECT -> objects[slot];
+                case BOOLEAN -> bits != 0;
+                case BYTE -> (byte) bits;
+                case SHORT -> (short) bits;
+                case INT -> (int) bits;
+                case LONG -> bits;
+                case FLOAT -> Float.intBitsToFloat((int) bits);
+                case DOUBLE -> Double.longBitsToDouble(bits);
+                default -> null;
+            });
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private int slot(int index, byte type) {
+        if (index > types.length) {
+            int capacity = Math.max(index, Math.max(8, types.length * 2));
+            objects = Arrays.copyOf(objects, capacity);
+            primitives = Arrays.copyOf(primitives, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        int slot = index - 1;
+        if (type != OBJECT) {
+            objects[slot] = null;
+        }
+        types[slot] = type;
+        count = Math.max(count, index);
+        return slot;
+    }
+}
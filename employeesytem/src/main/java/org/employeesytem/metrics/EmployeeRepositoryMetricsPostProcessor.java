@@ -0,0 +1,28 @@
+package org.employeesytem.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.repository.EmployeeRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps whichever {@link EmployeeRepository} the active profile contributes in an
+ * {@link InstrumentedEmployeeRepository}, so both the JDBC and the JPA implementation are timed.
+ */
+@Component
+public class EmployeeRepositoryMetricsPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public EmployeeRepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof EmployeeRepository repository && !(bean instanceof InstrumentedEmployeeRepository)) {
+            return new InstrumentedEmployeeRepository(repository, meterRegistry.getObject());
+        }
+        return bean;
+    }
+}
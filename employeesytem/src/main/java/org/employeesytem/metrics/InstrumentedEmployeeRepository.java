@@ -0,0 +1,431 @@
+package org.employeesytem.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Decorates an {@link EmployeeRepository} with per-method latency, row-count and error metrics.
+ * All meters are resolved once at construction so a call only pays for two {@code nanoTime}
+ * reads and the histogram updates.
+ */
+public class InstrumentedEmployeeRepository implements EmployeeRepository {
+    static final String TIMER_NAME = "employee.repository.calls";
+    static final String ROWS_NAME = "employee.repository.rows";
+    static final String ERRORS_NAME = "employee.repository.errors";
+
+    private final EmployeeRepository delegate;
+
+    private final MethodMetrics findAllPaged;
+    private final MethodMetrics save;
+    private final MethodMetrics insert;
+    private final MethodMetrics update;
+    private final MethodMetrics patch;
+    private final MethodMetrics findById;
+    private final MethodMetrics findAllById;
+    private final MethodMetrics deleteById;
+    private final MethodMetrics deleteAllById;
+    private final MethodMetrics deleteByCriteria;
+    private final MethodMetrics count;
+    private final MethodMetrics findIdByEmail;
+    private final MethodMetrics findAllEmails;
+    private final MethodMetrics findByCriteria;
+    private final MethodMetrics findAllSorted;
+    private final MethodMetrics findByCriteriaForExport;
+    private final MethodMetrics streamForExport;
+    private final MethodMetrics streamModifiedBetween;
+    private final MethodMetrics findIdRange;
+    private final MethodMetrics findRangeForExport;
+    private final MethodMetrics streamRangeForExport;
+
+    public InstrumentedEmployeeRepository(EmployeeRepository delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.findAllPaged = new MethodMetrics(registry, "findAllPaged");
+        this.save = new MethodMetrics(registry, "save");
+        this.insert = new MethodMetrics(registry, "insert");
+        this.update = new MethodMetrics(registry, "update");
+        this.patch = new MethodMetrics(registry, "patch");
+        this.findById = new MethodMetrics(registry, "findById");
+        this.findAllById = new MethodMetrics(registry, "findAllById");
+        this.deleteById = new MethodMetrics(registry, "deleteById");
+        this.deleteAllById = new MethodMetrics(registry, "deleteAllById");
+        this.deleteByCriteria = new MethodMetrics(registry, "deleteByCriteria");
+        this.count = new MethodMetrics(registry, "count");
+        this.findIdByEmail = new MethodMetrics(registry, "findIdByEmail");
+        this.findAllEmails = new MethodMetrics(registry, "findAllEmails");
+        this.findByCriteria = new MethodMetrics(registry, "findByCriteria");
+        this.findAllSorted = new MethodMetrics(registry, "findAllSorted");
+        this.findByCriteriaForExport = new MethodMetrics(registry, "findByCriteriaForExport");
+        this.streamForExport = new MethodMetrics(registry, "streamForExport");
+        this.streamModifiedBetween = new MethodMetrics(registry, "streamModifiedBetween");
+        this.findIdRange = new MethodMetrics(registry, "findIdRange");
+        this.findRangeForExport = new MethodMetrics(registry, "findRangeForExport");
+        this.streamRangeForExport = new MethodMetrics(registry, "streamRangeForExport");
+    }
+
+    public EmployeeRepository getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Page<Employee> findAll(Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            Page<Employee> page = delegate.findAll(pageable);
+            findAllPaged.rows(page == null ? 0 : page.getNumberOfElements());
+            return page;
+        } catch (RuntimeException exception) {
+            findAllPaged.error();
+            throw exception;
+        } finally {
+            findAllPaged.stop(start);
+        }
+    }
+
+    @Override
+    public Employee save(Employee employee) {
+        long start = System.nanoTime();
+        try {
+            Employee saved = delegate.save(employee);
+            save.rows(1);
+            return saved;
+        } catch (RuntimeException exception) {
+            save.error();
+            throw exception;
+        } finally {
+            save.stop(start);
+        }
+    }
+
+    @Override
+    public Employee insert(Employee employee) {
+        long start = System.nanoTime();
+        try {
+            Employee inserted = delegate.insert(employee);
+            insert.rows(1);
+            return inserted;
+        } catch (RuntimeException exception) {
+            insert.error();
+            throw exception;
+        } finally {
+            insert.stop(start);
+        }
+    }
+
+    @Override
+    public long update(Employee employee, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            long version = delegate.update(employee, expectedVersion);
+            update.rows(version > 0 ? 1 : 0);
+            return version;
+        } catch (RuntimeException exception) {
+            update.error();
+            throw exception;
+        } finally {
+            update.stop(start);
+        }
+    }
+
+    @Override
+    public long patch(int id, Map<String, Object> changes, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            long version = delegate.patch(id, changes, expectedVersion);
+            patch.rows(version > 0 ? 1 : 0);
+            return version;
+        } catch (RuntimeException exception) {
+            patch.error();
+            throw exception;
+        } finally {
+            patch.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<Employee> findById(int id) {
+        long start = System.nanoTime();
+        try {
+            Optional<Employee> employee = delegate.findById(id);
+            findById.rows(employee.isPresent() ? 1 : 0);
+            return employee;
+        } catch (RuntimeException exception) {
+            findById.error();
+            throw exception;
+        } finally {
+            findById.stop(start);
+        }
+    }
+
+    @Override
+    public List<Employee> findAllById(List<Integer> ids) {
+        long start = System.nanoTime();
+        try {
+            List<Employee> employees = delegate.findAllById(ids);
+            findAllById.rows(employees.size());
+            return employees;
+        } catch (RuntimeException exception) {
+            findAllById.error();
+            throw exception;
+        } finally {
+            findAllById.stop(start);
+        }
+    }
+
+    @Override
+    public void deleteById(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteById(id);
+            deleteById.rows(1);
+        } catch (RuntimeException exception) {
+            deleteById.error();
+            throw exception;
+        } finally {
+            deleteById.stop(start);
+        }
+    }
+
+    @Override
+    public int deleteAllById(List<Integer> ids) {
+        long start = System.nanoTime();
+        try {
+            int rows = delegate.deleteAllById(ids);
+            deleteAllById.rows(rows);
+            return rows;
+        } catch (RuntimeException exception) {
+            deleteAllById.error();
+            throw exception;
+        } finally {
+            deleteAllById.stop(start);
+        }
+    }
+
+    @Override
+    public int deleteByCriteria(String name, String department) {
+        long start = System.nanoTime();
+        try {
+            int rows = delegate.deleteByCriteria(name, department);
+            deleteByCriteria.rows(rows);
+            return rows;
+        } catch (RuntimeException exception) {
+            deleteByCriteria.error();
+            throw exception;
+        } finally {
+            deleteByCriteria.stop(start);
+        }
+    }
+
+    @Override
+    public Long count() {
+        long start = System.nanoTime();
+        try {
+            Long total = delegate.count();
+            count.rows(1);
+            return total;
+        } catch (RuntimeException exception) {
+            count.error();
+            throw exception;
+        } finally {
+            count.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<Integer> findIdByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            Optional<Integer> id = delegate.findIdByEmail(email);
+            findIdByEmail.rows(id.isPresent() ? 1 : 0);
+            return id;
+        } catch (RuntimeException exception) {
+            findIdByEmail.error();
+            throw exception;
+        } finally {
+            findIdByEmail.stop(start);
+        }
+    }
+
+    @Override
+    public List<String> findAllEmails() {
+        long start = System.nanoTime();
+        try {
+            List<String> emails = delegate.findAllEmails();
+            findAllEmails.rows(emails.size());
+            return emails;
+        } catch (RuntimeException exception) {
+            findAllEmails.error();
+            throw exception;
+        } finally {
+            findAllEmails.stop(start);
+        }
+    }
+
+    @Override
+    public Page<Employee> findByCriteria(String name, String department, Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            Page<Employee> page = delegate.findByCriteria(name, department, pageable);
+            findByCriteria.rows(page == null ? 0 : page.getNumberOfElements());
+            return page;
+        } catch (RuntimeException exception) {
+            findByCriteria.error();
+            throw exception;
+        } finally {
+            findByCriteria.stop(start);
+        }
+    }
+
+    @Override
+    public List<Employee> findAll(Sort sort) {
+        long start = System.nanoTime();
+        try {
+            List<Employee> employees = delegate.findAll(sort);
+            findAllSorted.rows(employees == null ? 0 : employees.size());
+            return employees;
+        } catch (RuntimeException exception) {
+            findAllSorted.error();
+            throw exception;
+        } finally {
+            findAllSorted.stop(start);
+        }
+    }
+
+    @Override
+    public List<Employee> findByCriteriaForExport(String name, String department, Sort sort) {
+        long start = System.nanoTime();
+        try {
+            List<Employee> employees = delegate.findByCriteriaForExport(name, department, sort);
+            findByCriteriaForExport.rows(employees == null ? 0 : employees.size());
+            return employees;
+        } catch (RuntimeException exception) {
+            findByCriteriaForExport.error();
+            throw exception;
+        } finally {
+            findByCriteriaForExport.stop(start);
+        }
+    }
+
+    @Override
+    public int streamForExport(String name, String department, Sort sort, Consumer<Employee> action) {
+        long start = System.nanoTime();
+        try {
+            int rows = delegate.streamForExport(name, department, sort, action);
+            streamForExport.rows(rows);
+            return rows;
+        } catch (RuntimeException exception) {
+            streamForExport.error();
+            throw exception;
+        } finally {
+            streamForExport.stop(start);
+        }
+    }
+
+    @Override
+    public int streamModifiedBetween(LocalDateTime after, LocalDateTime upTo, Consumer<Employee> action) {
+        long start = System.nanoTime();
+        try {
+            int rows = delegate.streamModifiedBetween(after, upTo, action);
+            streamModifiedBetween.rows(rows);
+            return rows;
+        } catch (RuntimeException exception) {
+            streamModifiedBetween.error();
+            throw exception;
+        } finally {
+            streamModifiedBetween.stop(start);
+        }
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() {
+        long start = System.nanoTime();
+        try {
+            Optional<IdRange> range = delegate.findIdRange();
+            findIdRange.rows(range.isPresent() ? 1 : 0);
+            return range;
+        } catch (RuntimeException exception) {
+            findIdRange.error();
+            throw exception;
+        } finally {
+            findIdRange.stop(start);
+        }
+    }
+
+    @Override
+    public List<Employee> findRangeForExport(String name, String department, int fromId, int toId, Sort sort) {
+        long start = System.nanoTime();
+        try {
+            List<Employee> employees = delegate.findRangeForExport(name, department, fromId, toId, sort);
+            findRangeForExport.rows(employees.size());
+            return employees;
+        } catch (RuntimeException exception) {
+            findRangeForExport.error();
+            throw exception;
+        } finally {
+            findRangeForExport.stop(start);
+        }
+    }
+
+    @Override
+    public int streamRangeForExport(String name, String department, int fromId, int toId, Sort sort,
+                                    Consumer<Employee> action) {
+        long start = System.nanoTime();
+        try {
+            int rows = delegate.streamRangeForExport(name, department, fromId, toId, sort, action);
+            streamRangeForExport.rows(rows);
+            return rows;
+        } catch (RuntimeException exception) {
+            streamRangeForExport.error();
+            throw exception;
+        } finally {
+            streamRangeForExport.stop(start);
+        }
+    }
+
+    private static final class MethodMetrics {
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private final Counter errors;
+
+        private MethodMetrics(MeterRegistry registry, String method) {
+            this.timer = Timer.builder(TIMER_NAME)
+                    .description("Latency of EmployeeRepository calls")
+                    .tag("method", method)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.rows = DistributionSummary.builder(ROWS_NAME)
+                    .description("Rows returned or affected by EmployeeRepository calls")
+                    .tag("method", method)
+                    .register(registry);
+            this.errors = Counter.builder(ERRORS_NAME)
+                    .description("EmployeeRepository calls that threw")
+                    .tag("method", method)
+                    .register(registry);
+        }
+
+        private void stop(long start) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        private void rows(int amount) {
+            rows.record(amount);
+        }
+
+        private void error() {
+            errors.increment();
+        }
+    }
+}
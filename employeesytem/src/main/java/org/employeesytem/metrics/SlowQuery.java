@@ -0,0 +1,13 @@
+package org.employeesytem.metrics;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SlowQuery(Instant recordedAt,
+                        String sql,
+                        List<Object> parameters,
+                        long rowCount,
+                        double durationMillis,
+                        String serviceMethod,
+                        String plan) {
+}
@@ -0,0 +1,35 @@
+package org.employeesytem.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Times every statement issued through the wrapped {@link DataSource} and hands the result to the
+ * {@link SlowQueryRecorder}. Queries are timed until their {@link ResultSet} is closed, so the
+ * duration covers fetching as well as execution. Connections, statements and result sets are plain
+ * delegating wrappers: an execution costs two {@link System#nanoTime} calls and a comparison with the
+ * threshold, and bound parameters are kept unboxed in arrays owned by the statement and reused across
+ * executions.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+    private final SlowQueryRecorder recorder;
+
+    public SlowQueryDataSource(DataSource target, SlowQueryRecorder recorder) {
+        super(target);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new SlowQueryConnection(obtainTargetDataSource().getConnection(), recorder);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new SlowQueryConnection(obtainTargetDataSource().getConnection(username, password), recorder);
+    }
+}
@@ -0,0 +1,122 @@
+package org.employeesytem.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.service.EmployeeBulkheads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent statements that exceeded the configured threshold in a fixed-size ring buffer.
+ * Statements under the threshold return from {@link #complete} after a single comparison. A capacity
+ * of 0 keeps none and only counts them.
+ */
+@Component
+public class SlowQueryRecorder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryRecorder.class);
+
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final AtomicReferenceArray<SlowQuery> buffer;
+    private final AtomicLong next = new AtomicLong();
+    private final Counter slowQueries;
+
+    public SlowQueryRecorder(@Value("${employee.slow-query.threshold-ms:200}") long thresholdMillis,
+                             @Value("${employee.slow-query.capacity:100}") int capacity,
+                             @Value("${employee.slow-query.explain:false}") boolean explain,
+                             MeterRegistry meterRegistry) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explain = explain;
+        if (capacity < 0) {
+            throw new IllegalArgumentException("employee.slow-query.capacity must not be negative, was " + capacity);
+        }
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.slowQueries = Counter.builder("employee.slow.queries")
+                .description("Statements slower than the slow-query threshold")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a statement that took at least the threshold. {@code parameters} is {@code null} for a
+     * statement without any, and is only read, and its primitives boxed, for a slow one.
+     */
+    void complete(Connection connection, String sql, BoundParameters parameters, long rowCount, long durationNanos) {
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        List<Object> boundParameters = parameters == null ? List.of() : parameters.toList();
+        String plan = explain ? explain(connection, sql, boundParameters) : null;
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), sql, boundParameters, rowCount,
+                durationNanos / 1_000_000.0, EmployeeBulkheads.currentOperation(), plan);
+        slowQueries.increment();
+        if (buffer.length() == 0) {
+            return;
+        }
+        int slot = (int) (next.getAndIncrement() % buffer.length());
+        buffer.set(slot, slowQuery);
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        if (buffer.length() == 0) {
+            return List.of();
+        }
+        long end = next.get();
+        long start = Math.max(0, end - buffer.length());
+        List<SlowQuery> queries = new ArrayList<>();
+        for (long i = end - 1; i >= start; i--) {
+            SlowQuery query = buffer.get((int) (i % buffer.length()));
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        return queries;
+    }
+
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    private String explain(Connection connection, String sql, List<Object> parameters) {
+        if (connection == null || sql == null || !sql.trim().regionMatches(true, 0, "select", 0, 6)) {
+            return null;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        if (column > 1) {
+                            plan.append('\t');
+                        }
+                        plan.append(metaData.getColumnLabel(column)).append('=').append(resultSet.getObject(column));
+                    }
+                    plan.append('\n');
+                }
+                return plan.toString();
+            }
+        } catch (SQLException exception) {
+            LOGGER.debug("Could not explain slow query: {}", sql, exception);
+            return null;
+        }
+    }
+}
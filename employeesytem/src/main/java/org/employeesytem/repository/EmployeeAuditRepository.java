@@ -0,0 +1,74 @@
+package org.employeesytem.repository;
+
+import org.employeesytem.dto.EmployeeAuditRecord;
+import org.employeesytem.dto.EmployeeAuditRecord.Action;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts into and reads the append-only {@code employee_audit} table; nothing here updates or
+ * deletes a row, so the application's database user needs only INSERT and SELECT on it. Used by
+ * every profile, so it talks to the table through {@link JdbcTemplate}.
+ */
+@Repository
+public class EmployeeAuditRepository {
+    private static final String INSERT = "INSERT INTO employee_audit "
+            + "(event_id, action, employee_id, before_image, after_image, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final RowMapper<EmployeeAuditRecord> ROW_MAPPER = (row, rowNum) -> new EmployeeAuditRecord(
+            row.getString("event_id"), Action.valueOf(row.getString("action")), row.getInt("employee_id"),
+            row.getString("before_image"), row.getString("after_image"),
+            row.getTimestamp("occurred_at").toInstant());
+
+    private final JdbcTemplate jdbc;
+
+    public EmployeeAuditRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void insert(EmployeeAuditRecord record) {
+        jdbc.update(INSERT, record.eventId(), record.action().name(), record.employeeId(), record.before(),
+                record.after(), Timestamp.from(record.occurredAt()));
+    }
+
+    /**
+     * Inserts {@code records} as one JDBC batch. Joins the caller's transaction if there is one.
+     */
+    public void insertAll(List<EmployeeAuditRecord> records) {
+        jdbc.batchUpdate(INSERT, records, records.size(), (statement, record) -> {
+            statement.setString(1, record.eventId());
+            statement.setString(2, record.action().name());
+            statement.setInt(3, record.employeeId());
+            statement.setString(4, record.before());
+            statement.setString(5, record.after());
+            statement.setTimestamp(6, Timestamp.from(record.occurredAt()));
+        });
+    }
+
+    /**
+     * Which of {@code eventIds} have already been inserted.
+     */
+    public Set<String> findExistingEventIds(List<String> eventIds) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < eventIds.size(); from += EmployeeRepository.MAX_IDS_PER_STATEMENT) {
+            List<String> chunk = eventIds.subList(from,
+                    Math.min(from + EmployeeRepository.MAX_IDS_PER_STATEMENT, eventIds.size()));
+            existing.addAll(jdbc.queryForList("SELECT event_id FROM employee_audit WHERE event_id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", String.class, chunk.toArray()));
+        }
+        return existing;
+    }
+
+    /**
+     * The audit trail of one employee, oldest first.
+     */
+    public List<EmployeeAuditRecord> findByEmployeeId(int employeeId) {
+        return jdbc.query("SELECT * FROM employee_audit WHERE employee_id = ? ORDER BY seq", ROW_MAPPER, employeeId);
+    }
+}
@@ -0,0 +1,80 @@
+package org.employeesytem.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appends to and reads the {@code employee_change_log} table, which tells every node which employees
+ * were written. Appends join the caller's transaction, so a change is logged exactly when the write
+ * it describes commits. A row without an employee id means any employee may have changed, as after a
+ * delete by criteria. Deletes are flagged, so the log doubles as the source of delta export
+ * tombstones. Used by every profile, so it talks to the table through {@link JdbcTemplate}.
+ */
+@Repository
+public class EmployeeChangeLogRepository {
+    private final JdbcTemplate jdbc;
+
+    public EmployeeChangeLogRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void append(Integer employeeId, Long version) {
+        jdbc.update("INSERT INTO employee_change_log (employee_id, version) VALUES (?, ?)", employeeId, version);
+    }
+
+    /**
+     * Logs the delete of {@code employeeId}, or of employees matching some criteria if it is {@code null}.
+     */
+    public void appendDeletion(Integer employeeId) {
+        jdbc.update("INSERT INTO employee_change_log (employee_id, version, deleted) VALUES (?, NULL, TRUE)", employeeId);
+    }
+
+    public void appendDeletions(List<Integer> employeeIds) {
+        jdbc.batchUpdate("INSERT INTO employee_change_log (employee_id, version, deleted) VALUES (?, NULL, TRUE)",
+                employeeIds, employeeIds.size(), (statement, id) -> statement.setInt(1, id));
+    }
+
+    public long lastSequence() {
+        return jdbc.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM employee_change_log", Long.class);
+    }
+
+    /**
+     * Up to {@code limit} changes with a sequence above {@code sequence}, in sequence order.
+     */
+    public List<Change> findAfter(long sequence, int limit) {
+        return jdbc.query("SELECT seq, employee_id, version FROM employee_change_log WHERE seq > ? ORDER BY seq LIMIT ?",
+                (row, rowNum) -> new Change(row.getLong("seq"), row.getObject("employee_id", Integer.class),
+                        row.getObject("version", Long.class)),
+                sequence, limit);
+    }
+
+    /**
+     * The database's clock, which stamps {@code changed_at} and {@code employee.last_modified}.
+     */
+    public LocalDateTime currentTime() {
+        return jdbc.queryForObject("SELECT LOCALTIMESTAMP(6)", LocalDateTime.class);
+    }
+
+    /**
+     * The deletes logged after {@code after} up to and including {@code upTo}, in sequence order.
+     */
+    public List<Change> findDeletionsBetween(LocalDateTime after, LocalDateTime upTo) {
+        return jdbc.query("SELECT seq, employee_id, version FROM employee_change_log "
+                        + "WHERE deleted = TRUE AND changed_at > ? AND changed_at <= ? ORDER BY seq",
+                (row, rowNum) -> new Change(row.getLong("seq"), row.getObject("employee_id", Integer.class),
+                        row.getObject("version", Long.class)),
+                after, upTo);
+    }
+
+    public int deleteOlderThan(Instant cutoff) {
+        return jdbc.update("DELETE FROM employee_change_log WHERE changed_at < ?", Timestamp.from(cutoff));
+    }
+
+    public record Change(long sequence, Integer employeeId, Long version) {
+    }
+}
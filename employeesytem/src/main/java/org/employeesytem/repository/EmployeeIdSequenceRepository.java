@@ -0,0 +1,88 @@
+package org.employeesytem.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reserves blocks of employee ids from the {@code employee_id_sequence} table. Used by every
+ * profile, so it talks to the table through {@link JdbcTemplate} directly, and asks the
+ * {@link EmployeeRepository} for the largest id, since under {@code sharded} the employees are not in
+ * the sequence's database.
+ */
+@Repository
+public class EmployeeIdSequenceRepository {
+    static final String SEQUENCE = "employee";
+
+    /**
+     * Advances the sequence and hands the new value back through {@code LAST_INSERT_ID}, which MySQL
+     * reports as the generated key; H2 reports the updated column.
+     */
+    private static final String RESERVE =
+            "UPDATE employee_id_sequence SET next_val = LAST_INSERT_ID(next_val + ?) WHERE name = ?";
+
+    private final JdbcTemplate jdbc;
+    private final EmployeeRepository employees;
+
+    public EmployeeIdSequenceRepository(JdbcTemplate jdbc, EmployeeRepository employees) {
+        this.jdbc = jdbc;
+        this.employees = employees;
+    }
+
+    /**
+     * Creates the sequence row, or moves it up, so that it starts above the largest id in the table
+     * and the ids clients picked before it existed are never handed out. Run once at startup; ids
+     * clients pick afterwards go through {@link #skip}.
+     */
+    public void startAboveExistingIds() {
+        long freeFrom = employees.findIdRange().map(range -> range.max() + 1L).orElse(1L);
+        try {
+            jdbc.update("INSERT INTO employee_id_sequence (name, next_val) VALUES (?, ?)", SEQUENCE, freeFrom);
+        } catch (DuplicateKeyException exception) {
+            jdbc.update("UPDATE employee_id_sequence SET next_val = ? WHERE name = ? AND next_val < ?",
+                    freeFrom, SEQUENCE, freeFrom);
+        }
+    }
+
+    /**
+     * Moves the sequence past {@code id}, which a client picked, so that no block reserved from now on
+     * contains it. A block reserved before may; whoever holds it steps over the id when its insert
+     * fails.
+     */
+    public void skip(int id) {
+        jdbc.update("UPDATE employee_id_sequence SET next_val = ? WHERE name = ? AND next_val <= ?",
+                id + 1L, SEQUENCE, id);
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids and returns the first, in one statement in autocommit
+     * mode: the update both advances the row and returns the value it left, so nodes reserving at
+     * once are ordered by the row lock and never read it separately.
+     */
+    public int reserve(int count) {
+        long end = jdbc.execute((ConnectionCallback<Long>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(RESERVE, new String[] {"next_val"})) {
+                statement.setInt(1, count);
+                statement.setString(2, SEQUENCE);
+                if (statement.executeUpdate() == 0) {
+                    throw new IllegalStateException("The employee id sequence has not been started");
+                }
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("The database did not return the reserved employee ids");
+                    }
+                    return keys.getLong(1);
+                }
+            }
+        });
+        if (end - 1 > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Employee ids are exhausted");
+        }
+        return (int) (end - count);
+    }
+}
@@ -1,27 +1,109 @@
 package org.employeesytem.repository;
 
 import org.employeesytem.dto.Employee;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeRepository {
+    int MAX_IDS_PER_STATEMENT = 500;
+    int EXPORT_FETCH_SIZE = 1000;
+    String EMAIL_CONSTRAINT = "uk_employee_email";
+
     Page<Employee> findAll(Pageable pageable);
 
     Employee save(Employee employee);
 
+    /**
+     * Inserts a new employee. Unlike {@link #save} it never overwrites the employee that already has
+     * the id: a taken id fails with a {@link DataIntegrityViolationException}, as a taken email does.
+     */
+    Employee insert(Employee employee);
+
+    /**
+     * Replaces the employee's columns, if it is still at {@code expectedVersion} when one is given,
+     * and returns the version the write produced, or 0 if no row was updated.
+     */
+    long update(Employee employee, Long expectedVersion);
+
+    /**
+     * Writes only the columns in {@code changes} like {@link #update}, and returns the same.
+     */
+    long patch(int id, Map<String, Object> changes, Long expectedVersion);
+
     Optional<Employee> findById(int id);
 
+    /**
+     * The employees with the given ids, in no particular order; ids without an employee are left out.
+     */
+    List<Employee> findAllById(List<Integer> ids);
+
     void deleteById(int id);
 
+    int deleteAllById(List<Integer> ids);
+
+    int deleteByCriteria(String name, String department);
+
     Long count();
 
+    Optional<Integer> findIdByEmail(String email);
+
+    List<String> findAllEmails();
+
     Page<Employee> findByCriteria(String name, String department, Pageable pageable);
 
     List<Employee> findAll(Sort sort);
 
     List<Employee> findByCriteriaForExport(String name, String department, Sort sort);
+
+    /**
+     * Hands the employees {@link #findByCriteriaForExport} would return to {@code action} one at a
+     * time as they are read, without collecting them, and returns how many there were. Either filter
+     * may be {@code null}.
+     */
+    int streamForExport(String name, String department, Sort sort, Consumer<Employee> action);
+
+    /**
+     * Hands the employees inserted or updated after {@code after} up to and including {@code upTo} to
+     * {@code action} as they are read, by {@code last_modified} and then id, like
+     * {@link #streamForExport}, and returns how many there were.
+     */
+    int streamModifiedBetween(LocalDateTime after, LocalDateTime upTo, Consumer<Employee> action);
+
+    /**
+     * The smallest and largest employee id, or empty if there are no employees.
+     */
+    Optional<IdRange> findIdRange();
+
+    /**
+     * Like {@link #findByCriteriaForExport} but limited to ids from {@code fromId} to {@code toId},
+     * inclusive, so that disjoint ranges can be read concurrently.
+     */
+    List<Employee> findRangeForExport(String name, String department, int fromId, int toId, Sort sort);
+
+    /**
+     * Like {@link #streamForExport} but limited to ids from {@code fromId} to {@code toId}, inclusive.
+     */
+    int streamRangeForExport(String name, String department, int fromId, int toId, Sort sort,
+                             Consumer<Employee> action);
+
+    /**
+     * Whether a write failed because another employee already has the email, as opposed to the id.
+     */
+    static boolean isEmailConflict(DataIntegrityViolationException exception) {
+        String message = NestedExceptionUtils.getMostSpecificCause(exception).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT);
+    }
+
+    record IdRange(int min, int max) {
+    }
 }
@@ -0,0 +1,83 @@
+package org.employeesytem.repository;
+
+import org.employeesytem.dto.Employee;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code UPDATE}s behind {@link EmployeeRepository#update} and {@link EmployeeRepository#patch},
+ * shared by the repositories that run them on a plain connection. Each bumps the version through
+ * {@code LAST_INSERT_ID(version + 1)} and asks for {@code version} as a generated key, so the version
+ * it produced comes back with the update count and a write without an expected version learns it
+ * without reading the row: MySQL reports the value given to {@code LAST_INSERT_ID} as the key, and H2
+ * the updated column.
+ */
+public final class EmployeeUpdateStatements {
+    /**
+     * The column of each employee property a patch or a sort may name.
+     */
+    public static final Map<String, String> COLUMNS = Map.of(
+            "firstName", "first_name",
+            "lastName", "last_name",
+            "email", "email",
+            "department", "department",
+            "salary", "salary");
+
+    private static final String NEXT_VERSION =
+            "version = LAST_INSERT_ID(version + 1), last_modified = CURRENT_TIMESTAMP(6) WHERE id = ?";
+
+    private EmployeeUpdateStatements() {
+    }
+
+    public static long update(Connection connection, Employee employee, Long expectedVersion) throws SQLException {
+        List<Object> args = new ArrayList<>(List.of(employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getDepartment(), employee.getSalary(), employee.getId()));
+        return execute(connection, "UPDATE employee SET first_name = ?, last_name = ?, email = ?, department = ?, "
+                + "salary = ?, " + NEXT_VERSION, args, expectedVersion);
+    }
+
+    public static long patch(Connection connection, int id, Map<String, Object> changes, Long expectedVersion)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE employee SET ");
+        List<Object> args = new ArrayList<>(changes.size() + 2);
+        changes.forEach((field, value) -> {
+            String column = COLUMNS.get(field);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown employee field " + field);
+            }
+            sql.append(column).append(" = ?, ");
+            args.add(value);
+        });
+        sql.append(NEXT_VERSION);
+        args.add(id);
+        return execute(connection, sql.toString(), args, expectedVersion);
+    }
+
+    private static long execute(Connection connection, String sql, List<Object> args, Long expectedVersion)
+            throws SQLException {
+        if (expectedVersion != null) {
+            sql += " AND version = ?";
+            args.add(expectedVersion);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql, new String[] {"version"})) {
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            if (statement.executeUpdate() == 0) {
+                return 0;
+            }
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("The database did not return the version of the updated employee");
+                }
+                return keys.getLong(1);
+            }
+        }
+    }
+}
@@ -2,20 +2,31 @@ package org.employeesytem.repository.jdbc;
 
 import org.employeesytem.dto.Employee;
 import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.exceptions.InvalidRequestException;
 import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.repository.EmployeeUpdateStatements;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 @Profile("jdbc")
@@ -26,38 +37,38 @@ public class EmployeeRepositoryJDBCImpl implements EmployeeRepository {
         this.jdbc = jdbc;
     }
 
-    // To-do: Implement Pagination in JDBC
     @Override
     public Page<Employee> findAll(Pageable pageable) {
-        String sql = "SELECT * FROM employee";
-        jdbc.query(sql, new BeanPropertyRowMapper<>(Employee.class));
-        return new PageImpl<>(Collections.emptyList());
+        return findByCriteria(null, null, pageable);
     }
 
     public Employee save(Employee employee) {
-        int rows = update(employee);
-        if (rows > 0) {
+        if (update(employee) > 0) {
             return employee;
         }
-        return insert(employee);
-    }
-
-    private Employee insert(Employee employee) {
         try {
-            String sql = "INSERT INTO employee (id, first_name, last_name, email, department, salary) VALUES (?, ?, ?, ?, ?, ?)";
-            jdbc.update(sql,
-                    employee.getId(),
-                    employee.getFirstName(),
-                    employee.getLastName(),
-                    employee.getEmail(),
-                    employee.getDepartment(),
-                    employee.getSalary());
-            return employee;
+            return insert(employee);
         } catch (DuplicateKeyException exception) {
+            if (EmployeeRepository.isEmailConflict(exception)) {
+                throw exception;
+            }
             throw new IllegalArgumentException("Employee with id " + employee.getId() + " already exists", exception);
         }
     }
 
+    @Override
+    public Employee insert(Employee employee) {
+        String sql = "INSERT INTO employee (id, first_name, last_name, email, department, salary) VALUES (?, ?, ?, ?, ?, ?)";
+        jdbc.update(sql,
+                employee.getId(),
+                employee.getFirstName(),
+                employee.getLastName(),
+                employee.getEmail(),
+                employee.getDepartment(),
+                employee.getSalary());
+        return employee;
+    }
+
     public Optional<Employee> findById(int id) {
         String sql = "SELECT * FROM employee WHERE id = ?";
         List<Employee> employees = jdbc.query(sql,
@@ -65,15 +76,31 @@ public class EmployeeRepositoryJDBCImpl implements EmployeeRepository {
         return employees.isEmpty() ? Optional.empty() : Optional.of(employees.get(0));
     }
 
-    private int update(Employee employee) {
-        String sql = "UPDATE employee SET first_name = ?, last_name = ?, email = ?, department = ?, salary = ? WHERE id = ?";
-        return jdbc.update(sql,
-                employee.getFirstName(),
-                employee.getLastName(),
-                employee.getEmail(),
-                employee.getDepartment(),
-                employee.getSalary(),
-                employee.getId());
+    @Override
+    public List<Employee> findAllById(List<Integer> ids) {
+        List<Employee> employees = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size()));
+            String sql = "SELECT * FROM employee WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            employees.addAll(jdbc.query(sql, new BeanPropertyRowMapper<>(Employee.class), chunk.toArray()));
+        }
+        return employees;
+    }
+
+    private long update(Employee employee) {
+        return update(employee, null);
+    }
+
+    @Override
+    public long update(Employee employee, Long expectedVersion) {
+        return jdbc.execute((ConnectionCallback<Long>)
+                connection -> EmployeeUpdateStatements.update(connection, employee, expectedVersion));
+    }
+
+    @Override
+    public long patch(int id, Map<String, Object> changes, Long expectedVersion) {
+        return jdbc.execute((ConnectionCallback<Long>)
+                connection -> EmployeeUpdateStatements.patch(connection, id, changes, expectedVersion));
     }
 
     public void deleteById(int id) {
@@ -84,24 +111,154 @@ public class EmployeeRepositoryJDBCImpl implements EmployeeRepository {
         }
     }
 
+    @Override
+    public int deleteAllById(List<Integer> ids) {
+        int rows = 0;
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size()));
+            String sql = "DELETE FROM employee WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            rows += jdbc.update(sql, chunk.toArray());
+        }
+        return rows;
+    }
+
+    @Override
+    public int deleteByCriteria(String name, String department) {
+        List<Object> args = new ArrayList<>();
+        String sql = "DELETE FROM employee" + where(name, department, args);
+        return jdbc.update(sql, args.toArray());
+    }
+
+    private static String where(String name, String department, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (name != null) {
+            String pattern = "%" + name.toLowerCase() + "%";
+            conditions.add("(LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ?)");
+            args.add(pattern);
+            args.add(pattern);
+        }
+        if (department != null) {
+            conditions.add("LOWER(department) = ?");
+            args.add(department.toLowerCase());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
     @Override
     public Long count() {
         return jdbc.queryForObject("SELECT COUNT(*) FROM employee", Long.class);
     }
 
-    // To-do: Implement them
     @Override
-    public Page<Employee> findByCriteria(String name, String department, Pageable pageable) {
-        return null;
+    public Optional<Integer> findIdByEmail(String email) {
+        List<Integer> ids = jdbc.queryForList("SELECT id FROM employee WHERE email = ?", Integer.class, email);
+        return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(0));
+    }
+
+    @Override
+    public List<String> findAllEmails() {
+        return jdbc.queryForList("SELECT email FROM employee", String.class);
     }
 
     @Override
     public List<Employee> findAll(Sort sort) {
-        return List.of();
+        String sql = "SELECT * FROM employee" + orderBy(sort);
+        return jdbc.query(sql, new BeanPropertyRowMapper<>(Employee.class));
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        List<String> terms = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = "id".equals(order.getProperty()) ? "id" : EmployeeUpdateStatements.COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new InvalidRequestException("Cannot sort employees by " + order.getProperty() + ".");
+            }
+            terms.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return " ORDER BY " + String.join(", ", terms);
+    }
+
+    @Override
+    public Page<Employee> findByCriteria(String name, String department, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        String where = where(name, department, args);
+        String sql = "SELECT * FROM employee" + where + orderBy(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            List<Employee> employees = jdbc.query(sql, new BeanPropertyRowMapper<>(Employee.class), args.toArray());
+            return new PageImpl<>(employees, pageable, employees.size());
+        }
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(pageable.getPageSize());
+        pageArgs.add(pageable.getOffset());
+        List<Employee> employees = jdbc.query(sql + " LIMIT ? OFFSET ?",
+                new BeanPropertyRowMapper<>(Employee.class), pageArgs.toArray());
+        return PageableExecutionUtils.getPage(employees, pageable,
+                () -> jdbc.queryForObject("SELECT COUNT(*) FROM employee" + where, Long.class, args.toArray()));
     }
 
     @Override
     public List<Employee> findByCriteriaForExport(String name, String department, Sort sort) {
-        return List.of();
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT * FROM employee" + where(name, department, args) + orderBy(sort);
+        return jdbc.query(sql, new BeanPropertyRowMapper<>(Employee.class), args.toArray());
+    }
+
+    @Override
+    public int streamForExport(String name, String department, Sort sort, Consumer<Employee> action) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT * FROM employee" + where(name, department, args) + orderBy(sort);
+        return stream(sql, args, action);
+    }
+
+    @Override
+    public int streamRangeForExport(String name, String department, int fromId, int toId, Sort sort,
+                                    Consumer<Employee> action) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT * FROM employee" + inRange(where(name, department, args), fromId, toId, args) + orderBy(sort);
+        return stream(sql, args, action);
+    }
+
+    private int stream(String sql, List<?> args, Consumer<Employee> action) {
+        BeanPropertyRowMapper<Employee> mapper = new BeanPropertyRowMapper<>(Employee.class);
+        int[] rows = {0};
+        jdbc.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(statement);
+            return statement;
+        }, (RowCallbackHandler) row -> action.accept(mapper.mapRow(row, rows[0]++)));
+        return rows[0];
+    }
+
+    @Override
+    public int streamModifiedBetween(LocalDateTime after, LocalDateTime upTo, Consumer<Employee> action) {
+        return stream("SELECT * FROM employee WHERE last_modified > ? AND last_modified <= ? ORDER BY last_modified, id",
+                List.of(after, upTo), action);
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() {
+        return jdbc.query("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM employee", rows -> {
+            if (!rows.next() || rows.getObject("min_id") == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new IdRange(rows.getInt("min_id"), rows.getInt("max_id")));
+        });
+    }
+
+    @Override
+    public List<Employee> findRangeForExport(String name, String department, int fromId, int toId, Sort sort) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT * FROM employee" + inRange(where(name, department, args), fromId, toId, args) + orderBy(sort);
+        return jdbc.query(sql, new BeanPropertyRowMapper<>(Employee.class), args.toArray());
+    }
+
+    private static String inRange(String where, int fromId, int toId, List<Object> args) {
+        args.add(fromId);
+        args.add(toId);
+        return where + (where.isEmpty() ? " WHERE " : " AND ") + "id BETWEEN ? AND ?";
     }
 }
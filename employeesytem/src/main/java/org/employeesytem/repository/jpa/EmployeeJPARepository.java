@@ -1,16 +1,26 @@
 package org.employeesytem.repository.jpa;
 
+import jakarta.persistence.QueryHint;
 import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeRepository;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeJPARepository extends JpaRepository<Employee, Integer> {
+public interface EmployeeJPARepository extends JpaRepository<Employee, Integer>, EmployeeJPARepositoryCustom {
     @Query("SELECT e FROM Employee e WHERE " +
             "(:name IS NULL OR LOWER(e.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(e.lastName) LIKE LOWER(CONCAT('%', :name, '%')))" +
             "AND (:department IS NULL OR LOWER(e.department) = LOWER(:department))")
@@ -22,4 +32,61 @@ public interface EmployeeJPARepository extends JpaRepository<Employee, Integer>
             "AND (:department IS NULL OR LOWER(e.department) = LOWER(:department))")
     List<Employee> findByCriteriaForExport(@Param("name") String name,
                                            @Param("department") String department, Sort sort);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EmployeeRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e WHERE " +
+            "(:name IS NULL OR LOWER(e.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(e.lastName) LIKE LOWER(CONCAT('%', :name, '%')))" +
+            "AND (:department IS NULL OR LOWER(e.department) = LOWER(:department))")
+    Stream<Employee> streamByCriteriaForExport(@Param("name") String name,
+                                               @Param("department") String department, Sort sort);
+
+    @Query("SELECT e FROM Employee e WHERE e.id BETWEEN :fromId AND :toId AND " +
+            "(:name IS NULL OR LOWER(e.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(e.lastName) LIKE LOWER(CONCAT('%', :name, '%')))" +
+            "AND (:department IS NULL OR LOWER(e.department) = LOWER(:department))")
+    List<Employee> findRangeForExport(@Param("name") String name, @Param("department") String department,
+                                      @Param("fromId") int fromId, @Param("toId") int toId, Sort sort);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EmployeeRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e WHERE e.id BETWEEN :fromId AND :toId AND " +
+            "(:name IS NULL OR LOWER(e.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(e.lastName) LIKE LOWER(CONCAT('%', :name, '%')))" +
+            "AND (:department IS NULL OR LOWER(e.department) = LOWER(:department))")
+    Stream<Employee> streamRangeForExport(@Param("name") String name, @Param("department") String department,
+                                          @Param("fromId") int fromId, @Param("toId") int toId, Sort sort);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EmployeeRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e WHERE e.lastModified > :after AND e.lastModified <= :upTo ORDER BY e.lastModified, e.id")
+    Stream<Employee> streamModifiedBetween(@Param("after") LocalDateTime after, @Param("upTo") LocalDateTime upTo);
+
+    @Query("SELECT MIN(e.id) FROM Employee e")
+    Optional<Integer> findMinId();
+
+    @Query("SELECT MAX(e.id) FROM Employee e")
+    Optional<Integer> findMaxId();
+
+    @Query("SELECT e.id FROM Employee e WHERE e.email = :email")
+    Optional<Integer> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT e.email FROM Employee e")
+    List<String> findAllEmails();
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Employee e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Employee e WHERE " +
+            "(:name IS NULL OR LOWER(e.firstName) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(e.lastName) LIKE LOWER(CONCAT('%', :name, '%')))" +
+            "AND (:department IS NULL OR LOWER(e.department) = LOWER(:department))")
+    int deleteByCriteria(@Param("name") String name, @Param("department") String department);
 }
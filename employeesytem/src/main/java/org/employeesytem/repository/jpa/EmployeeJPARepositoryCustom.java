@@ -0,0 +1,11 @@
+package org.employeesytem.repository.jpa;
+
+import org.employeesytem.dto.Employee;
+
+import java.util.Map;
+
+public interface EmployeeJPARepositoryCustom {
+    long update(Employee employee, Long expectedVersion);
+
+    long patch(int id, Map<String, Object> changes, Long expectedVersion);
+}
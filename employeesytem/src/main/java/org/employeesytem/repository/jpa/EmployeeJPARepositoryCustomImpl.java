@@ -0,0 +1,37 @@
+package org.employeesytem.repository.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeUpdateStatements;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Runs updates as {@link EmployeeUpdateStatements} on the session's connection, since JPQL cannot
+ * return the version an update produced.
+ */
+public class EmployeeJPARepositoryCustomImpl implements EmployeeJPARepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public long update(Employee employee, Long expectedVersion) {
+        long version = entityManager.unwrap(Session.class).doReturningWork(
+                connection -> EmployeeUpdateStatements.update(connection, employee, expectedVersion));
+        entityManager.clear();
+        return version;
+    }
+
+    @Override
+    @Transactional
+    public long patch(int id, Map<String, Object> changes, Long expectedVersion) {
+        long version = entityManager.unwrap(Session.class).doReturningWork(
+                connection -> EmployeeUpdateStatements.patch(connection, id, changes, expectedVersion));
+        entityManager.clear();
+        return version;
+    }
+}
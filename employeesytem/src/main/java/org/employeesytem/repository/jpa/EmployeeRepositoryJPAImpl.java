@@ -1,5 +1,7 @@
 package org.employeesytem.repository.jpa;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.employeesytem.dto.Employee;
 import org.employeesytem.repository.EmployeeRepository;
 import org.springframework.context.annotation.Profile;
@@ -7,15 +9,25 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 @Profile("jpa")
 public class EmployeeRepositoryJPAImpl implements EmployeeRepository {
     private final EmployeeJPARepository jpa;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public EmployeeRepositoryJPAImpl(EmployeeJPARepository jpa) {
         this.jpa = jpa;
     }
@@ -30,21 +42,75 @@ public class EmployeeRepositoryJPAImpl implements EmployeeRepository {
         return jpa.save(employee);
     }
 
+    /**
+     * Spring Data persists an employee without a version rather than merging it, so a taken id fails
+     * the flush, which happens here rather than at commit so that the caller sees the failure before
+     * it goes on to log and audit the insert.
+     */
+    @Override
+    public Employee insert(Employee employee) {
+        employee.setVersion(null);
+        return jpa.saveAndFlush(employee);
+    }
+
+    @Override
+    public long update(Employee employee, Long expectedVersion) {
+        return jpa.update(employee, expectedVersion);
+    }
+
+    @Override
+    public long patch(int id, Map<String, Object> changes, Long expectedVersion) {
+        return jpa.patch(id, changes, expectedVersion);
+    }
+
     @Override
     public Optional<Employee> findById(int id) {
         return jpa.findById(id);
     }
 
+    @Override
+    public List<Employee> findAllById(List<Integer> ids) {
+        List<Employee> employees = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            employees.addAll(jpa.findAllById(ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size()))));
+        }
+        return employees;
+    }
+
     @Override
     public void deleteById(int id) {
         jpa.deleteById(id);
     }
 
+    @Override
+    public int deleteAllById(List<Integer> ids) {
+        int rows = 0;
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            rows += jpa.deleteByIdIn(ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size())));
+        }
+        return rows;
+    }
+
+    @Override
+    public int deleteByCriteria(String name, String department) {
+        return jpa.deleteByCriteria(name, department);
+    }
+
     @Override
     public Long count() {
         return jpa.count();
     }
 
+    @Override
+    public Optional<Integer> findIdByEmail(String email) {
+        return jpa.findIdByEmail(email);
+    }
+
+    @Override
+    public List<String> findAllEmails() {
+        return jpa.findAllEmails();
+    }
+
     @Override
     public Page<Employee> findByCriteria(String name, String department, Pageable pageable) {
         return jpa.findByCriteria(name, department, pageable);
@@ -59,4 +125,58 @@ public class EmployeeRepositoryJPAImpl implements EmployeeRepository {
     public List<Employee> findByCriteriaForExport(String name, String department, Sort sort) {
         return jpa.findByCriteriaForExport(name, department, sort);
     }
+
+    /**
+     * Runs in a read-only transaction, which keeps the connection open while the result is scrolled,
+     * and detaches each employee once handed on so the persistence context does not grow with it.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public int streamForExport(String name, String department, Sort sort, Consumer<Employee> action) {
+        return stream(jpa.streamByCriteriaForExport(name, department, sort), action);
+    }
+
+    /**
+     * Runs in a read-only transaction like {@link #streamForExport}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public int streamRangeForExport(String name, String department, int fromId, int toId, Sort sort,
+                                    Consumer<Employee> action) {
+        return stream(jpa.streamRangeForExport(name, department, fromId, toId, sort), action);
+    }
+
+    private int stream(Stream<Employee> result, Consumer<Employee> action) {
+        int rows = 0;
+        try (Stream<Employee> employees = result) {
+            Iterator<Employee> iterator = employees.iterator();
+            while (iterator.hasNext()) {
+                Employee employee = iterator.next();
+                action.accept(employee);
+                entityManager.detach(employee);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Runs in a read-only transaction like {@link #streamForExport}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public int streamModifiedBetween(LocalDateTime after, LocalDateTime upTo, Consumer<Employee> action) {
+        return stream(jpa.streamModifiedBetween(after, upTo), action);
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() {
+        Optional<Integer> min = jpa.findMinId();
+        return min.flatMap(first -> jpa.findMaxId().map(last -> new IdRange(first, last)));
+    }
+
+    @Override
+    public List<Employee> findRangeForExport(String name, String department, int fromId, int toId, Sort sort) {
+        return jpa.findRangeForExport(name, department, fromId, toId, sort);
+    }
 }
@@ -0,0 +1,583 @@
+package org.employeesytem.repository.sharded;
+
+import org.employeesytem.dto.Employee;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.repository.jdbc.EmployeeRepositoryJDBCImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Spreads employees over {@link EmployeeShards} by a hash of their id, each shard holding an
+ * {@code employee} table of its own that is read and written like the JDBC profile's. Reads and
+ * writes of one employee go to its shard. Everything else is asked of every shard at once, on a
+ * thread per shard from the calling workload's {@link ShardQueryExecutors}, and the sorted answers
+ * are k-way merged on the requested order and then id: a page at offset {@code n} reads the first
+ * {@code n} plus page size rows of every shard, so deep pages cost a multiple of what they do on one
+ * database.
+ * <p>
+ * Statements run on the calling thread join its transaction (see {@link ShardTransaction}), so a
+ * write and its change log entry still commit together; scatter-gather reads run outside it.
+ * Uniqueness of ids holds across shards, since the id picks the shard. Uniqueness of emails is held
+ * by the {@code employee_email} table on {@code spring.datasource}: every write that stores an email
+ * claims it there after writing the shard, in the same transaction, so of two writers of one email
+ * on different shards the second waits for the first's claim and fails on its
+ * {@code uk_employee_email_owner} constraint. Lookups by email read that table instead of every
+ * shard. It is reconciled with the shards on start, which fills it for employees written before it
+ * existed.
+ * <p>
+ * The merge compares text in Java. Where {@code employee.export.binary-text-order} says the
+ * databases order text by code unit it uses the same order; otherwise it ignores case and accents
+ * like MySQL's default collation, which agrees with the databases for the names and departments
+ * this application stores but not for every string Unicode has.
+ */
+@Repository
+@Profile("sharded")
+@DependsOnDatabaseInitialization
+public class EmployeeRepositoryShardedImpl implements EmployeeRepository, InitializingBean, DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeRepositoryShardedImpl.class);
+    private static final Sort BY_ID = Sort.by("id");
+    private static final Comparator<Employee> BY_LAST_MODIFIED = Comparator.comparing(Employee::getLastModified)
+            .thenComparingInt(Employee::getId);
+
+    private final List<DataSource> dataSources;
+    private final List<EmployeeRepository> shards;
+    private final JdbcTemplate primary;
+    private final boolean binaryTextOrder;
+    private final ShardQueryExecutors executor;
+
+    public EmployeeRepositoryShardedImpl(EmployeeShards shards, JdbcTemplate primary, Environment environment,
+                                         @Value("${employee.export.binary-text-order:false}") boolean binaryTextOrder) {
+        this.dataSources = shards.dataSources();
+        this.primary = primary;
+        this.shards = dataSources.stream()
+                .<EmployeeRepository>map(dataSource -> new EmployeeRepositoryJDBCImpl(new JdbcTemplate(dataSource)))
+                .toList();
+        this.binaryTextOrder = binaryTextOrder;
+        this.executor = new ShardQueryExecutors(this.shards.size(), environment);
+    }
+
+    /**
+     * Makes {@code employee_email} hold exactly the shards' emails: claims missing from it are added
+     * and claims of employees no shard has are dropped. An email two shards both hold is logged and
+     * left to the employee that claimed it first.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Map<Integer, String> stored = new HashMap<>();
+        for (DataSource dataSource : dataSources) {
+            new JdbcTemplate(dataSource).query("SELECT id, email FROM employee",
+                    row -> {
+                        stored.put(row.getInt("id"), row.getString("email"));
+                    });
+        }
+        Map<Integer, String> claimed = new HashMap<>();
+        primary.query("SELECT employee_id, email FROM employee_email",
+                row -> {
+                    claimed.put(row.getInt("employee_id"), row.getString("email"));
+                });
+        List<Integer> stale = claimed.keySet().stream().filter(id -> !stored.containsKey(id)).toList();
+        release(stale);
+        int added = 0;
+        for (Map.Entry<Integer, String> employee : stored.entrySet()) {
+            if (employee.getValue().equals(claimed.get(employee.getKey()))) {
+                continue;
+            }
+            try {
+                claim(employee.getKey(), employee.getValue());
+                added++;
+            } catch (DuplicateKeyException exception) {
+                LOGGER.warn("Employee {} shares its email with an employee on another shard", employee.getKey());
+            }
+        }
+        if (added > 0 || !stale.isEmpty()) {
+            LOGGER.info("Reconciled employee_email with the shards: {} claims added, {} dropped", added, stale.size());
+        }
+    }
+
+    /**
+     * The shard {@code id} lives on. Ids are mixed first so that consecutive ones are spread evenly.
+     */
+    int shardOf(int id) {
+        int hash = id;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards.size());
+    }
+
+    @Override
+    public Page<Employee> findAll(Pageable pageable) {
+        return findByCriteria(null, null, pageable);
+    }
+
+    @Override
+    public Employee save(Employee employee) {
+        Employee saved = on(employee.getId()).save(employee);
+        claim(employee.getId(), employee.getEmail());
+        return saved;
+    }
+
+    @Override
+    public Employee insert(Employee employee) {
+        Employee inserted = on(employee.getId()).insert(employee);
+        claim(employee.getId(), employee.getEmail());
+        return inserted;
+    }
+
+    @Override
+    public long update(Employee employee, Long expectedVersion) {
+        long version = on(employee.getId()).update(employee, expectedVersion);
+        if (version > 0) {
+            claim(employee.getId(), employee.getEmail());
+        }
+        return version;
+    }
+
+    @Override
+    public long patch(int id, Map<String, Object> changes, Long expectedVersion) {
+        long version = on(id).patch(id, changes, expectedVersion);
+        if (version > 0 && changes.containsKey("email")) {
+            claim(id, (String) changes.get("email"));
+        }
+        return version;
+    }
+
+    @Override
+    public Optional<Employee> findById(int id) {
+        return on(id).findById(id);
+    }
+
+    @Override
+    public List<Employee> findAllById(List<Integer> ids) {
+        Map<Integer, List<Integer>> idsByShard = byShard(ids);
+        return gatherEach(shard -> idsByShard.containsKey(shard)
+                ? shards.get(shard).findAllById(idsByShard.get(shard))
+                : List.<Employee>of()).stream().flatMap(List::stream).toList();
+    }
+
+    @Override
+    public void deleteById(int id) {
+        on(id).deleteById(id);
+        release(List.of(id));
+    }
+
+    @Override
+    public int deleteAllById(List<Integer> ids) {
+        int rows = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : byShard(ids).entrySet()) {
+            rows += joined(entry.getKey()).deleteAllById(entry.getValue());
+        }
+        release(ids);
+        return rows;
+    }
+
+    /**
+     * Deletes from one shard after another on the calling thread, so that every delete joins its
+     * transaction. Each shard's matching ids are read first and deleted by id, so that their email
+     * claims can be released.
+     */
+    @Override
+    public int deleteByCriteria(String name, String department) {
+        int rows = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            List<Integer> ids = joined(shard).findByCriteriaForExport(name, department, BY_ID).stream()
+                    .map(Employee::getId)
+                    .toList();
+            rows += shards.get(shard).deleteAllById(ids);
+            release(ids);
+        }
+        return rows;
+    }
+
+    @Override
+    public Long count() {
+        return gather(EmployeeRepository::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public Optional<Integer> findIdByEmail(String email) {
+        List<Integer> ids = primary.queryForList("SELECT employee_id FROM employee_email WHERE email = ?",
+                Integer.class, email);
+        return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(0));
+    }
+
+    @Override
+    public List<String> findAllEmails() {
+        return primary.queryForList("SELECT email FROM employee_email", String.class);
+    }
+
+    @Override
+    public Page<Employee> findByCriteria(String name, String department, Pageable pageable) {
+        Sort sort = withId(pageable.getSort());
+        Comparator<Employee> order = comparator(sort);
+        if (pageable.isUnpaged()) {
+            List<Employee> employees = merge(gather(shard -> shard.findByCriteriaForExport(name, department, sort)), order);
+            return new PageImpl<>(employees, pageable, employees.size());
+        }
+        PageRequest window = PageRequest.of(0,
+                (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()), sort);
+        List<Page<Employee>> pages = gather(shard -> shard.findByCriteria(name, department, window));
+        List<Employee> employees = new ArrayList<>(pageable.getPageSize());
+        merge(pages.stream().map(page -> page.getContent().iterator()).toList(), order,
+                pageable.getOffset(), pageable.getPageSize(), employees::add);
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        return new PageImpl<>(employees, pageable, total);
+    }
+
+    @Override
+    public List<Employee> findAll(Sort sort) {
+        return findByCriteriaForExport(null, null, sort);
+    }
+
+    @Override
+    public List<Employee> findByCriteriaForExport(String name, String department, Sort sort) {
+        Sort order = withId(sort);
+        return merge(gather(shard -> shard.findByCriteriaForExport(name, department, order)), comparator(order));
+    }
+
+    /**
+     * Streams every shard on a thread of its own into a queue of {@link #EXPORT_FETCH_SIZE} rows,
+     * and merges the queues' heads on the calling thread, so no shard's result is collected. The
+     * shard threads hold a connection each until the export ends.
+     */
+    @Override
+    public int streamForExport(String name, String department, Sort sort, Consumer<Employee> action) {
+        Sort order = withId(sort);
+        return stream((shard, rows) -> shard.streamForExport(name, department, order, rows), comparator(order), action);
+    }
+
+    @Override
+    public int streamRangeForExport(String name, String department, int fromId, int toId, Sort sort,
+                                    Consumer<Employee> action) {
+        Sort order = withId(sort);
+        return stream((shard, rows) -> shard.streamRangeForExport(name, department, fromId, toId, order, rows),
+                comparator(order), action);
+    }
+
+    @Override
+    public int streamModifiedBetween(LocalDateTime after, LocalDateTime upTo, Consumer<Employee> action) {
+        return stream((shard, rows) -> shard.streamModifiedBetween(after, upTo, rows), BY_LAST_MODIFIED, action);
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() {
+        return gather(EmployeeRepository::findIdRange).stream()
+                .flatMap(Optional::stream)
+                .reduce((left, right) -> new IdRange(Math.min(left.min(), right.min()), Math.max(left.max(), right.max())));
+    }
+
+    @Override
+    public List<Employee> findRangeForExport(String name, String department, int fromId, int toId, Sort sort) {
+        Sort order = withId(sort);
+        return merge(gather(shard -> shard.findRangeForExport(name, department, fromId, toId, order)),
+                comparator(order));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Records in {@code employee_email} that {@code id} now has {@code email}, failing on the
+     * {@code uk_employee_email_owner} constraint if another employee has it.
+     */
+    private void claim(int id, String email) {
+        if (primary.update("UPDATE employee_email SET email = ? WHERE employee_id = ?", email, id) == 0) {
+            primary.update("INSERT INTO employee_email (employee_id, email) VALUES (?, ?)", id, email);
+        }
+    }
+
+    private void release(List<Integer> ids) {
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size()));
+            primary.update("DELETE FROM employee_email WHERE employee_id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", chunk.toArray());
+        }
+    }
+
+    /**
+     * Runs {@code query} on every shard on a thread of its own, streaming into a queue of
+     * {@link #EXPORT_FETCH_SIZE} rows, and merges the queues' heads on the calling thread.
+     */
+    private int stream(BiConsumer<EmployeeRepository, Consumer<Employee>> query, Comparator<Employee> order,
+                       Consumer<Employee> action) {
+        List<ShardStream> streams = new ArrayList<>(shards.size());
+        List<Future<?>> producers = new ArrayList<>(shards.size());
+        try {
+            for (EmployeeRepository shard : shards) {
+                ShardStream stream = new ShardStream();
+                streams.add(stream);
+                producers.add(executor.submit(() -> stream.fill(() -> query.accept(shard, stream::put))));
+            }
+            return merge(streams, order, 0, Long.MAX_VALUE, action);
+        } finally {
+            producers.forEach(producer -> producer.cancel(true));
+        }
+    }
+
+    private Map<Integer, List<Integer>> byShard(List<Integer> ids) {
+        Map<Integer, List<Integer>> idsByShard = new TreeMap<>();
+        for (Integer id : ids) {
+            idsByShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return idsByShard;
+    }
+
+    private EmployeeRepository on(int id) {
+        return joined(shardOf(id));
+    }
+
+    private EmployeeRepository joined(int shard) {
+        ShardTransaction.join(dataSources.get(shard));
+        return shards.get(shard);
+    }
+
+    /**
+     * Runs {@code query} on every shard at once and returns the answers in shard order, rethrowing
+     * the first failure.
+     */
+    private <T> List<T> gather(Function<EmployeeRepository, T> query) {
+        return gatherEach(shard -> query.apply(shards.get(shard)));
+    }
+
+    /**
+     * Like {@link #gather} but hands {@code query} the index of the shard to ask.
+     */
+    private <T> List<T> gatherEach(IntFunction<T> query) {
+        List<Future<T>> answers = new ArrayList<>(shards.size());
+        try {
+            for (int shard = 0; shard < shards.size(); shard++) {
+                int index = shard;
+                answers.add(executor.submit(() -> query.apply(index)));
+            }
+            List<T> results = new ArrayList<>(answers.size());
+            for (Future<T> answer : answers) {
+                results.add(await(answer));
+            }
+            return results;
+        } finally {
+            answers.forEach(answer -> answer.cancel(true));
+        }
+    }
+
+    private static <T> T await(Future<T> answer) {
+        try {
+            return answer.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private static List<Employee> merge(List<List<Employee>> sorted, Comparator<Employee> order) {
+        List<Employee> merged = new ArrayList<>(sorted.stream().mapToInt(List::size).sum());
+        merge(sorted.stream().map(List::iterator).toList(), order, 0, Long.MAX_VALUE, merged::add);
+        return merged;
+    }
+
+    /**
+     * Hands {@code action} the rows of the sorted {@code sources} in merged order, skipping the first
+     * {@code skip} and stopping after {@code limit} more, and returns how many it handed over.
+     */
+    private static int merge(List<? extends Iterator<Employee>> sources, Comparator<Employee> order,
+                             long skip, long limit, Consumer<Employee> action) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparing(Head::current, order));
+        for (Iterator<Employee> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source));
+            }
+        }
+        long skipped = 0;
+        int handed = 0;
+        while (!heads.isEmpty() && handed < limit) {
+            Head head = heads.poll();
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                action.accept(head.current());
+                handed++;
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return handed;
+    }
+
+    private static Sort withId(Sort sort) {
+        return sort.getOrderFor("id") != null ? sort : sort.and(BY_ID);
+    }
+
+    /**
+     * The Java equivalent of ordering by {@code sort} on a shard.
+     */
+    private Comparator<Employee> comparator(Sort sort) {
+        Comparator<String> text = binaryTextOrder ? Comparator.naturalOrder() : collator();
+        Comparator<Employee> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Employee> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparingInt(Employee::getId);
+                case "salary" -> Comparator.comparing(Employee::getSalary);
+                case "firstName" -> Comparator.comparing(Employee::getFirstName, text);
+                case "lastName" -> Comparator.comparing(Employee::getLastName, text);
+                case "email" -> Comparator.comparing(Employee::getEmail, text);
+                case "department" -> Comparator.comparing(Employee::getDepartment, text);
+                default -> throw new InvalidRequestException("Cannot sort employees by " + order.getProperty() + ".");
+            };
+            next = order.isAscending() ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private static Comparator<String> collator() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        return collator::compare;
+    }
+
+    private static final class Head {
+        private final Iterator<Employee> source;
+        private Employee current;
+
+        private Head(Iterator<Employee> source) {
+            this.source = source;
+            this.current = source.next();
+        }
+
+        private Employee current() {
+            return current;
+        }
+
+        private boolean advance() {
+            if (!source.hasNext()) {
+                return false;
+            }
+            current = source.next();
+            return true;
+        }
+    }
+
+    /**
+     * The rows one shard streams for an export, handed from its thread to the merging one.
+     */
+    private static final class ShardStream implements Iterator<Employee> {
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> rows = new ArrayBlockingQueue<>(EXPORT_FETCH_SIZE);
+        private volatile RuntimeException failure;
+        private Employee next;
+        private boolean ended;
+
+        private void fill(Runnable stream) {
+            try {
+                stream.run();
+            } catch (RuntimeException exception) {
+                failure = exception;
+            } finally {
+                try {
+                    rows.put(END);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void put(Employee employee) {
+            try {
+                rows.put(employee);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Export ended before the shard was read");
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (ended) {
+                return false;
+            }
+            Object row;
+            try {
+                row = rows.take();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a shard", exception);
+            }
+            if (row == END) {
+                ended = true;
+                if (failure != null) {
+                    throw failure;
+                }
+                return false;
+            }
+            next = (Employee) row;
+            return true;
+        }
+
+        @Override
+        public Employee next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Employee employee = next;
+            next = null;
+            return employee;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.employeesytem.repository.sharded;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * The databases the {@code employee} table is spread over, in shard order. The order decides which
+ * shard an id lives on, so it must not change once employees have been written.
+ */
+public class EmployeeShards implements Closeable {
+    private final List<DataSource> dataSources;
+
+    public EmployeeShards(List<? extends DataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.dataSources = List.copyOf(dataSources);
+    }
+
+    public List<DataSource> dataSources() {
+        return dataSources;
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    @Override
+    public void close() {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.employeesytem.repository.sharded;
+
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.service.BulkheadSettings;
+import org.employeesytem.service.EmployeeBulkheads;
+import org.employeesytem.service.WorkloadClass;
+import org.springframework.core.env.PropertyResolver;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads scatter-gather queries run on, one bounded executor per {@link WorkloadClass} and one
+ * for work outside the bulkheads. A query goes to the executor of the workload the calling thread is
+ * bound to, which has a thread per shard for each of that bulkhead's threads, so a bulkhead's callers
+ * never wait for each other's fan-out and a burst of one workload cannot take another's threads. Work
+ * outside the bulkheads gets a thread per shard for each connection of {@code employee.background}.
+ * The short queue only absorbs tasks submitted while the previous query's threads are still
+ * returning; a query that finds it full is refused like a full bulkhead.
+ */
+final class ShardQueryExecutors {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final Map<WorkloadClass, ThreadPoolExecutor> workloads = new EnumMap<>(WorkloadClass.class);
+    private final ThreadPoolExecutor background;
+    private final long retryAfterSeconds;
+
+    ShardQueryExecutors(int shards, PropertyResolver properties) {
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            workloads.put(workload, executor(name(workload),
+                    BulkheadSettings.resolve(properties, workload).poolSize() * shards, shards));
+        }
+        this.background = executor("background",
+                properties.getProperty("employee.background.pool-size", Integer.class, 2) * shards, shards);
+        this.retryAfterSeconds = properties.getProperty("employee.bulkhead.retry-after-seconds", Long.class, 1L);
+    }
+
+    <T> Future<T> submit(Callable<T> query) {
+        return submit(new FutureTask<>(query));
+    }
+
+    Future<?> submit(Runnable query) {
+        return submit(new FutureTask<>(query, null));
+    }
+
+    private <T> Future<T> submit(FutureTask<T> query) {
+        WorkloadClass workload = EmployeeBulkheads.currentWorkload();
+        try {
+            (workload == null ? background : workloads.get(workload)).execute(query);
+            return query;
+        } catch (RejectedExecutionException exception) {
+            throw new ServiceOverloadedException("Too many " + (workload == null ? "background" : name(workload))
+                    + " shard queries in progress, retry later", retryAfterSeconds);
+        }
+    }
+
+    void shutdownNow() {
+        workloads.values().forEach(ThreadPoolExecutor::shutdownNow);
+        background.shutdownNow();
+    }
+
+    private static ThreadPoolExecutor executor(String name, int threads, int queueCapacity) {
+        AtomicInteger created = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "employee-shard-" + name + "-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static String name(WorkloadClass workload) {
+        return workload.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
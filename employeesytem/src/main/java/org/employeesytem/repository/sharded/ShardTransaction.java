@@ -0,0 +1,109 @@
+package org.employeesytem.repository.sharded;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Carries a shard's statements in a local transaction of their own that ends with the Spring
+ * transaction the caller is in, which the application's transaction manager runs on
+ * {@code spring.datasource}. The shard commits just before that transaction does, so a shard that
+ * fails to commit rolls everything back; the reverse, a commit on {@code spring.datasource} failing
+ * after the shards committed, cannot be undone and is logged. This is one-phase commit on a best
+ * effort basis, not two-phase commit.
+ */
+final class ShardTransaction implements TransactionSynchronization {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardTransaction.class);
+
+    private final DataSource dataSource;
+    private final ConnectionHolder holder;
+    private boolean committed;
+
+    private ShardTransaction(DataSource dataSource, ConnectionHolder holder) {
+        this.dataSource = dataSource;
+        this.holder = holder;
+    }
+
+    /**
+     * Binds a connection to {@code dataSource} with auto-commit off to the caller's transaction, unless
+     * there is no transaction or it already has one. Statements the calling thread then runs through a
+     * {@link org.springframework.jdbc.core.JdbcTemplate} on {@code dataSource} use it.
+     */
+    static void join(DataSource dataSource) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.hasResource(dataSource)) {
+            return;
+        }
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+        } catch (SQLException exception) {
+            close(connection);
+            throw new CannotGetJdbcConnectionException("Failed to begin a shard transaction", exception);
+        }
+        ConnectionHolder holder = new ConnectionHolder(connection);
+        holder.setSynchronizedWithTransaction(true);
+        TransactionSynchronizationManager.bindResource(dataSource, holder);
+        TransactionSynchronizationManager.registerSynchronization(new ShardTransaction(dataSource, holder));
+    }
+
+    @Override
+    public void suspend() {
+        TransactionSynchronizationManager.unbindResource(dataSource);
+    }
+
+    @Override
+    public void resume() {
+        TransactionSynchronizationManager.bindResource(dataSource, holder);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        try {
+            holder.getConnection().commit();
+            committed = true;
+        } catch (SQLException exception) {
+            throw new TransactionSystemException("Failed to commit a shard transaction", exception);
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(dataSource);
+        Connection connection = holder.getConnection();
+        if (committed && status != STATUS_COMMITTED) {
+            LOGGER.error("A shard committed but the transaction it was part of did not; the shard keeps the writes");
+        }
+        try {
+            if (!committed) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(true);
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to end a shard transaction", exception);
+        } finally {
+            close(connection);
+        }
+    }
+
+    private static void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException exception) {
+            LOGGER.debug("Failed to close a shard connection", exception);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.employeesytem.service;
+
+import org.springframework.core.env.PropertyResolver;
+
+import java.util.Locale;
+
+/**
+ * Size of one workload's bulkhead, read from {@code employee.bulkhead.<workload>.*}. The pool size is
+ * used both for the workload's executor threads and for its connection pool, so a bulkhead thread
+ * never waits for a connection and the workloads never borrow from each other.
+ */
+public record BulkheadSettings(int poolSize, int queueCapacity) {
+
+    public static BulkheadSettings resolve(PropertyResolver properties, WorkloadClass workload) {
+        String prefix = "employee.bulkhead." + workload.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        BulkheadSettings defaults = defaults(workload);
+        return new BulkheadSettings(
+                properties.getProperty(prefix + ".pool-size", Integer.class, defaults.poolSize()),
+                properties.getProperty(prefix + ".queue-capacity", Integer.class, defaults.queueCapacity()));
+    }
+
+    private static BulkheadSettings defaults(WorkloadClass workload) {
+        return switch (workload) {
+            case INTERACTIVE_READ -> new BulkheadSettings(5, 100);
+            case WRITE -> new BulkheadSettings(3, 50);
+            case BULK -> new BulkheadSettings(2, 4);
+        };
+    }
+}
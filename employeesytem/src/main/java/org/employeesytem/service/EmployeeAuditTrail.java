@@ -0,0 +1,488 @@
+package org.employeesytem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeAuditRecord;
+import org.employeesytem.dto.EmployeeAuditRecord.Action;
+import org.employeesytem.repository.EmployeeAuditRepository;
+import org.employeesytem.util.BoundedMpscQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records the after image of every add and update, the columns every patch wrote and every delete
+ * made through {@link EmployeeService}, in the append-only {@code employee_audit} table. Single-employee
+ * writes are not preceded by a read, so each record carries the version its write produced and the
+ * image an update, patch or delete replaced is the record of the version before it; only bulk deletes,
+ * which read the rows they remove, record a before image. How a record is made durable depends on
+ * {@code employee.audit.durability}:
+ * <ul>
+ *     <li>{@code async} (the default) waits for the write to commit and hands the record to a bounded
+ *     lock-free queue; a background thread drains the queue into the table in JDBC batches of up to
+ *     {@code batch-size}, every {@code flush-interval-ms} or as soon as a batch is full. The write
+ *     itself pays for nothing but the offer. A crash loses what is still queued.</li>
+ *     <li>{@code spool} also appends the record to a local spool file and fsyncs it before queueing
+ *     it. Writers waiting on the same fsync share it. When every spooled record is in the table the
+ *     spool is truncated, and whatever a crash left in it is inserted at the next startup, skipping
+ *     records already there. A crash between the commit and the fsync loses the record.</li>
+ *     <li>{@code transaction} inserts it in the write's own transaction, so the audit row commits
+ *     exactly when the write does, at the cost of one more statement per write.</li>
+ * </ul>
+ * If the queue is full, or the spool cannot be written, the writing thread inserts its record itself
+ * instead; if that insert of a record the queue would have taken fails too, the record is left to the
+ * background thread to retry with the queued ones, so a spool still truncates once the database is
+ * back. Each node needs a spool directory of its own; a spool in use by another process is refused.
+ */
+@Component
+public class EmployeeAuditTrail implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeAuditTrail.class);
+    private static final String SPOOL_FILE = "employee-audit.spool";
+    private static final long RETRY_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public enum Durability {
+        ASYNC,
+        SPOOL,
+        TRANSACTION
+    }
+
+    private final EmployeeAuditRepository repository;
+    private final TransactionTemplate transactions;
+    private final ObjectMapper objectMapper;
+    private final Durability durability;
+    private final Path spoolPath;
+    private final BoundedMpscQueue<EmployeeAuditRecord> queue;
+    private final Queue<EmployeeAuditRecord> retries = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final Counter recorded;
+    private final Counter overflows;
+    private final Counter failures;
+
+    private final Object spoolLock = new Object();
+    private final Object syncLock = new Object();
+    private volatile FileChannel spool;
+    private FileLock spoolOwnership;
+    private long spooledBytes;
+    private long spooledRecords;
+    private final AtomicLong syncedBytes = new AtomicLong();
+    private final AtomicLong insertedSpooledRecords = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public EmployeeAuditTrail(EmployeeAuditRepository repository, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${employee.audit.durability:async}") String durability,
+                              @Value("${employee.audit.spool-dir:audit-spool}") String spoolDir,
+                              @Value("${employee.audit.queue-capacity:8192}") int queueCapacity,
+                              @Value("${employee.audit.batch-size:500}") int batchSize,
+                              @Value("${employee.audit.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.repository = repository;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.transactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.durability = durability(durability);
+        this.spoolPath = Path.of(spoolDir).resolve(SPOOL_FILE);
+        this.queue = new BoundedMpscQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.recorded = Counter.builder("employee.audit.records")
+                .description("Audit records inserted into employee_audit")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("employee.audit.overflows")
+                .description("Audit records the writing thread inserted itself because the queue was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("employee.audit.failures")
+                .description("Audit records that could not be spooled or inserted when first tried")
+                .register(meterRegistry);
+        Gauge.builder("employee.audit.queue-depth", queue, BoundedMpscQueue::size)
+                .description("Audit records waiting for the background writer")
+                .register(meterRegistry);
+        Gauge.builder("employee.audit.retry-depth", retries, Queue::size)
+                .description("Audit records whose insert failed, waiting for the background writer to retry them")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (durability == Durability.TRANSACTION && !Files.exists(spoolPath)) {
+            return;
+        }
+        if (durability != Durability.ASYNC || Files.exists(spoolPath)) {
+            openSpool();
+            replaySpool();
+        }
+        if (durability != Durability.SPOOL) {
+            closeSpool();
+        }
+        if (durability == Durability.TRANSACTION) {
+            return;
+        }
+        writer = new Thread(this::writeQueued, "employee-audit-writer");
+        writer.setDaemon(true);
+        running = true;
+        writer.start();
+    }
+
+    /**
+     * Starts collecting the audit records of one write. Call its methods inside the write's
+     * transaction and {@link Pending#publish()} once the transaction has committed.
+     */
+    public Pending pending() {
+        return new Pending();
+    }
+
+    /**
+     * The audit records of one write. Under {@code transaction} durability each is inserted as soon as
+     * it is added, joining the write's transaction. Otherwise they are held until {@link #publish()},
+     * so that the queueing, and any fsync, happens after the write's connection and bulkhead slot are
+     * released, and a write that rolls back, never reaching it, leaves nothing behind.
+     */
+    public class Pending {
+        private final List<EmployeeAuditRecord> records = new ArrayList<>(1);
+
+        public void created(Employee employee) {
+            add(Action.CREATE, employee.getId(), null,
+                    image(employee, employee.getVersion() == null ? 0 : employee.getVersion()));
+        }
+
+        /**
+         * Records a PUT that replaced the employee with {@code employee} and produced {@code version}.
+         * Like a patch it is not preceded by a read: the employee it replaced is the previous version's
+         * record.
+         */
+        public void updated(Employee employee, long version) {
+            add(Action.UPDATE, employee.getId(), null, image(employee, version));
+        }
+
+        /**
+         * Records a PATCH that wrote {@code changes} and produced {@code version}. The patch is one
+         * statement with no read before it, so the record holds only what it changed: the employee at
+         * {@code version} is the one at the previous version's record with {@code changes} laid over it.
+         */
+        public void patched(int employeeId, Map<String, Object> changes, long version) {
+            ObjectNode after = objectMapper.valueToTree(changes);
+            after.put("version", version);
+            add(Action.PATCH, employeeId, null, after);
+        }
+
+        /**
+         * Records a delete of one employee, which is not preceded by a read: the employee it removed is
+         * the previous version's record.
+         */
+        public void deleted(int employeeId) {
+            add(Action.DELETE, employeeId, null, null);
+        }
+
+        /**
+         * Records a bulk delete's removal of {@code before}, read in the same transaction.
+         */
+        public void deleted(Employee before) {
+            add(Action.DELETE, before.getId(), objectMapper.valueToTree(before), null);
+        }
+
+        /**
+         * Queues the records collected, under {@code spool} durability returning once they are on disk.
+         */
+        public void publish() {
+            records.forEach(EmployeeAuditTrail.this::publish);
+            records.clear();
+        }
+
+        private void add(Action action, int employeeId, ObjectNode before, ObjectNode after) {
+            EmployeeAuditRecord record = new EmployeeAuditRecord(UUID.randomUUID().toString(), action, employeeId,
+                    before == null ? null : before.toString(), after == null ? null : after.toString(), Instant.now());
+            if (durability == Durability.TRANSACTION) {
+                repository.insert(record);
+                recorded.increment();
+            } else {
+                records.add(record);
+            }
+        }
+    }
+
+    /**
+     * The after image of {@code employee}, carrying the version the write produced; {@code last_modified}
+     * is stamped by the database and left out.
+     */
+    private ObjectNode image(Employee employee, long version) {
+        ObjectNode after = objectMapper.valueToTree(employee);
+        after.put("version", version);
+        after.remove("lastModified");
+        return after;
+    }
+
+    private void publish(EmployeeAuditRecord record) {
+        boolean spooled = durability == Durability.SPOOL && spool(record);
+        boolean queueable = durability == Durability.ASYNC || spooled;
+        if (queueable && running && queue.offer(record)) {
+            if (queue.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        if (queueable) {
+            overflows.increment();
+        }
+        if (!insert(List.of(record), spooled) && queueable) {
+            retries.add(record);
+        }
+    }
+
+    /**
+     * Appends {@code record} to the spool and returns once it is on disk, or returns {@code false} if
+     * it could not be written.
+     */
+    private boolean spool(EmployeeAuditRecord record) {
+        FileChannel channel = spool;
+        if (channel == null) {
+            return false;
+        }
+        try {
+            byte[] line = (objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            long end;
+            synchronized (spoolLock) {
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                spooledRecords++;
+                end = spooledBytes += line.length;
+            }
+            syncThrough(channel, end);
+            return true;
+        } catch (IOException exception) {
+            failures.increment();
+            LOGGER.error("Could not spool audit record {}; inserting it directly", record.eventId(), exception);
+            return false;
+        }
+    }
+
+    /**
+     * Fsyncs the spool unless another writer already has since {@code end} bytes were appended, so
+     * that concurrent writers share one fsync.
+     */
+    private void syncThrough(FileChannel channel, long end) throws IOException {
+        if (syncedBytes.get() >= end) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedBytes.get() >= end) {
+                return;
+            }
+            long appended;
+            synchronized (spoolLock) {
+                appended = spooledBytes;
+            }
+            channel.force(false);
+            syncedBytes.set(appended);
+        }
+    }
+
+    /**
+     * Inserts {@code records} in a transaction of their own, whether or not the calling thread is in
+     * one. Returns whether they were inserted.
+     */
+    private boolean insert(List<EmployeeAuditRecord> records, boolean spooled) {
+        try {
+            transactions.executeWithoutResult(status -> repository.insertAll(records));
+        } catch (RuntimeException exception) {
+            failures.increment(records.size());
+            LOGGER.error("Could not insert {} audit records", records.size(), exception);
+            return false;
+        }
+        recorded.increment(records.size());
+        if (spooled) {
+            insertedSpooledRecords.addAndGet(records.size());
+            truncateIfCaughtUp();
+        }
+        return true;
+    }
+
+    private void truncateIfCaughtUp() {
+        synchronized (spoolLock) {
+            if (spool == null || spooledRecords != insertedSpooledRecords.get() || spooledBytes == 0) {
+                return;
+            }
+            try {
+                spool.truncate(0);
+                spooledBytes = 0;
+                spooledRecords = 0;
+                insertedSpooledRecords.set(0);
+                syncedBytes.set(0);
+            } catch (IOException exception) {
+                LOGGER.warn("Could not truncate audit spool {}", spoolPath, exception);
+            }
+        }
+    }
+
+    /**
+     * Runs on the writer thread: inserts what is queued every flush interval, or as soon as a full
+     * batch is waiting, retrying a failed batch until it succeeds or the context closes, then makes one
+     * last attempt at anything still queued. Records whose direct insert failed go first. Waking only
+     * for full batches keeps the writer from taking a connection and a transaction per write.
+     */
+    private void writeQueued() {
+        boolean spooled = durability == Durability.SPOOL;
+        List<EmployeeAuditRecord> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (batch.isEmpty()) {
+                if (queue.size() < batchSize && retries.isEmpty()) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+                if (drainTo(batch) == 0) {
+                    continue;
+                }
+            }
+            if (insert(batch, spooled)) {
+                batch.clear();
+            } else {
+                LockSupport.parkNanos(this, RETRY_PARK_NANOS);
+            }
+        }
+        do {
+            if (!batch.isEmpty() && !insert(batch, spooled)) {
+                return;
+            }
+            batch.clear();
+        } while (drainTo(batch) > 0);
+    }
+
+    private int drainTo(List<EmployeeAuditRecord> batch) {
+        EmployeeAuditRecord retry;
+        while (batch.size() < batchSize && (retry = retries.poll()) != null) {
+            batch.add(retry);
+        }
+        return batch.size() + queue.drainTo(batch, batchSize - batch.size());
+    }
+
+    private void openSpool() {
+        try {
+            Files.createDirectories(spoolPath.getParent());
+            spool = FileChannel.open(spoolPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            spoolOwnership = spool.tryLock();
+        } catch (OverlappingFileLockException exception) {
+            spoolOwnership = null;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not open audit spool " + spoolPath, exception);
+        }
+        if (spoolOwnership == null) {
+            closeSpool();
+            throw new IllegalStateException("Audit spool " + spoolPath
+                    + " is in use by another process; give each node its own employee.audit.spool-dir");
+        }
+    }
+
+    /**
+     * Inserts the records a previous run spooled but did not get into the table, then empties the
+     * spool. A torn last line, from a crash mid-append, was never acknowledged and is skipped.
+     */
+    private void replaySpool() {
+        List<EmployeeAuditRecord> records = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(spoolPath), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    records.add(objectMapper.readValue(line, EmployeeAuditRecord.class));
+                } catch (JsonProcessingException exception) {
+                    LOGGER.warn("Skipping unreadable line in audit spool {}", spoolPath);
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not read audit spool " + spoolPath, exception);
+        }
+        if (!records.isEmpty()) {
+            Set<String> existing = repository.findExistingEventIds(records.stream().map(EmployeeAuditRecord::eventId).toList());
+            List<EmployeeAuditRecord> missing = records.stream()
+                    .filter(record -> !existing.contains(record.eventId()))
+                    .toList();
+            for (int from = 0; from < missing.size(); from += batchSize) {
+                List<EmployeeAuditRecord> chunk = missing.subList(from, Math.min(from + batchSize, missing.size()));
+                transactions.executeWithoutResult(status -> repository.insertAll(chunk));
+            }
+            recorded.increment(missing.size());
+            LOGGER.info("Replayed {} audit records from {}, {} were already recorded", missing.size(), spoolPath,
+                    records.size() - missing.size());
+        }
+        try {
+            spool.truncate(0);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not truncate audit spool " + spoolPath, exception);
+        }
+    }
+
+    private void closeSpool() {
+        try {
+            if (spool != null) {
+                spool.close();
+            }
+        } catch (IOException exception) {
+            LOGGER.warn("Could not close audit spool {}", spoolPath, exception);
+        }
+        spool = null;
+        spoolOwnership = null;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        synchronized (spoolLock) {
+            closeSpool();
+        }
+    }
+
+    private static Durability durability(String value) {
+        try {
+            return Durability.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("employee.audit.durability must be async, spool or transaction, got " + value);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs repository work on a dedicated, bounded executor per {@link WorkloadClass}. Each executor's
+ * threads are bound to their workload for life, which is what routes their connections to the
+ * matching pool (see {@link #currentWorkload()}), so a burst of exports can fill the bulk queue and
+ * be rejected without ever holding an interactive thread or connection. The {@link EmployeeService}
+ * method a call was made for travels with it to the executor's thread (see
+ * {@link #currentOperation()}).
+ */
+@Component
+public class EmployeeBulkheads implements DisposableBean {
+    private static final ThreadLocal<WorkloadClass> WORKLOAD = new ThreadLocal<>();
+    private static final ThreadLocal<String> OPERATION = new ThreadLocal<>();
+
+    private final Map<WorkloadClass, ThreadPoolExecutor> executors = new EnumMap<>(WorkloadClass.class);
+    private final long retryAfterSeconds;
+
+    public EmployeeBulkheads(Environment environment, MeterRegistry meterRegistry,
+                             @Value("${employee.bulkhead.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            BulkheadSettings settings = BulkheadSettings.resolve(environment, workload);
+            String name = workload.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            AtomicInteger threads = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(settings.poolSize(), settings.poolSize(),
+                    0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(settings.queueCapacity()),
+                    task -> {
+                        Thread thread = new Thread(() -> {
+                            WORKLOAD.set(workload);
+                            task.run();
+                        }, "bulkhead-" + name + "-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            new ExecutorServiceMetrics(executor, "employee.bulkhead", List.of(Tag.of("workload", name)))
+                    .bindTo(meterRegistry);
+            executors.put(workload, executor);
+        }
+    }
+
+    /**
+     * The workload the calling thread is bound to, or {@code null} outside a bulkhead.
+     */
+    public static WorkloadClass currentWorkload() {
+        return WORKLOAD.get();
+    }
+
+    /**
+     * The {@link EmployeeService} method the calling thread is working for, or {@code null} for work
+     * not run on behalf of one.
+     */
+    public static String currentOperation() {
+        return OPERATION.get();
+    }
+
+    /**
+     * How many of {@code workload}'s calls run at once.
+     */
+    public int poolSize(WorkloadClass workload) {
+        return executors.get(workload).getMaximumPoolSize();
+    }
+
+    public <T> T execute(WorkloadClass workload, Supplier<T> call) {
+        return execute(workload, OPERATION.get(), call);
+    }
+
+    /**
+     * Runs {@code call} like {@link #execute(WorkloadClass, Supplier)}, as part of {@code operation}.
+     */
+    public <T> T execute(WorkloadClass workload, String operation, Supplier<T> call) {
+        if (WORKLOAD.get() == workload) {
+            return inOperation(operation, call);
+        }
+        return await(workload, submit(workload, operation, call));
+    }
+
+    /**
+     * Queues {@code call} on the workload's executor without waiting for it, so that a caller outside
+     * the bulkhead can keep several calls in flight. Collect the result with {@link #await}. Must not
+     * be called from the workload's own threads, which could then wait on work queued behind them.
+     */
+    public <T> Future<T> submit(WorkloadClass workload, Supplier<T> call) {
+        return submit(workload, OPERATION.get(), call);
+    }
+
+    private <T> Future<T> submit(WorkloadClass workload, String operation, Supplier<T> call) {
+        try {
+            return executors.get(workload).submit(() -> inOperation(operation, call));
+        } catch (RejectedExecutionException exception) {
+            throw new ServiceOverloadedException("Too many " + workload.name().toLowerCase(Locale.ROOT)
+                    + " requests in progress, retry later", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Waits for a call {@link #submit submitted} to {@code workload} and returns its result, rethrowing
+     * what it threw.
+     */
+    public <T> T await(WorkloadClass workload, Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException exception) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + workload + " work", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private static <T> T inOperation(String operation, Supplier<T> call) {
+        String outer = OPERATION.get();
+        OPERATION.set(operation);
+        try {
+            return call.get();
+        } finally {
+            OPERATION.set(outer);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+}
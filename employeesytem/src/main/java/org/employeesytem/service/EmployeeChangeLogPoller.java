@@ -0,0 +1,253 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeChangeLogRepository;
+import org.employeesytem.repository.EmployeeChangeLogRepository.Change;
+import org.employeesytem.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this node's read caches consistent with writes made on other nodes. Every write appends to
+ * {@code employee_change_log} in its own transaction; this tails the table by sequence number every
+ * {@code employee.change-log.poll-interval-ms} and, when it finds changes it has not seen, invalidates
+ * the {@link EmployeePageCache} and the {@link EmployeeReadCoalescer} and hands the changed ids to the
+ * {@link EmployeeSalarySnapshot} to read again, or has it reload when a change names no employee. On a
+ * thread of its own it then reads the changed employees once, or all of them when a change names
+ * none, for the {@link EmployeeSuggestionIndex} and the {@link EmployeeEmailGuard}'s filter. A page can
+ * be outdated by another node's write for about one poll interval, and never for longer than the page
+ * cache's {@code max-age}, even if the log cannot be read. This node's own writes come back through
+ * the log too and invalidate and are read once more, which is harmless.
+ * <p>
+ * Sequence numbers are assigned at insert but become visible at commit, so a number can appear after
+ * higher ones have been read. A missing number is therefore kept open and re-read for up to
+ * {@code gap-timeout-ms}, after which it is taken to be a rolled-back write. Changes older than
+ * {@code retention-minutes} are deleted by whichever node gets there first.
+ */
+@Component
+public class EmployeeChangeLogPoller implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeChangeLogPoller.class);
+
+    private final EmployeeChangeLogRepository changeLog;
+    private final EmployeePageCache pageCache;
+    private final EmployeeReadCoalescer coalescer;
+    private final EmployeeSalarySnapshot salarySnapshot;
+    private final EmployeeSuggestionIndex suggestionIndex;
+    private final EmployeeEmailGuard emailGuard;
+    private final EmployeeRepository repository;
+    private final EmployeeBulkheads bulkheads;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService background;
+
+    private final Counter changesSeen;
+    private final Counter failedPolls;
+
+    private long watermark;
+    private final TreeMap<Long, Long> openGaps = new TreeMap<>();
+    private final TreeSet<Long> seenAboveWatermark = new TreeSet<>();
+
+    private final Set<Integer> pendingIds = new HashSet<>();
+    private boolean reloadPending;
+    private boolean drainScheduled;
+
+    public EmployeeChangeLogPoller(EmployeeChangeLogRepository changeLog, EmployeePageCache pageCache,
+                                   EmployeeReadCoalescer coalescer, EmployeeSalarySnapshot salarySnapshot,
+                                   EmployeeSuggestionIndex suggestionIndex, EmployeeEmailGuard emailGuard,
+                                   EmployeeRepository repository, EmployeeBulkheads bulkheads,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${employee.change-log.poll-interval-ms:500}") long pollIntervalMillis,
+                                   @Value("${employee.change-log.batch-size:1000}") int batchSize,
+                                   @Value("${employee.change-log.gap-timeout-ms:10000}") long gapTimeoutMillis,
+                                   @Value("${employee.change-log.retention-minutes:1440}") long retentionMinutes) {
+        this.changeLog = changeLog;
+        this.pageCache = pageCache;
+        this.coalescer = coalescer;
+        this.salarySnapshot = salarySnapshot;
+        this.suggestionIndex = suggestionIndex;
+        this.emailGuard = emailGuard;
+        this.repository = repository;
+        this.bulkheads = bulkheads;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "employee-change-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.background = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "employee-change-log-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.changesSeen = Counter.builder("employee.change-log.changes")
+                .description("Logged writes this node picked up and invalidated its caches for")
+                .register(meterRegistry);
+        this.failedPolls = Counter.builder("employee.change-log.failed-polls")
+                .description("Polls of the change log that could not read it")
+                .register(meterRegistry);
+        Gauge.builder("employee.change-log.open-gaps", this, EmployeeChangeLogPoller::openGapCount)
+                .description("Sequence numbers skipped by a visible change, waiting for their write to commit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        watermark = changeLog.lastSequence();
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::pruneSafely, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Reads the changes after the watermark once and invalidates the caches and refreshes the salary
+     * snapshot, the suggestions and the email filter if any are new.
+     * Returns the number of new changes. Runs on the poller thread; public for tests.
+     */
+    public synchronized int poll() {
+        List<Change> changes = changeLog.findAfter(watermark, batchSize);
+        long now = System.nanoTime();
+        long expected = watermark + 1;
+        long highest = watermark;
+        int fresh = 0;
+        Set<Integer> changedIds = new HashSet<>();
+        boolean anyEmployee = false;
+        for (Change change : changes) {
+            long sequence = change.sequence();
+            for (long missing = expected; missing < sequence && openGaps.size() < batchSize; missing++) {
+                openGaps.putIfAbsent(missing, now);
+            }
+            openGaps.remove(sequence);
+            if (seenAboveWatermark.add(sequence)) {
+                fresh++;
+                if (change.employeeId() == null) {
+                    anyEmployee = true;
+                } else {
+                    changedIds.add(change.employeeId());
+                }
+            }
+            expected = sequence + 1;
+            highest = sequence;
+        }
+        openGaps.values().removeIf(firstMissed -> now - firstMissed > gapTimeoutNanos);
+        watermark = openGaps.isEmpty() ? highest : openGaps.firstKey() - 1;
+        seenAboveWatermark.headSet(watermark, true).clear();
+        if (fresh > 0) {
+            coalescer.invalidate();
+            pageCache.invalidate();
+            if (anyEmployee) {
+                salarySnapshot.reloadInBackground();
+            } else {
+                salarySnapshot.refreshInBackground(changedIds);
+            }
+            synchronized (pendingIds) {
+                reloadPending |= anyEmployee;
+                pendingIds.addAll(changedIds);
+                if (!drainScheduled) {
+                    drainScheduled = true;
+                    background.execute(this::drain);
+                }
+            }
+            changesSeen.increment(fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Waits until the background thread has read what the polls so far asked for; for tests.
+     */
+    void awaitBackgroundWork() throws InterruptedException, ExecutionException {
+        background.submit(() -> { }).get();
+    }
+
+    /**
+     * Reads the employees changed since the last drain, or all of them if a change named none, and
+     * hands them to the suggestion index and the email filter. Ids logged while it reads are read on
+     * the next round, so a reload cannot lose a write it raced with.
+     */
+    private void drain() {
+        while (true) {
+            boolean reload;
+            List<Integer> ids;
+            synchronized (pendingIds) {
+                if (!reloadPending && pendingIds.isEmpty()) {
+                    drainScheduled = false;
+                    return;
+                }
+                reload = reloadPending;
+                ids = List.copyOf(pendingIds);
+                reloadPending = false;
+                pendingIds.clear();
+            }
+            try {
+                if (reload) {
+                    List<Employee> employees = bulkheads.execute(WorkloadClass.BULK,
+                            () -> repository.findAll(Sort.by("id")));
+                    suggestionIndex.replaceAll(employees);
+                    emailGuard.addAll(employees);
+                } else {
+                    List<Employee> found = bulkheads.execute(WorkloadClass.BULK, () -> repository.findAllById(ids));
+                    suggestionIndex.refresh(ids, found);
+                    emailGuard.addAll(found);
+                }
+            } catch (RuntimeException exception) {
+                LOGGER.warn("Could not read the employees other nodes changed: {}", exception.getMessage());
+            }
+        }
+    }
+
+    private synchronized int openGapCount() {
+        return openGaps.size();
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException exception) {
+            failedPolls.increment();
+            LOGGER.warn("Could not read the employee change log: {}", exception.getMessage());
+        }
+    }
+
+    private void pruneSafely() {
+        try {
+            int pruned = changeLog.deleteOlderThan(Instant.now().minus(retention));
+            if (pruned > 0) {
+                LOGGER.debug("Pruned {} employee change log rows", pruned);
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Could not prune the employee change log: {}", exception.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        background.shutdownNow();
+    }
+}
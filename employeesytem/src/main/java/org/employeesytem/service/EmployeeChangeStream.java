@@ -0,0 +1,244 @@
+package org.employeesytem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans {@link EmployeeChangedEvent}s out to Server-Sent Events subscribers.
+ * <p>
+ * An idle subscriber is just an async request and an empty queue, so thousands of them cost no
+ * threads. Each event is serialized once, appended to a replay log and offered to every
+ * subscriber's bounded buffer; a small dispatcher pool drains buffers that have something in them.
+ * A subscriber whose buffer overflows is disconnected rather than allowed to hold events for
+ * everybody else, and resumes from the replay log with {@code Last-Event-ID} when its
+ * {@code EventSource} reconnects. If the log no longer reaches back that far, or the id is from
+ * before a restart, the subscriber is sent a {@code reset} event and should reload.
+ */
+@Component
+public class EmployeeChangeStream implements DisposableBean {
+    static final String CHANGE_EVENT = "employee";
+    static final String RESET_EVENT = "reset";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferCapacity;
+    private final int replayCapacity;
+    private final long timeoutMillis;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<Change> replay;
+    private long sequence;
+
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+    private final Counter evictions;
+
+    public EmployeeChangeStream(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${employee.changes.buffer-capacity:64}") int bufferCapacity,
+                                @Value("${employee.changes.replay-capacity:1024}") int replayCapacity,
+                                @Value("${employee.changes.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${employee.changes.heartbeat-seconds:30}") long heartbeatSeconds,
+                                @Value("${employee.changes.dispatcher-threads:2}") int dispatcherThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferCapacity = bufferCapacity;
+        this.replayCapacity = replayCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.replay = new ArrayDeque<>(replayCapacity);
+        AtomicInteger threads = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, task -> {
+            Thread thread = new Thread(task, "employee-changes-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "employee-changes-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (heartbeatSeconds > 0) {
+            heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        }
+        this.evictions = Counter.builder("employee.changes.evictions")
+                .description("Change stream subscribers disconnected because they fell too far behind")
+                .register(meterRegistry);
+        Gauge.builder("employee.changes.subscribers", subscribers, Set::size)
+                .description("Open change stream subscriptions")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        synchronized (replay) {
+            if (lastEventId != null) {
+                List<Change> missed = changesAfter(lastEventId);
+                if (missed == null || missed.size() > bufferCapacity) {
+                    subscriber.offer(SseEmitter.event().name(RESET_EVENT).id(eventId(sequence)).data("{}").build());
+                } else {
+                    missed.forEach(change -> subscriber.offer(change.event()));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Cannot serialize " + event, exception);
+        }
+        synchronized (replay) {
+            long id = ++sequence;
+            Change change = new Change(id, SseEmitter.event().name(CHANGE_EVENT).id(eventId(id))
+                    .data(json, MediaType.APPLICATION_JSON).build());
+            if (replay.size() == replayCapacity) {
+                replay.removeFirst();
+            }
+            replay.addLast(change);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change.event());
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void sendHeartbeat() {
+        Set<DataWithMediaType> comment = SseEmitter.event().comment("heartbeat").build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(comment);
+        }
+    }
+
+    /**
+     * The retained changes after {@code lastEventId}, or {@code null} if some of them are no longer
+     * retained or the id was not issued by this process.
+     */
+    private List<Change> changesAfter(String lastEventId) {
+        int separator = lastEventId.indexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+        if (last > sequence) {
+            return null;
+        }
+        long oldestRetained = replay.isEmpty() ? sequence + 1 : replay.peekFirst().id();
+        if (last + 1 < oldestRetained) {
+            return null;
+        }
+        List<Change> missed = new ArrayList<>();
+        for (Change change : replay) {
+            if (change.id() > last) {
+                missed.add(change);
+            }
+        }
+        return missed;
+    }
+
+    private String eventId(long id) {
+        return epoch + "-" + id;
+    }
+
+    /**
+     * An event already rendered to its wire form. Rendering an {@code SseEventBuilder} consumes it,
+     * so the rendered form is what gets shared between subscribers.
+     */
+    private record Change(long id, Set<DataWithMediaType> event) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<DataWithMediaType> event) {
+            if (!buffer.offer(event)) {
+                evict();
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException exception) {
+                subscribers.remove(this);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (!buffer.isEmpty() && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void evict() {
+            if (subscribers.remove(this)) {
+                evictions.increment();
+                buffer.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
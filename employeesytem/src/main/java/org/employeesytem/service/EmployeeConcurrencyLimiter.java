@@ -0,0 +1,89 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.util.AdaptiveConcurrencyLimit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Admits repository work against an {@link AdaptiveConcurrencyLimit} so that, under overload,
+ * requests are turned away with a 503 instead of queueing for a pool connection until they time out.
+ * Interactive reads may use the whole limit; writes and bulk exports only their configured share of
+ * it, so exports are the first to be shed. Bulk calls are not timed into the limit: they last as
+ * long as the client takes to download the export, which says nothing about the database.
+ */
+@Component
+public class EmployeeConcurrencyLimiter {
+    private final AdaptiveConcurrencyLimit limit;
+    private final Map<WorkloadClass, Double> shares = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Counter> rejections = new EnumMap<>(WorkloadClass.class);
+    private final long retryAfterSeconds;
+
+    public EmployeeConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${employee.limiter.initial-limit:10}") int initialLimit,
+                                      @Value("${employee.limiter.min-limit:2}") int minLimit,
+                                      @Value("${employee.limiter.max-limit:50}") int maxLimit,
+                                      @Value("${employee.limiter.tolerance:2.0}") double tolerance,
+                                      @Value("${employee.limiter.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${employee.limiter.write-share:0.8}") double writeShare,
+                                      @Value("${employee.limiter.bulk-share:0.3}") double bulkShare,
+                                      @Value("${employee.limiter.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, backoffRatio);
+        this.retryAfterSeconds = retryAfterSeconds;
+        shares.put(WorkloadClass.INTERACTIVE_READ, 1.0);
+        shares.put(WorkloadClass.WRITE, writeShare);
+        shares.put(WorkloadClass.BULK, bulkShare);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            rejections.put(workload, Counter.builder("employee.limiter.rejections")
+                    .description("Requests shed because the concurrency limit was reached")
+                    .tag("workload", workload.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("employee.limiter.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit for repository work")
+                .register(meterRegistry);
+        Gauge.builder("employee.limiter.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Repository calls currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(WorkloadClass workload, Supplier<T> call) {
+        if (!limit.tryAcquire(shares.get(workload))) {
+            rejections.get(workload).increment();
+            throw new ServiceOverloadedException("Service is overloaded, retry later", retryAfterSeconds);
+        }
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return call.get();
+        } catch (DataAccessResourceFailureException | QueryTimeoutException | CannotCreateTransactionException exception) {
+            overloaded = true;
+            throw exception;
+        } finally {
+            if (workload == WorkloadClass.BULK) {
+                limit.releaseUnsampled(overloaded);
+            } else {
+                limit.release(System.nanoTime() - start, overloaded);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return limit.getInFlight();
+    }
+}
@@ -0,0 +1,109 @@
+package org.employeesytem.service;
+
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeDelta;
+import org.employeesytem.exceptions.ChangeHistoryUnavailableException;
+import org.employeesytem.repository.EmployeeChangeLogRepository;
+import org.employeesytem.repository.EmployeeChangeLogRepository.Change;
+import org.employeesytem.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Answers delta exports, so that a consumer keeping a copy of the table reads only what changed since
+ * its last export. A watermark is a time on the database's clock: every insert and update stamps the
+ * employee's {@code last_modified}, and every delete is flagged in {@code employee_change_log}, so the
+ * changes after a watermark are the rows modified since plus the ids deleted since, less those
+ * recreated.
+ * <p>
+ * A write is stamped when its statement runs but becomes visible when it commits, so a delta stops
+ * {@code employee.export.delta.commit-grace-ms} short of now and hands out that point as the next
+ * watermark; a write still uncommitted by then would be missed. Deletes by criteria do not log their
+ * ids and the change log only keeps {@code employee.change-log.retention-minutes}, so a delta across
+ * either is refused and the consumer must start again from a full export.
+ */
+@Component
+public class EmployeeDeltaExporter {
+    private final EmployeeRepository repository;
+    private final EmployeeChangeLogRepository changeLog;
+    private final EmployeeConcurrencyLimiter limiter;
+    private final EmployeeBulkheads bulkheads;
+    private final Duration retention;
+    private final Duration commitGrace;
+
+    public EmployeeDeltaExporter(EmployeeRepository repository, EmployeeChangeLogRepository changeLog,
+                                 EmployeeConcurrencyLimiter limiter, EmployeeBulkheads bulkheads,
+                                 @Value("${employee.change-log.retention-minutes:1440}") long retentionMinutes,
+                                 @Value("${employee.export.delta.commit-grace-ms:10000}") long commitGraceMillis) {
+        this.repository = repository;
+        this.changeLog = changeLog;
+        this.limiter = limiter;
+        this.bulkheads = bulkheads;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.commitGrace = Duration.ofMillis(commitGraceMillis);
+    }
+
+    public EmployeeDelta findChangesSince(LocalDateTime since) {
+        LocalDateTime[] next = {since};
+        List<Employee> changed = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        exportChangesSince(since, upTo -> next[0] = upTo, changed::add, deleted::add);
+        return new EmployeeDelta(changed, deleted, next[0]);
+    }
+
+    /**
+     * Like {@link #findChangesSince} but without collecting the delta: hands {@code start} the next
+     * watermark, then {@code changed} each changed employee as it is read, then {@code deleted} each
+     * deleted id. A delta that cannot be answered fails before {@code start} is called.
+     */
+    public void exportChangesSince(LocalDateTime since, Consumer<LocalDateTime> start, Consumer<Employee> changed,
+                                   IntConsumer deleted) {
+        limiter.execute(WorkloadClass.BULK, () -> bulkheads.execute(WorkloadClass.BULK, () -> {
+            LocalDateTime now = changeLog.currentTime();
+            if (since.isBefore(now.minus(retention))) {
+                throw new ChangeHistoryUnavailableException("Changes before " + now.minus(retention)
+                        + " are no longer kept; run a full export and continue from its watermark.");
+            }
+            LocalDateTime upTo = now.minus(commitGrace);
+            if (!since.isBefore(upTo)) {
+                start.accept(since);
+                return null;
+            }
+            List<Change> deletions = changeLog.findDeletionsBetween(since, upTo);
+            if (deletions.stream().anyMatch(deletion -> deletion.employeeId() == null)) {
+                throw new ChangeHistoryUnavailableException("Employees were deleted by criteria after " + since
+                        + "; run a full export and continue from its watermark.");
+            }
+            start.accept(upTo);
+            Set<Integer> present = new HashSet<>();
+            repository.streamModifiedBetween(since, upTo, employee -> {
+                present.add(employee.getId());
+                changed.accept(employee);
+            });
+            deletions.stream()
+                    .map(Change::employeeId)
+                    .filter(id -> !present.contains(id))
+                    .distinct()
+                    .forEach(deleted::accept);
+            return null;
+        }));
+    }
+
+    /**
+     * The watermark for a full export about to start: whatever it misses was committed after this and
+     * is in the next delta.
+     */
+    public LocalDateTime currentWatermark() {
+        return limiter.execute(WorkloadClass.BULK, () -> bulkheads.execute(WorkloadClass.BULK,
+                () -> changeLog.currentTime().minus(commitGrace)));
+    }
+}
@@ -0,0 +1,138 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.exceptions.DuplicateEmployeeException;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Checks that an email is not already taken before it is written, usually without asking the
+ * database. Every stored email is put in a {@link BloomFilter}; an email the filter has never seen
+ * is certainly free, and only a probable match is confirmed with the indexed lookup by email. The
+ * {@code uk_employee_email} constraint still decides races between concurrent writers.
+ * <p>
+ * The filter is loaded from the table before the application starts serving, sized for twice the
+ * current row count, and every write that stores an email adds it, on another node's writes once the
+ * {@link EmployeeChangeLogPoller} has read the employees again. Deletes cannot clear bits, so
+ * deleted addresses remain probable matches until the next start; they cost a lookup, not a wrong
+ * answer. The estimated false-positive rate, memory and element count are exported as
+ * {@code employee.email-filter.*} gauges, and how checks were answered as
+ * {@code employee.email-filter.checks}.
+ */
+@Component
+public class EmployeeEmailGuard implements SmartInitializingSingleton {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeEmailGuard.class);
+
+    private final EmployeeRepository repository;
+    private final EmployeeBulkheads bulkheads;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private volatile BloomFilter filter;
+
+    private final Counter definiteNegatives;
+    private final Counter falsePositives;
+    private final Counter sameEmployee;
+    private final Counter conflicts;
+
+    public EmployeeEmailGuard(EmployeeRepository repository, EmployeeBulkheads bulkheads, MeterRegistry meterRegistry,
+                              @Value("${employee.email-filter.expected-insertions:100000}") long expectedInsertions,
+                              @Value("${employee.email-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.repository = repository;
+        this.bulkheads = bulkheads;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        this.definiteNegatives = checks(meterRegistry, "definite-negative");
+        this.falsePositives = checks(meterRegistry, "false-positive");
+        this.sameEmployee = checks(meterRegistry, "same-employee");
+        this.conflicts = checks(meterRegistry, "conflict");
+        Gauge.builder("employee.email-filter.false-positive-probability", this,
+                        guard -> guard.filter.expectedFalsePositiveProbability())
+                .description("Estimated chance that a new email needs a database lookup")
+                .register(meterRegistry);
+        Gauge.builder("employee.email-filter.memory", this, guard -> guard.filter.memoryBytes())
+                .description("Size of the email Bloom filter's bit array")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("employee.email-filter.elements", this, guard -> guard.filter.approximateElementCount())
+                .description("Approximate number of distinct emails in the filter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> emails = bulkheads.execute(WorkloadClass.BULK, repository::findAllEmails);
+        BloomFilter loaded = new BloomFilter(Math.max(expectedInsertions, 2L * emails.size()), falsePositiveProbability);
+        emails.forEach(email -> loaded.put(normalize(email)));
+        filter = loaded;
+        LOGGER.info("Loaded {} emails into a {} KiB filter with {} hash functions, expected false-positive rate {}",
+                emails.size(), loaded.memoryBytes() / 1024, loaded.hashFunctions(),
+                String.format(Locale.ROOT, "%.4f", loaded.expectedFalsePositiveProbability()));
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Throws {@link DuplicateEmployeeException} if an employee other than {@code id} has
+     * {@code email}, which must already be normalized. May query the repository, so call it from
+     * inside the admitted write it guards.
+     */
+    public void requireUnique(String email, int id) {
+        if (!filter.mightContain(email)) {
+            definiteNegatives.increment();
+            return;
+        }
+        Optional<Integer> owner = repository.findIdByEmail(email);
+        if (owner.isEmpty()) {
+            falsePositives.increment();
+        } else if (owner.get() == id) {
+            sameEmployee.increment();
+        } else {
+            conflicts.increment();
+            throw duplicateEmail(email);
+        }
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.employee() != null) {
+            filter.put(normalize(event.employee().getEmail()));
+        } else if (event.changes() != null && event.changes().get("email") instanceof String email) {
+            filter.put(normalize(email));
+        }
+    }
+
+    /**
+     * Adds the emails of {@code employees}, read from the table after another node wrote them.
+     */
+    public void addAll(List<Employee> employees) {
+        employees.forEach(employee -> filter.put(normalize(employee.getEmail())));
+    }
+
+    static DuplicateEmployeeException duplicateEmail(String email) {
+        return new DuplicateEmployeeException("Employee with email " + email + " already exists");
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("employee.email-filter.checks")
+                .description("Email uniqueness checks by how they were answered")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
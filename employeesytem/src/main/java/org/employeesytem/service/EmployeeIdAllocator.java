@@ -0,0 +1,90 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.repository.EmployeeIdSequenceRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Assigns ids to employees created without one. Ids come from a block reserved in the sequence
+ * table and are handed out with an atomic increment, so only one create in
+ * {@code employee.ids.block-size} pays for a database round trip. Each node reserves its own
+ * blocks, so nodes never hand out the same id; ids left in a block when a node stops are skipped.
+ * The sequence is moved above the existing ids once, at startup, and past each id a client picks
+ * later; an id a client picks may still fall in a block reserved earlier, and {@link EmployeeService}
+ * then moves on to the next one.
+ */
+@Component
+public class EmployeeIdAllocator implements SmartInitializingSingleton {
+    private final EmployeeIdSequenceRepository sequence;
+    private final int blockSize;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+    private final Counter reservations;
+
+    public EmployeeIdAllocator(EmployeeIdSequenceRepository sequence, MeterRegistry meterRegistry,
+                               @Value("${employee.ids.block-size:50}") int blockSize) {
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+        this.reservations = Counter.builder("employee.ids.reservations")
+                .description("Blocks of employee ids reserved from the sequence table")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        sequence.startAboveExistingIds();
+    }
+
+    /**
+     * The next unused id. Reserves a new block when the current one is used up, which updates the
+     * sequence table, so call it from inside the admitted write that needs the id.
+     */
+    public int nextId() {
+        while (true) {
+            Block current = block.get();
+            int id = current.next();
+            if (id > 0) {
+                return id;
+            }
+            synchronized (this) {
+                if (block.get() == current) {
+                    block.set(new Block(sequence.reserve(blockSize), blockSize));
+                    reservations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps blocks reserved from now on clear of {@code id}, which a client picked. Like
+     * {@link #nextId}, call it from inside the admitted write.
+     */
+    public void skip(int id) {
+        sequence.skip(id);
+    }
+
+    private static final class Block {
+        private final int first;
+        private final int end;
+        private final AtomicInteger next;
+
+        private Block(int first, int size) {
+            this.first = first;
+            this.end = first + size;
+            this.next = new AtomicInteger(first);
+        }
+
+        /**
+         * The next id in this block, or {@code 0} once it is used up.
+         */
+        private int next() {
+            int id = next.getAndIncrement();
+            return id >= first && id < end ? id : 0;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.service.EmployeeReadCoalescer.ListQuery;
+import org.employeesytem.util.VersionedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Caches {@code findAllEmployees} results so that the hot list views (first pages per sort order
+ * and department) are answered without a database round trip. Results are keyed by the normalized
+ * page, size, sort and filters, and the cache is bounded by the estimated heap size of the cached
+ * pages, evicting the least recently used.
+ * <p>
+ * {@link EmployeeService} calls {@link #invalidate()} after every write, which bumps a data
+ * version rather than clearing entries; a page loaded under an older version is never served. Writes
+ * on other nodes reach it through {@link EmployeeChangeLogPoller}, and no page older than
+ * {@code employee.page-cache.max-age} is served, whatever the poller last managed to read. Hits
+ * and misses are counted as {@code employee.page-cache.requests}, and the hit ratio, memory and
+ * entry count are exported as gauges.
+ */
+@Component
+public class EmployeePageCache {
+    private static final long PAGE_OVERHEAD_BYTES = 160;
+    private static final long EMPLOYEE_OVERHEAD_BYTES = 128;
+
+    private final VersionedCache<ListQuery, Page<Employee>> pages;
+
+    public EmployeePageCache(MeterRegistry meterRegistry,
+                             @Value("${employee.page-cache.max-memory:16MB}") DataSize maxMemory,
+                             @Value("${employee.page-cache.max-age:5s}") Duration maxAge) {
+        Counter hits = requests(meterRegistry, "hit");
+        Counter misses = requests(meterRegistry, "miss");
+        Counter evictions = Counter.builder("employee.page-cache.evictions")
+                .description("Current pages evicted to stay within the memory budget")
+                .register(meterRegistry);
+        this.pages = new VersionedCache<>(maxMemory.toBytes(), maxAge, EmployeePageCache::estimateBytes,
+                hits, misses, evictions);
+        Gauge.builder("employee.page-cache.hit-ratio", this, cache -> hitRatio(hits, misses))
+                .description("Share of list requests answered from the cache since startup")
+                .register(meterRegistry);
+        Gauge.builder("employee.page-cache.memory", pages, VersionedCache::weight)
+                .description("Estimated heap used by cached pages")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("employee.page-cache.entries", pages, VersionedCache::size)
+                .description("Pages held, including ones outdated by a later write")
+                .register(meterRegistry);
+        FunctionCounter.builder("employee.page-cache.data-version", pages, VersionedCache::version)
+                .description("Writes that invalidated the cache")
+                .register(meterRegistry);
+    }
+
+    public Page<Employee> findAll(Pageable pageable, String name, String department, Supplier<Page<Employee>> loader) {
+        return pages.get(ListQuery.of(pageable, name, department), loader);
+    }
+
+    public void invalidate() {
+        pages.invalidate();
+    }
+
+    /**
+     * A rough shallow-plus-strings size of a page: fixed overheads for the page and each employee,
+     * plus two bytes per character of its strings.
+     */
+    static long estimateBytes(Page<Employee> page) {
+        long bytes = PAGE_OVERHEAD_BYTES;
+        for (Employee employee : page.getContent()) {
+            bytes += EMPLOYEE_OVERHEAD_BYTES + 2L * (length(employee.getFirstName()) + length(employee.getLastName())
+                    + length(employee.getEmail()) + length(employee.getDepartment()));
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static double hitRatio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("employee.page-cache.requests")
+                .description("List requests by whether the page cache answered them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
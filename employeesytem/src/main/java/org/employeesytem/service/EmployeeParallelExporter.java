@@ -0,0 +1,252 @@
+package org.employeesytem.service;
+
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.repository.EmployeeRepository.IdRange;
+import org.employeesytem.util.CSVExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Produces the same CSV as the sequential export, byte for byte, by reading the table in parallel.
+ * The id space is split into {@code employee.export.parallelism} equal ranges, capped at the bulk
+ * bulkhead's pool size, and every range is streamed at once on a bulk thread and pooled connection
+ * of its own into a queue of {@link EmployeeRepository#EXPORT_FETCH_SIZE} encoded rows. The queues'
+ * heads are k-way merged on the requested order and id straight into the caller's stream, so no more
+ * than a queue per range is held however large the table is. A range's thread waits while its queue
+ * is full, so an export only starts once the bulkhead has a thread for each of its ranges that no
+ * other parallel export is waiting on.
+ * <p>
+ * The merge compares values in Java, so it only reproduces the database's order where the two
+ * agree: always for id and salary, and for the text columns only when
+ * {@code employee.export.binary-text-order} says the database compares text by code unit, as H2
+ * does by default. MySQL's default collation ignores case and accents, so text sorts there, and
+ * any sort this cannot compare, fall back to the sequential export.
+ */
+@Component
+public class EmployeeParallelExporter {
+    private static final Map<String, Comparator<Employee>> TEXT_ORDERS = Map.of(
+            "firstName", Comparator.comparing(Employee::getFirstName),
+            "lastName", Comparator.comparing(Employee::getLastName),
+            "email", Comparator.comparing(Employee::getEmail),
+            "department", Comparator.comparing(Employee::getDepartment));
+
+    private final EmployeeService service;
+    private final EmployeeRepository repository;
+    private final EmployeeConcurrencyLimiter limiter;
+    private final EmployeeBulkheads bulkheads;
+    private final CSVExporter csvExporter;
+    private final int ranges;
+    private final Semaphore bulkThreads;
+    private final boolean binaryTextOrder;
+
+    public EmployeeParallelExporter(EmployeeService service, EmployeeRepository repository,
+                                    EmployeeConcurrencyLimiter limiter, EmployeeBulkheads bulkheads,
+                                    CSVExporter csvExporter,
+                                    @Value("${employee.export.parallelism:2}") int parallelism,
+                                    @Value("${employee.export.binary-text-order:false}") boolean binaryTextOrder) {
+        this.service = service;
+        this.repository = repository;
+        this.limiter = limiter;
+        this.bulkheads = bulkheads;
+        this.csvExporter = csvExporter;
+        int poolSize = bulkheads.poolSize(WorkloadClass.BULK);
+        this.ranges = Math.max(1, Math.min(parallelism, poolSize));
+        this.bulkThreads = new Semaphore(poolSize, true);
+        this.binaryTextOrder = binaryTextOrder;
+    }
+
+    /**
+     * Writes the export to {@code csv}, header first, and returns how many employees it wrote. Does
+     * not close {@code csv}.
+     */
+    public int exportToCsv(String name, String department, Sort sort, OutputStream csv) throws IOException {
+        Sort exportSort = EmployeeService.exportSort(sort);
+        Comparator<Employee> order = comparator(exportSort);
+        String nameFilter = StringUtils.hasText(name) ? name.trim() : null;
+        String departmentFilter = StringUtils.hasText(department) ? department.trim() : null;
+        csv.write(csvExporter.header());
+        try {
+            if (order == null) {
+                return service.exportEmployees(name, department, sort,
+                        employee -> write(csv, csvExporter.encode(employee)));
+            }
+            return limiter.execute(WorkloadClass.BULK, () -> {
+                List<IdRange> split = bulkheads.execute(WorkloadClass.BULK, repository::findIdRange)
+                        .map(this::split)
+                        .orElse(List.of());
+                return stream(split, nameFilter, departmentFilter, exportSort, order, csv);
+            });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    /**
+     * Equal-width ranges covering {@code range}, at most {@link #ranges} of them.
+     */
+    List<IdRange> split(IdRange range) {
+        long span = (long) range.max() - range.min() + 1;
+        long width = (span + ranges - 1) / ranges;
+        List<IdRange> split = new ArrayList<>(ranges);
+        for (long from = range.min(); from <= range.max(); from += width) {
+            split.add(new IdRange((int) from, (int) Math.min(from + width - 1, range.max())));
+        }
+        return split;
+    }
+
+    private int stream(List<IdRange> split, String name, String department, Sort sort, Comparator<Employee> order,
+                       OutputStream csv) {
+        try {
+            bulkThreads.acquire(split.size());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bulk threads", exception);
+        }
+        List<RangeStream> streams = new ArrayList<>(split.size());
+        List<Future<Object>> producers = new ArrayList<>(split.size());
+        try {
+            for (IdRange range : split) {
+                RangeStream stream = new RangeStream();
+                streams.add(stream);
+                producers.add(bulkheads.submit(WorkloadClass.BULK, () -> stream.fill(
+                        () -> repository.streamRangeForExport(name, department, range.min(), range.max(), sort,
+                                employee -> stream.put(employee, csvExporter.encode(employee))))));
+            }
+            return merge(streams, order, csv);
+        } finally {
+            producers.forEach(producer -> producer.cancel(true));
+            bulkThreads.release(split.size());
+        }
+    }
+
+    private static int merge(List<RangeStream> streams, Comparator<Employee> order, OutputStream csv) {
+        PriorityQueue<RangeStream> heads = new PriorityQueue<>(Math.max(1, streams.size()),
+                Comparator.comparing(RangeStream::current, order));
+        for (RangeStream stream : streams) {
+            if (stream.advance()) {
+                heads.add(stream);
+            }
+        }
+        int rows = 0;
+        while (!heads.isEmpty()) {
+            RangeStream head = heads.poll();
+            write(csv, head.line());
+            rows++;
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return rows;
+    }
+
+    private static void write(OutputStream csv, byte[] line) {
+        try {
+            csv.write(line);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * The Java equivalent of ordering by {@code sort} in the database, or {@code null} if there is
+     * none this can be sure of.
+     */
+    Comparator<Employee> comparator(Sort sort) {
+        Comparator<Employee> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Employee> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparingInt(Employee::getId);
+                case "salary" -> Comparator.comparing(Employee::getSalary);
+                default -> binaryTextOrder && !order.isIgnoreCase() ? TEXT_ORDERS.get(order.getProperty()) : null;
+            };
+            if (next == null) {
+                return null;
+            }
+            next = order.isAscending() ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private record Row(Employee employee, byte[] line) {
+    }
+
+    /**
+     * One range's rows in order, handed from the thread reading them to the merging one.
+     */
+    private static final class RangeStream {
+        private static final Row END = new Row(null, null);
+
+        private final BlockingQueue<Row> rows = new ArrayBlockingQueue<>(EmployeeRepository.EXPORT_FETCH_SIZE);
+        private volatile RuntimeException failure;
+        private Row current;
+
+        private Object fill(Runnable stream) {
+            try {
+                stream.run();
+            } catch (RuntimeException exception) {
+                failure = exception;
+            } finally {
+                try {
+                    rows.put(END);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return null;
+        }
+
+        private void put(Employee employee, byte[] line) {
+            try {
+                rows.put(new Row(employee, line));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Export ended before the range was read");
+            }
+        }
+
+        /**
+         * Moves to the next row, waiting for it to be read, and returns whether there was one.
+         */
+        private boolean advance() {
+            try {
+                current = rows.take();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an export range", exception);
+            }
+            if (current == END) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        private Employee current() {
+            return current.employee();
+        }
+
+        private byte[] line() {
+            return current.line();
+        }
+    }
+}
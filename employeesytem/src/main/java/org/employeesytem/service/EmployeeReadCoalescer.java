@@ -0,0 +1,55 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.util.SingleFlight;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Component
+public class EmployeeReadCoalescer {
+    private final SingleFlight<ListQuery, Page<Employee>> pages;
+    private final SingleFlight<Integer, Optional<Employee>> employees;
+
+    public EmployeeReadCoalescer(MeterRegistry meterRegistry) {
+        this.pages = new SingleFlight<>(coalescedCounter(meterRegistry, "findAllEmployees"));
+        this.employees = new SingleFlight<>(coalescedCounter(meterRegistry, "findByEmployeeId"));
+    }
+
+    public Page<Employee> findAll(Pageable pageable, String name, String department, Supplier<Page<Employee>> loader) {
+        return pages.execute(ListQuery.of(pageable, name, department), loader);
+    }
+
+    public Optional<Employee> findById(int id, Supplier<Optional<Employee>> loader) {
+        return employees.execute(id, loader);
+    }
+
+    public void invalidate() {
+        pages.invalidate();
+        employees.invalidate();
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String method) {
+        return Counter.builder("employee.reads.coalesced")
+                .description("Reads that shared an identical in-flight repository call")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    record ListQuery(int page, int size, Sort sort, String name, String department) {
+        static ListQuery of(Pageable pageable, String name, String department) {
+            return new ListQuery(pageable.isPaged() ? pageable.getPageNumber() : -1,
+                    pageable.isPaged() ? pageable.getPageSize() : -1,
+                    pageable.getSort(),
+                    name == null ? null : name.toLowerCase(Locale.ROOT),
+                    department == null ? null : department.toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,597 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.dto.Department;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Answers salary range queries, such as the IT employees earning between two amounts by salary,
+ * from memory. The table is held as parallel primitive columns ordered by id: the id, the salary in
+ * cents, a department code and the version, 21 bytes per employee. A query is one branch-free pass
+ * over the salary and department columns that collects the positions of matching rows, then a top-N
+ * selection of the requested page on sort keys packing the salary and position into one long, so
+ * nothing is boxed until the page's ids are handed back.
+ * <p>
+ * The snapshot is loaded with one streamed scan before the application starts serving and is then
+ * kept current from the {@link EmployeeChangedEvent}s {@link EmployeeService} publishes after each
+ * write, like the {@link EmployeeSuggestionIndex}. Writes made on other nodes are picked up from the
+ * {@link EmployeeChangeLogPoller}, which hands over the ids it saw logged; they are read again by id
+ * on a background thread, so this node's own writes are read once more too. Deleted employees are
+ * marked and compacted away once they are a quarter of the rows. A delete by name, or a logged
+ * change without an id, cannot be matched here and reloads the snapshot on the background thread:
+ * the new columns are read without holding the lock and swapped in when complete, queries answer
+ * from the old ones until then, and employees written meanwhile are read again after the swap. The
+ * packed keys limit it to
+ * {@value #MAX_ROWS} rows and salaries below 2<sup>40</sup> cents, which {@code DECIMAL(12, 2)}
+ * keeps to.
+ */
+@Component
+public class EmployeeSalarySnapshot implements SmartInitializingSingleton, DisposableBean {
+    static final int MAX_ROWS = 1 << 23;
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeSalarySnapshot.class);
+
+    private static final int POSITION_BITS = 23;
+    private static final long POSITION_MASK = MAX_ROWS - 1;
+    private static final long MAX_CENTS = (1L << 40) - 1;
+    private static final long DELETED = Long.MIN_VALUE;
+    private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+    private static final byte UNKNOWN_DEPARTMENT = -1;
+    private static final int ANY_DEPARTMENT = -2;
+    private static final Department[] DEPARTMENTS = Department.values();
+
+    private final EmployeeRepository repository;
+    private final EmployeeBulkheads bulkheads;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object reloading = new Object();
+    private final ExecutorService background;
+
+    private int[] ids = new int[1024];
+    private long[] salaries = new long[1024];
+    private byte[] departments = new byte[1024];
+    private long[] versions = new long[1024];
+    private int size;
+    private int deleted;
+    private Set<Integer> changedDuringReload;
+
+    private final Set<Integer> pendingIds = new HashSet<>();
+    private boolean reloadPending;
+    private boolean drainScheduled;
+
+    public EmployeeSalarySnapshot(EmployeeRepository repository, EmployeeBulkheads bulkheads, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.bulkheads = bulkheads;
+        this.background = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "employee-salary-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("employee.salary-snapshot.rows", this, snapshot -> snapshot.size - snapshot.deleted)
+                .description("Employees in the in-memory salary snapshot")
+                .register(meterRegistry);
+        Gauge.builder("employee.salary-snapshot.memory", this, snapshot -> 21L * snapshot.ids.length)
+                .description("Size of the salary snapshot's columns")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * The ids of the employees of {@code department}, or of any if it is {@code null}, earning from
+     * {@code minSalary} to {@code maxSalary} inclusive, either of which may be {@code null}: those
+     * from {@code offset} on, at most {@code limit} of them, in {@code sort} order, along with how
+     * many match in all. {@code sort} may be by salary, optionally followed by id, or by id alone;
+     * unsorted means by salary, and ties are always broken by id.
+     */
+    public Matches find(String department, BigDecimal minSalary, BigDecimal maxSalary, Sort sort,
+                        long offset, int limit) {
+        Order order = Order.of(sort);
+        long low = minSalary == null ? 0 : Math.max(0, cents(minSalary, RoundingMode.CEILING));
+        long high = maxSalary == null ? MAX_CENTS : Math.min(MAX_CENTS, cents(maxSalary, RoundingMode.FLOOR));
+        int code = department == null ? ANY_DEPARTMENT : code(department);
+        if (low > high || code == UNKNOWN_DEPARTMENT) {
+            return new Matches(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            int[] matches = new int[size];
+            int count = code == ANY_DEPARTMENT ? filter(low, high, matches) : filter(low, high, (byte) code, matches);
+            if (offset >= count) {
+                return new Matches(List.of(), count);
+            }
+            int from = (int) offset;
+            int to = (int) Math.min(count, offset + limit);
+            List<Integer> page = new ArrayList<>(to - from);
+            if (!order.bySalary()) {
+                for (int i = from; i < to; i++) {
+                    page.add(ids[matches[order.idAscending() ? i : count - 1 - i]]);
+                }
+                return new Matches(page, count);
+            }
+            long[] keys = smallest(matches, count, to, order);
+            for (int i = from; i < to; i++) {
+                long position = keys[i] & POSITION_MASK;
+                page.add(ids[(int) (order.idAscending() ? position : POSITION_MASK - position)]);
+            }
+            return new Matches(page, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collects the positions of live rows with a salary from {@code low} to {@code high} into
+     * {@code matches} and returns how many there are. Every position is stored and the count only
+     * advanced past a match, so the loop has no branch on the data. Deleted rows carry a salary
+     * below any {@code low}.
+     */
+    private int filter(long low, long high, int[] matches) {
+        long[] salaries = this.salaries;
+        int size = this.size;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long salary = salaries[i];
+            matches[count] = i;
+            count += (salary >= low & salary <= high) ? 1 : 0;
+        }
+        return count;
+    }
+
+    private int filter(long low, long high, byte department, int[] matches) {
+        long[] salaries = this.salaries;
+        byte[] departments = this.departments;
+        int size = this.size;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long salary = salaries[i];
+            matches[count] = i;
+            count += (salary >= low & salary <= high & departments[i] == department) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * The {@code k} smallest sort keys of the matching rows, ascending. A bounded max-heap keeps the
+     * best {@code k} seen so far, so most rows cost one comparison with its top.
+     */
+    private long[] smallest(int[] matches, int count, int k, Order order) {
+        long[] heap = new long[k];
+        for (int i = 0; i < k; i++) {
+            heap[i] = key(matches[i], order);
+            siftUp(heap, i);
+        }
+        for (int i = k; i < count; i++) {
+            long key = key(matches[i], order);
+            if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(heap, k);
+            }
+        }
+        Arrays.sort(heap);
+        return heap;
+    }
+
+    private long key(int position, Order order) {
+        long salary = salaries[position];
+        long salaryKey = order.salaryAscending() ? salary : MAX_CENTS - salary;
+        long positionKey = order.idAscending() ? position : POSITION_MASK - position;
+        return salaryKey << POSITION_BITS | positionKey;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (key >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.type() == EmployeeChangedEvent.Type.DELETED && event.ids() == null
+                && (event.name() != null || code(event.department()) == UNKNOWN_DEPARTMENT)) {
+            reloadInBackground();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedDuringReload != null) {
+                if (event.ids() != null) {
+                    changedDuringReload.addAll(event.ids());
+                } else if (event.id() != null) {
+                    changedDuringReload.add(event.id());
+                } else {
+                    reloadInBackground();
+                }
+            }
+            switch (event.type()) {
+                case CREATED -> put(event.employee(), true);
+                case UPDATED -> {
+                    if (event.employee() != null) {
+                        put(event.employee(), false);
+                    } else if (event.changes() != null) {
+                        patch(event.id(), event.changes(), event.version());
+                    }
+                }
+                case DELETED -> {
+                    if (event.ids() != null) {
+                        event.ids().forEach(id -> remove(position(id)));
+                    } else {
+                        removeDepartment((byte) code(event.department()));
+                    }
+                    compactIfSparse();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads {@code ids} again on the background thread, after those already waiting.
+     */
+    void refreshInBackground(Collection<Integer> ids) {
+        synchronized (pendingIds) {
+            pendingIds.addAll(ids);
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Reads the whole table again on the background thread. Requests made before it starts are
+     * served by one reload.
+     */
+    void reloadInBackground() {
+        synchronized (pendingIds) {
+            reloadPending = true;
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Waits until the background thread has done what was asked of it so far; for tests.
+     */
+    void awaitBackgroundWork() throws InterruptedException, ExecutionException {
+        background.submit(() -> { }).get();
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled) {
+            drainScheduled = true;
+            background.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            boolean reload;
+            List<Integer> ids;
+            synchronized (pendingIds) {
+                if (!reloadPending && pendingIds.isEmpty()) {
+                    drainScheduled = false;
+                    return;
+                }
+                reload = reloadPending;
+                ids = List.copyOf(pendingIds);
+                reloadPending = false;
+                pendingIds.clear();
+            }
+            try {
+                if (reload) {
+                    reload();
+                } else {
+                    refresh(ids);
+                }
+            } catch (RuntimeException exception) {
+                LOGGER.warn("Could not bring the salary snapshot up to date: {}", exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the whole table again, in id order, into new columns and swaps them in. Queries and
+     * writes carry on against the old columns meanwhile, and the employees written while it read are
+     * read again once it is done.
+     */
+    void reload() {
+        synchronized (reloading) {
+            lock.writeLock().lock();
+            try {
+                changedDuringReload = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Columns loaded = new Columns();
+            Set<Integer> changed;
+            try {
+                bulkheads.execute(WorkloadClass.BULK,
+                        () -> repository.streamForExport(null, null, Sort.by("id"), loaded::add));
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    changed = changedDuringReload;
+                    changedDuringReload = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                ids = loaded.ids;
+                salaries = loaded.salaries;
+                departments = loaded.departments;
+                versions = loaded.versions;
+                size = loaded.size;
+                deleted = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!changed.isEmpty()) {
+                refresh(List.copyOf(changed));
+            }
+        }
+    }
+
+    /**
+     * Reads {@code ids} from the database and stores the employees found, dropping the ids that are
+     * not. Reviving a deleted employee is allowed here, since the database says it exists, but a
+     * newer version is still not replaced.
+     */
+    void refresh(List<Integer> ids) {
+        List<Employee> found = bulkheads.execute(WorkloadClass.BULK, () -> repository.findAllById(ids));
+        lock.writeLock().lock();
+        try {
+            if (changedDuringReload != null) {
+                changedDuringReload.addAll(ids);
+            }
+            Set<Integer> gone = new HashSet<>(ids);
+            for (Employee employee : found) {
+                gone.remove(employee.getId());
+                put(employee, true);
+            }
+            gone.forEach(id -> remove(position(id)));
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        background.shutdownNow();
+    }
+
+    /**
+     * Stores {@code employee}. An update only changes an employee present and not deleted, so that
+     * one published after a delete cannot bring the employee back; neither replaces a newer version.
+     */
+    private void put(Employee employee, boolean created) {
+        long version = version(employee.getVersion());
+        int position = position(employee.getId());
+        if (position >= 0) {
+            if (!created && salaries[position] == DELETED || isStale(position, version)) {
+                return;
+            }
+            if (salaries[position] == DELETED) {
+                deleted--;
+            }
+            set(position, employee, version);
+        } else if (created) {
+            int insertAt = -position - 1;
+            grow();
+            if (insertAt < size) {
+                System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+                System.arraycopy(salaries, insertAt, salaries, insertAt + 1, size - insertAt);
+                System.arraycopy(departments, insertAt, departments, insertAt + 1, size - insertAt);
+                System.arraycopy(versions, insertAt, versions, insertAt + 1, size - insertAt);
+            }
+            size++;
+            set(insertAt, employee, version);
+        }
+    }
+
+    private void patch(int id, Map<String, Object> changes, Long version) {
+        int position = position(id);
+        if (position < 0 || salaries[position] == DELETED || isStale(position, version(version))) {
+            return;
+        }
+        if (changes.get("salary") != null) {
+            salaries[position] = cents(new BigDecimal(changes.get("salary").toString()), RoundingMode.HALF_UP);
+        }
+        if (changes.get("department") instanceof String department) {
+            departments[position] = (byte) code(department);
+        }
+        versions[position] = version(version);
+    }
+
+    private void remove(int position) {
+        if (position >= 0 && salaries[position] != DELETED) {
+            salaries[position] = DELETED;
+            deleted++;
+        }
+    }
+
+    private void removeDepartment(byte department) {
+        for (int i = 0; i < size; i++) {
+            if (department == ANY_DEPARTMENT || departments[i] == department) {
+                remove(i);
+            }
+        }
+    }
+
+    private void compactIfSparse() {
+        if (deleted <= size / 4) {
+            return;
+        }
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            if (salaries[i] != DELETED) {
+                ids[live] = ids[i];
+                salaries[live] = salaries[i];
+                departments[live] = departments[i];
+                versions[live] = versions[i];
+                live++;
+            }
+        }
+        size = live;
+        deleted = 0;
+    }
+
+    private void grow() {
+        if (size == MAX_ROWS) {
+            compactIfSparse();
+            if (size == MAX_ROWS) {
+                throw new IllegalStateException("The salary snapshot holds at most " + MAX_ROWS + " employees");
+            }
+        }
+        if (size == ids.length) {
+            int capacity = (int) Math.min(MAX_ROWS, 2L * ids.length);
+            ids = Arrays.copyOf(ids, capacity);
+            salaries = Arrays.copyOf(salaries, capacity);
+            departments = Arrays.copyOf(departments, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+    }
+
+    private void set(int position, Employee employee, long version) {
+        ids[position] = employee.getId();
+        salaries[position] = cents(employee.getSalary(), RoundingMode.HALF_UP);
+        departments[position] = (byte) code(employee.getDepartment());
+        versions[position] = version;
+    }
+
+    private boolean isStale(int position, long version) {
+        return version != UNKNOWN_VERSION && versions[position] != UNKNOWN_VERSION && version < versions[position];
+    }
+
+    private int position(int id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private static long version(Long version) {
+        return version == null ? UNKNOWN_VERSION : version;
+    }
+
+    private static long cents(BigDecimal amount, RoundingMode rounding) {
+        return amount.setScale(2, rounding).unscaledValue().longValue();
+    }
+
+    /**
+     * The department's code, {@code ANY_DEPARTMENT} for {@code null} or {@code UNKNOWN_DEPARTMENT}.
+     */
+    private static int code(String department) {
+        if (department == null) {
+            return ANY_DEPARTMENT;
+        }
+        String name = department.trim().toUpperCase(Locale.ROOT);
+        for (Department candidate : DEPARTMENTS) {
+            if (candidate.name().equals(name)) {
+                return candidate.ordinal();
+            }
+        }
+        return UNKNOWN_DEPARTMENT;
+    }
+
+    public record Matches(List<Integer> ids, long total) {
+    }
+
+    /**
+     * Columns being loaded in id order, before they are swapped in.
+     */
+    private static final class Columns {
+        private int[] ids = new int[1024];
+        private long[] salaries = new long[1024];
+        private byte[] departments = new byte[1024];
+        private long[] versions = new long[1024];
+        private int size;
+
+        private void add(Employee employee) {
+            if (size == ids.length) {
+                if (size == MAX_ROWS) {
+                    throw new IllegalStateException("The salary snapshot holds at most " + MAX_ROWS + " employees");
+                }
+                int capacity = (int) Math.min(MAX_ROWS, 2L * ids.length);
+                ids = Arrays.copyOf(ids, capacity);
+                salaries = Arrays.copyOf(salaries, capacity);
+                departments = Arrays.copyOf(departments, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+            }
+            ids[size] = employee.getId();
+            salaries[size] = cents(employee.getSalary(), RoundingMode.HALF_UP);
+            departments[size] = (byte) code(employee.getDepartment());
+            versions[size] = version(employee.getVersion());
+            size++;
+        }
+    }
+
+    private record Order(boolean bySalary, boolean salaryAscending, boolean idAscending) {
+        static Order of(Sort sort) {
+            List<Sort.Order> orders = sort.toList();
+            if (orders.isEmpty()) {
+                return new Order(true, true, true);
+            }
+            Sort.Order first = orders.get(0);
+            Sort.Order second = orders.size() > 1 ? orders.get(1) : null;
+            if (first.getProperty().equals("salary") && orders.size() <= 2
+                    && (second == null || second.getProperty().equals("id"))) {
+                return new Order(true, first.isAscending(), second == null || second.isAscending());
+            }
+            if (first.getProperty().equals("id") && second == null) {
+                return new Order(false, true, first.isAscending());
+            }
+            throw new InvalidRequestException("Salary ranges can only be sorted by salary, then id, or by id.");
+        }
+    }
+}
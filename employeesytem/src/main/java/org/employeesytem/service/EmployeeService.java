@@ -1,45 +1,183 @@
 package org.employeesytem.service;
 
 import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.dto.EmployeeLookup;
+import org.employeesytem.dto.EmployeePatch;
 import org.employeesytem.exceptions.DuplicateEmployeeException;
 import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.exceptions.EmployeeVersionConflictException;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.repository.EmployeeChangeLogRepository;
 import org.employeesytem.repository.EmployeeRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class EmployeeService {
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    private static final String SERVICE_CLASS = EmployeeService.class.getName();
+    private static final Set<String> ADMITTING_HELPERS =
+            Set.of("callingMethod", "admit", "write", "findAllById", "currentVersion", "requireUpdated");
+
     private final EmployeeRepository repository;
+    private final EmployeeReadCoalescer coalescer;
+    private final EmployeeConcurrencyLimiter limiter;
+    private final EmployeeBulkheads bulkheads;
+    private final ApplicationEventPublisher events;
+    private final EmployeeEmailGuard emailGuard;
+    private final EmployeeIdAllocator idAllocator;
+    private final EmployeePageCache pageCache;
+    private final EmployeeChangeLogRepository changeLog;
+    private final TransactionOperations transactions;
+    private final EmployeeAuditTrail audit;
+    private final EmployeeSalarySnapshot salarySnapshot;
 
-    public EmployeeService(EmployeeRepository repository) {
+    public EmployeeService(EmployeeRepository repository, EmployeeReadCoalescer coalescer,
+                           EmployeeConcurrencyLimiter limiter, EmployeeBulkheads bulkheads,
+                           ApplicationEventPublisher events, EmployeeEmailGuard emailGuard,
+                           EmployeeIdAllocator idAllocator, EmployeePageCache pageCache,
+                           EmployeeChangeLogRepository changeLog, TransactionOperations transactions,
+                           EmployeeAuditTrail audit, EmployeeSalarySnapshot salarySnapshot) {
         this.repository = repository;
+        this.coalescer = coalescer;
+        this.limiter = limiter;
+        this.bulkheads = bulkheads;
+        this.events = events;
+        this.emailGuard = emailGuard;
+        this.idAllocator = idAllocator;
+        this.pageCache = pageCache;
+        this.changeLog = changeLog;
+        this.transactions = transactions;
+        this.audit = audit;
+        this.salarySnapshot = salarySnapshot;
     }
 
     public Page<Employee> findAllEmployees(Pageable pageable, String name, String department) {
         String nameFilter = StringUtils.hasText(name) ? name.trim() : null;
         String departmentFilter = StringUtils.hasText(department) ? department.trim() : null;
-        if (nameFilter == null && departmentFilter == null) {
-            return repository.findAll(pageable);
+        return pageCache.findAll(pageable, nameFilter, departmentFilter,
+                () -> coalescer.findAll(pageable, nameFilter, departmentFilter,
+                        () -> admit(WorkloadClass.INTERACTIVE_READ, () -> {
+                            if (nameFilter == null && departmentFilter == null) {
+                                return repository.findAll(pageable);
+                            }
+                            return repository.findByCriteria(nameFilter, departmentFilter, pageable);
+                        })));
+    }
+
+    /**
+     * The employees of {@code department}, or of any, earning from {@code minSalary} to
+     * {@code maxSalary} inclusive, either of which may be {@code null}. The page is picked from the
+     * {@link EmployeeSalarySnapshot}, so it is sorted by salary or id only, and only its own rows are
+     * read from the repository.
+     */
+    public Page<Employee> findBySalaryRange(Pageable pageable, String department, BigDecimal minSalary,
+                                            BigDecimal maxSalary) {
+        String departmentFilter = StringUtils.hasText(department) ? department.trim() : null;
+        EmployeeSalarySnapshot.Matches matches = salarySnapshot.find(departmentFilter, minSalary, maxSalary,
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+        if (matches.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, matches.total());
+        }
+        Map<Integer, Employee> rows = findAllById(matches.ids());
+        List<Employee> content = matches.ids().stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, matches.total());
+    }
+
+    /**
+     * The employees with the given ids, each once and in the order first asked for, and the ids that
+     * have no employee. The ids are read in as few {@code IN} queries as
+     * {@link EmployeeRepository#MAX_IDS_PER_STATEMENT} allows.
+     */
+    public EmployeeLookup lookupEmployees(List<Integer> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidRequestException("Specify the ids to look up.");
+        }
+        List<Integer> distinctIds = ids.stream().distinct().toList();
+        Map<Integer, Employee> rows = findAllById(distinctIds);
+        List<Employee> employees = new ArrayList<>(rows.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : distinctIds) {
+            Employee employee = rows.get(id);
+            if (employee == null) {
+                missing.add(id);
+            } else {
+                employees.add(employee);
+            }
         }
-        return repository.findByCriteria(nameFilter, departmentFilter, pageable);
+        return new EmployeeLookup(employees, missing);
     }
 
     public Employee addEmployee(Employee employee) {
+        employee.setVersion(null);
+        employee.setEmail(EmployeeEmailGuard.normalize(employee.getEmail()));
+        boolean assignId = employee.getId() == 0;
+        EmployeeAuditTrail.Pending audited = audit.pending();
+        Employee saved;
         try {
-            return repository.save(employee);
+            saved = write(() -> {
+                if (!assignId) {
+                    idAllocator.skip(employee.getId());
+                }
+                for (int attempts = 1; ; attempts++) {
+                    if (assignId) {
+                        employee.setId(idAllocator.nextId());
+                    }
+                    try {
+                        return inTransaction(() -> {
+                            emailGuard.requireUnique(employee.getEmail(), employee.getId());
+                            Employee result = assignId ? repository.insert(employee) : repository.save(employee);
+                            changeLog.append(result.getId(), result.getVersion());
+                            audited.created(result);
+                            return result;
+                        });
+                    } catch (RuntimeException exception) {
+                        if (!assignId || !isIdConflict(exception) || attempts == MAX_WRITE_ATTEMPTS) {
+                            throw exception;
+                        }
+                    }
+                }
+            });
         } catch (IllegalArgumentException exception) {
             throw new DuplicateEmployeeException(exception.getMessage());
+        } catch (DataIntegrityViolationException exception) {
+            if (EmployeeRepository.isEmailConflict(exception)) {
+                throw EmployeeEmailGuard.duplicateEmail(employee.getEmail());
+            }
+            throw new DuplicateEmployeeException("Employee with id " + employee.getId() + " already exists");
         }
+        audited.publish();
+        events.publishEvent(EmployeeChangedEvent.created(saved));
+        return saved;
     }
 
     public Employee findByEmployeeId(int employeeId) {
-        Optional<Employee> employee = repository.findById(employeeId);
+        Optional<Employee> employee = coalescer.findById(employeeId,
+                () -> admit(WorkloadClass.INTERACTIVE_READ, () -> repository.findById(employeeId)));
         if (employee.isPresent()) {
             return employee.get();
         } else {
@@ -49,23 +187,282 @@ public class EmployeeService {
 
     public Employee updateEmployee(int id, Employee employee) {
         employee.setId(id);
-        return repository.save(employee);
+        employee.setEmail(EmployeeEmailGuard.normalize(employee.getEmail()));
+        Long expectedVersion = employee.getVersion();
+        EmployeeAuditTrail.Pending audited = audit.pending();
+        try {
+            long version = write(() -> inTransaction(() -> {
+                emailGuard.requireUnique(employee.getEmail(), id);
+                long updated = repository.update(employee, expectedVersion);
+                if (updated > 0) {
+                    audited.updated(employee, updated);
+                }
+                return logged(id, updated);
+            }));
+            requireUpdated(id, version, expectedVersion);
+            audited.publish();
+            employee.setVersion(version);
+            events.publishEvent(EmployeeChangedEvent.updated(employee));
+            return employee;
+        } catch (DataIntegrityViolationException exception) {
+            throw emailConflictOr(exception, employee.getEmail());
+        }
     }
 
+    public Long patchEmployee(int id, EmployeePatch patch, Long expectedVersion) {
+        if (patch.isEmpty()) {
+            return currentVersion(id, expectedVersion);
+        }
+        Map<String, Object> changes = new LinkedHashMap<>(patch.getChanges());
+        String email = EmployeeEmailGuard.normalize((String) changes.get("email"));
+        if (email != null) {
+            changes.put("email", email);
+        }
+        EmployeeAuditTrail.Pending audited = audit.pending();
+        try {
+            long version = write(() -> inTransaction(() -> {
+                if (email != null) {
+                    emailGuard.requireUnique(email, id);
+                }
+                long patched = repository.patch(id, changes, expectedVersion);
+                if (patched > 0) {
+                    audited.patched(id, changes, patched);
+                }
+                return logged(id, patched);
+            }));
+            requireUpdated(id, version, expectedVersion);
+            audited.publish();
+            events.publishEvent(EmployeeChangedEvent.patched(id, changes, version));
+            return version;
+        } catch (DataIntegrityViolationException exception) {
+            throw emailConflictOr(exception, email);
+        }
+    }
+
+    /**
+     * Deletes the employee in one statement, without reading it first. Only a delete that removed the
+     * row is logged, audited and announced; deleting an id that is not there fails.
+     */
     public void deleteEmployee(int employeeId) {
-        repository.deleteById(employeeId);
+        EmployeeAuditTrail.Pending audited = audit.pending();
+        int deleted = write(() -> inTransaction(() -> {
+            int rows = repository.deleteAllById(List.of(employeeId));
+            if (rows > 0) {
+                audited.deleted(employeeId);
+                changeLog.appendDeletion(employeeId);
+            }
+            return rows;
+        }));
+        if (deleted == 0) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        audited.publish();
+        events.publishEvent(EmployeeChangedEvent.deleted(List.of(employeeId)));
+    }
+
+    /**
+     * Deletes the employees with the given ids, or those matching the criteria, and audits each with
+     * the row read just before the delete. If the delete removes a different number of rows than
+     * were read, another transaction added or removed one in between, and the whole delete is retried.
+     */
+    public int deleteEmployees(List<Integer> ids, String name, String department) {
+        String nameFilter = StringUtils.hasText(name) ? name.trim() : null;
+        String departmentFilter = StringUtils.hasText(department) ? department.trim() : null;
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byIds == (nameFilter != null || departmentFilter != null)) {
+            throw new InvalidRequestException("Specify either ids or name/department criteria to delete.");
+        }
+        EmployeeAuditTrail.Pending audited = audit.pending();
+        if (byIds) {
+            List<Integer> distinctIds = ids.stream().distinct().toList();
+            int deleted = write(() -> optimistically(() -> {
+                List<Employee> before = repository.findAllById(distinctIds);
+                int rows = repository.deleteAllById(distinctIds);
+                if (rows != before.size()) {
+                    return null;
+                }
+                if (rows > 0) {
+                    changeLog.appendDeletions(distinctIds);
+                }
+                before.forEach(audited::deleted);
+                return rows;
+            }));
+            audited.publish();
+            events.publishEvent(EmployeeChangedEvent.deleted(distinctIds));
+            return deleted;
+        }
+        int deleted = write(() -> optimistically(() -> {
+            List<Employee> before = repository.findByCriteriaForExport(nameFilter, departmentFilter, Sort.by("id"));
+            int rows = repository.deleteByCriteria(nameFilter, departmentFilter);
+            if (rows != before.size()) {
+                return null;
+            }
+            if (rows > 0) {
+                changeLog.appendDeletion(null);
+            }
+            before.forEach(audited::deleted);
+            return rows;
+        }));
+        audited.publish();
+        events.publishEvent(EmployeeChangedEvent.deletedMatching(nameFilter, departmentFilter));
+        return deleted;
     }
 
     public Long getEmployeeCount() {
-        return repository.count();
+        return admit(WorkloadClass.INTERACTIVE_READ, repository::count);
     }
 
     public List<Employee> findAllEmployeesForExport(String name, String department, Sort sort) {
         String nameFilter = StringUtils.hasText(name) ? name.trim() : null;
         String departmentFilter = StringUtils.hasText(department) ? department.trim() : null;
-        if (nameFilter == null && departmentFilter == null) {
-            return repository.findAll(sort);
+        Sort exportSort = exportSort(sort);
+        return admit(WorkloadClass.BULK, () -> {
+            if (nameFilter == null && departmentFilter == null) {
+                return repository.findAll(exportSort);
+            }
+            return repository.findByCriteriaForExport(nameFilter, departmentFilter, exportSort);
+        });
+    }
+
+    /**
+     * Like {@link #findAllEmployeesForExport} but hands the employees to {@code rows} as they are
+     * read instead of collecting them, and returns how many there were. {@code rows} runs on the bulk
+     * bulkhead, holding one of its connections, until the last employee has been handed over.
+     */
+    public int exportEmployees(String name, String department, Sort sort, Consumer<Employee> rows) {
+        String nameFilter = StringUtils.hasText(name) ? name.trim() : null;
+        String departmentFilter = StringUtils.hasText(department) ? department.trim() : null;
+        Sort exportSort = exportSort(sort);
+        return admit(WorkloadClass.BULK,
+                () -> repository.streamForExport(nameFilter, departmentFilter, exportSort, rows));
+    }
+
+    /**
+     * The order exports are written in: the requested one, then id, so that rows equal on every
+     * requested property come out the same way on every run and on every export path.
+     */
+    static Sort exportSort(Sort sort) {
+        return sort.getOrderFor("id") != null ? sort : sort.and(Sort.by("id"));
+    }
+
+    private Map<Integer, Employee> findAllById(List<Integer> ids) {
+        Map<Integer, Employee> rows = new HashMap<>();
+        admit(WorkloadClass.INTERACTIVE_READ, () -> repository.findAllById(ids))
+                .forEach(employee -> rows.put(employee.getId(), employee));
+        return rows;
+    }
+
+    /**
+     * The version of an employee a patch that changes nothing leaves as it is, failing the way the
+     * patch would have if the employee is gone or no longer at {@code expectedVersion}.
+     */
+    private Long currentVersion(int id, Long expectedVersion) {
+        Employee current = admit(WorkloadClass.INTERACTIVE_READ, () -> repository.findById(id))
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee with ID " + id + " not found"));
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new EmployeeVersionConflictException("Employee with id " + id
+                    + " has been modified since version " + expectedVersion);
+        }
+        return current.getVersion();
+    }
+
+    private void requireUpdated(int id, long version, Long expectedVersion) {
+        if (version > 0) {
+            return;
+        }
+        if (expectedVersion != null
+                && admit(WorkloadClass.INTERACTIVE_READ, () -> repository.findById(id)).isPresent()) {
+            throw new EmployeeVersionConflictException("Employee with id " + id
+                    + " has been modified since version " + expectedVersion);
         }
-        return repository.findByCriteriaForExport(nameFilter, departmentFilter, sort);
+        throw new EmployeeNotFoundException("Employee with ID " + id + " not found");
+    }
+
+    /**
+     * Whether an insert failed because its id is taken: a client picked an id in a block this node
+     * reserved.
+     */
+    private static boolean isIdConflict(RuntimeException exception) {
+        return exception instanceof DataIntegrityViolationException violation
+                && !EmployeeRepository.isEmailConflict(violation);
+    }
+
+    private static RuntimeException emailConflictOr(DataIntegrityViolationException exception, String email) {
+        if (EmployeeRepository.isEmailConflict(exception)) {
+            return EmployeeEmailGuard.duplicateEmail(email);
+        }
+        return exception;
+    }
+
+    /**
+     * Logs an update or patch that changed a row, with the version it produced.
+     */
+    private long logged(int id, long version) {
+        if (version > 0) {
+            changeLog.append(id, version);
+        }
+        return version;
+    }
+
+    /**
+     * Runs {@code attempt} in a transaction of its own until it returns a result, at most
+     * {@link #MAX_WRITE_ATTEMPTS} times. An attempt reads the rows it is about to write, writes them
+     * guarded by what it read, and returns {@code null} if they changed in between. No row is locked
+     * before the write; each retry needs a new transaction because under repeatable read the old one
+     * would read the same stale rows again.
+     */
+    private <T> T optimistically(Supplier<T> attempt) {
+        for (int attempts = 1; ; attempts++) {
+            T result = inTransaction(attempt);
+            if (result != null) {
+                return result;
+            }
+            if (attempts == MAX_WRITE_ATTEMPTS) {
+                throw new ServiceOverloadedException("Employees kept changing during the write, retry later", 1);
+            }
+        }
+    }
+
+    /**
+     * Runs a write and its change log entry in one transaction, so other nodes learn of exactly the
+     * writes that commit. Call it inside {@link #write}: the transaction must be opened on the
+     * bulkhead thread so it uses the write pool, and id reservation must stay outside it.
+     */
+    private <T> T inTransaction(Supplier<T> call) {
+        return transactions.execute(status -> call.get());
+    }
+
+    /**
+     * Admits a write and then, whether or not it succeeded and before the caller publishes its change
+     * event, ends the in-flight reads and invalidates cached pages. The reads go first: a read that
+     * started before the write must not be able to cache its page under the cache's new version.
+     */
+    private <T> T write(Supplier<T> call) {
+        try {
+            return admit(WorkloadClass.WRITE, call);
+        } finally {
+            coalescer.invalidate();
+            pageCache.invalidate();
+        }
+    }
+
+    private <T> T admit(WorkloadClass workload, Supplier<T> call) {
+        String operation = EmployeeBulkheads.currentOperation();
+        String method = operation != null ? operation : callingMethod();
+        return limiter.execute(workload, () -> bulkheads.execute(workload, method, call));
+    }
+
+    /**
+     * The method of this class that called {@link #admit}, named with the call so that a slow query
+     * report can tell which operation ran it once the call has moved to a bulkhead thread. Frames of
+     * lambdas and of the private helpers that admit on a public method's behalf are skipped.
+     */
+    private static String callingMethod() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().equals(SERVICE_CLASS))
+                .map(StackWalker.StackFrame::getMethodName)
+                .filter(name -> !name.startsWith("lambda$") && !ADMITTING_HELPERS.contains(name))
+                .findFirst()
+                .orElse(null));
     }
 }
@@ -0,0 +1,210 @@
+package org.employeesytem.service;
+
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.dto.EmployeeSuggestion;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.util.PrefixTrie;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type-ahead over employee names, answered from memory. Every employee is indexed in a
+ * {@link PrefixTrie} under its first name, its last name and "first last", lower-cased, so a prefix
+ * of any of them finds it. Matches are ranked by the matching name and then by id.
+ * <p>
+ * The index is loaded with one scan before the application starts serving and is then kept current
+ * from the {@link EmployeeChangedEvent}s {@link EmployeeService} publishes after each write, and from
+ * the rows the {@link EmployeeChangeLogPoller} reads again after writes on other nodes.
+ */
+@Component
+public class EmployeeSuggestionIndex implements SmartInitializingSingleton {
+    private final EmployeeRepository repository;
+    private final EmployeeBulkheads bulkheads;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private PrefixTrie trie = new PrefixTrie();
+    private Map<Integer, Entry> entries = new HashMap<>();
+
+    public EmployeeSuggestionIndex(EmployeeRepository repository, EmployeeBulkheads bulkheads) {
+        this.repository = repository;
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        replaceAll(bulkheads.execute(WorkloadClass.BULK, () -> repository.findAll(Sort.by("id"))));
+    }
+
+    /**
+     * Replaces the whole index with {@code employees}, read from the table. The new index is built
+     * before the lock is taken, so suggestions are served from the old one meanwhile.
+     */
+    public void replaceAll(List<Employee> employees) {
+        PrefixTrie loadedTrie = new PrefixTrie();
+        Map<Integer, Entry> loadedEntries = new HashMap<>();
+        for (Employee employee : employees) {
+            Entry entry = Entry.of(employee);
+            loadedEntries.put(entry.id(), entry);
+            entry.keys().forEach(key -> loadedTrie.add(key, entry.id()));
+        }
+        lock.writeLock().lock();
+        try {
+            trie = loadedTrie;
+            entries = loadedEntries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores {@code found}, the employees among {@code ids} just read from the table, and drops the
+     * ids that were not found. An entry newer than the one read is kept.
+     */
+    public void refresh(Collection<Integer> ids, List<Employee> found) {
+        lock.writeLock().lock();
+        try {
+            Set<Integer> gone = new HashSet<>(ids);
+            for (Employee employee : found) {
+                gone.remove(employee.getId());
+                put(Entry.of(employee));
+            }
+            gone.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<EmployeeSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Integer> ids = trie.find(key, limit);
+            List<EmployeeSuggestion> suggestions = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                Entry entry = entries.get(id);
+                suggestions.add(new EmployeeSuggestion(id, entry.firstName(), entry.lastName()));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            switch (event.type()) {
+                case CREATED, UPDATED -> {
+                    if (event.employee() != null) {
+                        put(Entry.of(event.employee()));
+                    } else if (event.changes() != null) {
+                        patch(event.id(), event.changes(), event.version());
+                    }
+                }
+                case DELETED -> {
+                    if (event.ids() != null) {
+                        event.ids().forEach(this::remove);
+                    } else {
+                        removeMatching(event.name(), event.department());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        Entry previous = entries.get(entry.id());
+        if (previous != null) {
+            if (previous.version() != null && entry.version() != null && entry.version() < previous.version()) {
+                return;
+            }
+            previous.keys().forEach(key -> trie.remove(key, entry.id()));
+        }
+        entries.put(entry.id(), entry);
+        entry.keys().forEach(key -> trie.add(key, entry.id()));
+    }
+
+    private void patch(int id, Map<String, Object> changes, Long version) {
+        Entry previous = entries.get(id);
+        if (previous == null) {
+            return;
+        }
+        put(new Entry(id,
+                (String) changes.getOrDefault("firstName", previous.firstName()),
+                (String) changes.getOrDefault("lastName", previous.lastName()),
+                (String) changes.getOrDefault("department", previous.department()),
+                version));
+    }
+
+    private void remove(int id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            previous.keys().forEach(key -> trie.remove(key, id));
+        }
+    }
+
+    /**
+     * Mirrors the repositories' delete-by-criteria predicate: the name matches anywhere in the first
+     * or last name and the department matches exactly, both ignoring case.
+     */
+    private void removeMatching(String name, String department) {
+        String namePart = name == null ? null : name.toLowerCase(Locale.ROOT);
+        List<Integer> matching = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            boolean nameMatches = namePart == null
+                    || entry.firstName().toLowerCase(Locale.ROOT).contains(namePart)
+                    || entry.lastName().toLowerCase(Locale.ROOT).contains(namePart);
+            boolean departmentMatches = department == null || department.equalsIgnoreCase(entry.department());
+            if (nameMatches && departmentMatches) {
+                matching.add(entry.id());
+            }
+        }
+        matching.forEach(this::remove);
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(int id, String firstName, String lastName, String department, Long version) {
+        static Entry of(Employee employee) {
+            return new Entry(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                    employee.getDepartment(), employee.getVersion());
+        }
+
+        List<String> keys() {
+            String first = normalize(firstName);
+            String last = normalize(lastName);
+            return List.of(first, last, first + " " + last);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.employeesytem.service;
+
+/**
+ * The kind of work an {@link EmployeeService} method puts on the database.
+ */
+public enum WorkloadClass {
+    INTERACTIVE_READ,
+    WRITE,
+    BULK
+}
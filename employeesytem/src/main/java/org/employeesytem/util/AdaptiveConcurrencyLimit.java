@@ -0,0 +1,122 @@
+package org.employeesytem.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An AIMD concurrency limit driven by observed latency. Each completed call reports its round-trip
+ * time into a short and a long exponentially weighted average. While the short average stays within
+ * {@code tolerance} times the long one and the limit is actually being used, the limit grows by
+ * roughly one per round trip. A latency spike or a failed call shrinks it by {@code backoffRatio},
+ * at most once per round trip so one burst does not collapse it.
+ * <p>
+ * Comparing averages rather than a minimum keeps a mix of cheap lookups and expensive page queries
+ * from looking like overload. When latency recovers after an overload the long average is pulled
+ * down towards the short one so it does not hold the limit open on a stale, inflated baseline.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.002;
+    private static final double RECOVERY_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private double shortRtt;
+    private double longRtt;
+    private int samplesSinceDecrease;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1.0 || backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+            throw new IllegalArgumentException("Tolerance must be >= 1 and backoff ratio in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Takes a slot if fewer than {@code share} of the current limit are in use. Callers with a
+     * smaller share are turned away first as the limit shrinks, which leaves the rest of the
+     * capacity to callers with a larger one.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a slot taken by {@link #tryAcquire(double)} and feeds the call's latency into the limit.
+     * {@code overloaded} marks a call that failed because the database was saturated, such as a
+     * connection acquisition timeout, and always counts as a slow sample.
+     */
+    public void release(long rttNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (!overloaded) {
+                recordRtt(rttNanos);
+            }
+            samplesSinceDecrease++;
+            double current = limit;
+            if (overloaded || shortRtt > longRtt * tolerance) {
+                if (samplesSinceDecrease >= current) {
+                    limit = Math.max(minLimit, current * backoffRatio);
+                    samplesSinceDecrease = 0;
+                }
+            } else if (inFlightBefore * 2 >= current) {
+                limit = Math.min(maxLimit, current + 1.0 / current);
+            }
+        }
+    }
+
+    /**
+     * Returns a slot without feeding a latency into the limit, for calls whose duration is not a round
+     * trip to the database, such as an export that also waits for the client to read every row. An
+     * {@code overloaded} call still backs the limit off.
+     */
+    public void releaseUnsampled(boolean overloaded) {
+        if (overloaded) {
+            release(0, true);
+        } else {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void recordRtt(long rttNanos) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_WEIGHT;
+        longRtt += (rttNanos - longRtt) * LONG_WEIGHT;
+        if (longRtt > shortRtt * tolerance) {
+            longRtt *= RECOVERY_DECAY;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.employeesytem.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-capacity queue that any number of threads offer to without locking and a single thread
+ * drains. Producers claim a slot by advancing the tail with a compare-and-set and then publish the
+ * element into it; the consumer takes elements in claim order, stopping at a slot that is claimed but
+ * not yet published. A full queue rejects the offer instead of blocking. Capacity is rounded up to
+ * a power of two.
+ * <p>
+ * Only one thread may call {@link #poll()} and {@link #drainTo}; {@link #size()} is an estimate.
+ */
+public class BoundedMpscQueue<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public BoundedMpscQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Queue capacity must be from 1 to 2^30, got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        this.slots = new AtomicReferenceArray<>(size == capacity ? size : size << 1);
+        this.mask = slots.length() - 1;
+    }
+
+    /**
+     * Adds {@code element} unless the queue is full; returns whether it did.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long limit = head.get() + slots.length();
+        while (true) {
+            long claimed = tail.get();
+            if (claimed >= limit) {
+                limit = head.get() + slots.length();
+                if (claimed >= limit) {
+                    return false;
+                }
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.lazySet((int) claimed & mask, element);
+                return true;
+            }
+        }
+    }
+
+    public E poll() {
+        long taken = head.get();
+        int index = (int) taken & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(taken + 1);
+        return element;
+    }
+
+    /**
+     * Moves up to {@code limit} elements into {@code target}, in the order they were offered, and
+     * returns how many it moved.
+     */
+    public int drainTo(Collection<? super E> target, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -1,6 +1,7 @@
 package org.employeesytem.util;
 
 import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeDelta;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
@@ -11,6 +12,8 @@ import java.math.RoundingMode;
 
 @Component
 public class CSVExporter {
+    private static final String HEADER = "ID,First Name,Last Name,Email,Department,Salary";
+    private static final String DELTA_HEADER = HEADER + ",Deleted";
 
     public byte[] writeEmployeesToCsv(List<Employee> employees) {
 
@@ -18,27 +21,86 @@ public class CSVExporter {
              PrintWriter writer = new PrintWriter(baos, true, StandardCharsets.UTF_8)) {
 
             // Write the CSV Header
-            writer.println("ID,First Name,Last Name,Email,Department,Salary");
+            writer.println(HEADER);
 
             // Write the Employee Data Rows
             for (Employee employee : employees) {
-                String salaryFormatted = employee.getSalary()
-                        .setScale(2, RoundingMode.HALF_UP)
-                        .toString();
-
-                String line = String.format("%d,\"%s\",\"%s\",\"%s\",\"%s\",%s",
-                        employee.getId(),
-                        employee.getFirstName(),
-                        employee.getLastName(),
-                        employee.getEmail(),
-                        employee.getDepartment(),
-                        salaryFormatted
-                );
-                writer.println(line);
+                writer.println(line(employee));
             }
             return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate CSV content.", e);
         }
     }
+
+    /**
+     * The export's columns plus a Deleted column: changed employees as full rows marked
+     * {@code false}, then deleted ids as rows with only the id, marked {@code true}.
+     */
+    public byte[] writeDeltaToCsv(EmployeeDelta delta) {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             PrintWriter writer = new PrintWriter(baos, true, StandardCharsets.UTF_8)) {
+            writer.println(DELTA_HEADER);
+            for (Employee employee : delta.changed()) {
+                writer.println(line(employee) + ",false");
+            }
+            for (Integer id : delta.deleted()) {
+                writer.println(id + ",,,,,,true");
+            }
+            return baos.toByteArray();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate CSV content.", e);
+        }
+    }
+
+    /**
+     * The header line, with its line separator, as {@link #writeDeltaToCsv} writes it.
+     */
+    public byte[] deltaHeader() {
+        return (DELTA_HEADER + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A changed employee's line, with its line separator, as {@link #writeDeltaToCsv} writes it.
+     */
+    public byte[] encodeChanged(Employee employee) {
+        return (line(employee) + ",false" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A deleted id's line, with its line separator, as {@link #writeDeltaToCsv} writes it.
+     */
+    public byte[] encodeDeleted(int id) {
+        return (id + ",,,,,,true" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The header line, with its line separator, as {@link #writeEmployeesToCsv} writes it.
+     */
+    public byte[] header() {
+        return (HEADER + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One employee's line, with its line separator, as {@link #writeEmployeesToCsv} writes it, so
+     * that rows encoded separately can be concatenated into the same file.
+     */
+    public byte[] encode(Employee employee) {
+        return (line(employee) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String line(Employee employee) {
+        String salaryFormatted = employee.getSalary()
+                .setScale(2, RoundingMode.HALF_UP)
+                .toString();
+
+        return String.format("%d,\"%s\",\"%s\",\"%s\",\"%s\",%s",
+                employee.getId(),
+                employee.getFirstName(),
+                employee.getLastName(),
+                employee.getEmail(),
+                employee.getDepartment(),
+                salaryFormatted
+        );
+    }
 }
\ No newline at end of file
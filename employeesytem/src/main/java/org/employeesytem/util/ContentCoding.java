@@ -0,0 +1,85 @@
+package org.employeesytem.util;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The HTTP content codings a response body can be sent with. {@code deflate} is the zlib format, as
+ * HTTP defines it, not raw deflate.
+ */
+public enum ContentCoding {
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    /**
+     * The coding named {@code name}, with {@code none} as another name for identity.
+     */
+    public static Optional<ContentCoding> forName(String name) {
+        String token = name.trim().toLowerCase(Locale.ROOT);
+        if ("none".equals(token)) {
+            return Optional.of(IDENTITY);
+        }
+        for (ContentCoding coding : values()) {
+            if (coding.token.equals(token)) {
+                return Optional.of(coding);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The compressed coding an {@code Accept-Encoding} header gives the highest quality, preferring
+     * gzip on a tie, or identity if it accepts neither.
+     */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String token = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            switch (token) {
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, quality);
+                case "deflate" -> deflate = Math.max(deflate, quality);
+                case "*" -> wildcard = quality;
+                default -> {
+                }
+            }
+        }
+        gzip = gzip < 0 ? wildcard : gzip;
+        deflate = deflate < 0 ? wildcard : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return IDENTITY;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException exception) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
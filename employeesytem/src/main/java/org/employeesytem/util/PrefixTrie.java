@@ -0,0 +1,222 @@
+package org.employeesytem.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A compressed (radix) trie from string keys to sets of {@code int} ids. Each edge carries a run of
+ * characters rather than a single one, children are kept in sorted parallel arrays, and the ids at
+ * a key are a sorted {@code int[]}, so a lookup is a handful of array probes and no boxing.
+ * <p>
+ * {@link #find(String, int)} walks the subtree under a prefix in key order, and ids within a key in
+ * ascending order, which makes the result order stable for a given content. Not thread-safe.
+ */
+public class PrefixTrie {
+    private static final int[] NO_IDS = new int[0];
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+    private int size;
+
+    public void add(String key, int id) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            int index = node.indexOf(key.charAt(position));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(position));
+                leaf.ids = new int[]{id};
+                node.insertChild(-index - 1, leaf);
+                size++;
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.edge, key, position);
+            if (common < child.edge.length()) {
+                Node split = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                split.insertChild(0, child);
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            position += common;
+        }
+        int slot = Arrays.binarySearch(node.ids, id);
+        if (slot < 0) {
+            node.ids = insert(node.ids, -slot - 1, id);
+            size++;
+        }
+    }
+
+    public boolean remove(String key, int id) {
+        Node[] path = new Node[key.length() + 1];
+        int depth = 0;
+        Node node = root;
+        path[depth] = node;
+        int position = 0;
+        while (position < key.length()) {
+            int index = node.indexOf(key.charAt(position));
+            if (index < 0) {
+                return false;
+            }
+            Node child = node.children[index];
+            if (!key.startsWith(child.edge, position)) {
+                return false;
+            }
+            node = child;
+            path[++depth] = node;
+            position += child.edge.length();
+        }
+        int slot = Arrays.binarySearch(node.ids, id);
+        if (slot < 0) {
+            return false;
+        }
+        node.ids = delete(node.ids, slot);
+        size--;
+        for (int level = depth; level > 0; level--) {
+            Node current = path[level];
+            Node parent = path[level - 1];
+            if (current.ids.length == 0 && current.children.length == 0) {
+                parent.removeChild(current.edge.charAt(0));
+            } else if (current.ids.length == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                only.edge = current.edge + only.edge;
+                parent.children[parent.indexOf(current.edge.charAt(0))] = only;
+                break;
+            } else {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Up to {@code limit} distinct ids stored under keys starting with {@code prefix}, in key order
+     * and then id order. An id stored under several matching keys is reported once, at its first key.
+     */
+    public List<Integer> find(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(position));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = node.children[index];
+            int remaining = prefix.length() - position;
+            if (remaining <= child.edge.length()) {
+                if (!child.edge.startsWith(prefix.substring(position))) {
+                    return List.of();
+                }
+                node = child;
+                break;
+            }
+            if (!prefix.startsWith(child.edge, position)) {
+                return List.of();
+            }
+            node = child;
+            position += child.edge.length();
+        }
+        Set<Integer> found = new LinkedHashSet<>();
+        collect(node, found, limit);
+        return List.copyOf(found);
+    }
+
+    /**
+     * The number of (key, id) pairs stored.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static boolean collect(Node node, Set<Integer> found, int limit) {
+        for (int id : node.ids) {
+            if (found.size() >= limit) {
+                return true;
+            }
+            found.add(id);
+        }
+        for (Node child : node.children) {
+            if (collect(child, found, limit)) {
+                return true;
+            }
+        }
+        return found.size() >= limit;
+    }
+
+    private static int commonPrefixLength(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && edge.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int[] insert(int[] values, int slot, int value) {
+        int[] grown = new int[values.length + 1];
+        System.arraycopy(values, 0, grown, 0, slot);
+        grown[slot] = value;
+        System.arraycopy(values, slot, grown, slot + 1, values.length - slot);
+        return grown;
+    }
+
+    private static int[] delete(int[] values, int slot) {
+        if (values.length == 1) {
+            return NO_IDS;
+        }
+        int[] shrunk = new int[values.length - 1];
+        System.arraycopy(values, 0, shrunk, 0, slot);
+        System.arraycopy(values, slot + 1, shrunk, slot, values.length - slot - 1);
+        return shrunk;
+    }
+
+    private static final class Node {
+        private String edge;
+        private int[] ids = NO_IDS;
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+
+        private Node(String edge) {
+            this.edge = edge;
+        }
+
+        private int indexOf(char label) {
+            return Arrays.binarySearch(labels, label);
+        }
+
+        private void insertChild(int slot, Node child) {
+            char[] grownLabels = new char[labels.length + 1];
+            Node[] grownChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, grownLabels, 0, slot);
+            System.arraycopy(children, 0, grownChildren, 0, slot);
+            grownLabels[slot] = child.edge.charAt(0);
+            grownChildren[slot] = child;
+            System.arraycopy(labels, slot, grownLabels, slot + 1, labels.length - slot);
+            System.arraycopy(children, slot, grownChildren, slot + 1, children.length - slot);
+            labels = grownLabels;
+            children = grownChildren;
+        }
+
+        private void removeChild(char label) {
+            int slot = indexOf(label);
+            if (children.length == 1) {
+                labels = NO_LABELS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] shrunkLabels = new char[labels.length - 1];
+            Node[] shrunkChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, shrunkLabels, 0, slot);
+            System.arraycopy(children, 0, shrunkChildren, 0, slot);
+            System.arraycopy(labels, slot + 1, shrunkLabels, slot, labels.length - slot - 1);
+            System.arraycopy(children, slot + 1, shrunkChildren, slot, children.length - slot - 1);
+            labels = shrunkLabels;
+            children = shrunkChildren;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.employeesytem.util;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the loader and every
+ * caller that arrives while it is in flight shares its result. {@link #invalidate()} starts a new
+ * generation so callers arriving after a write never join a load that began before it.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<Flight<K>, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter coalesced;
+
+    public SingleFlight(Counter coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        Flight<K> flight = new Flight<>(key, generation.get());
+        CompletableFuture<V> leader = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(flight, leader);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            V value = loader.get();
+            leader.complete(value);
+            return value;
+        } catch (RuntimeException | Error exception) {
+            leader.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(flight, leader);
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private record Flight<K>(K key, long generation) {
+    }
+}
@@ -0,0 +1,206 @@
+package org.employeesytem.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a body into an output stream as it is written, so that a large response is never held
+ * whole on the heap, compressed or not. Deflaters and their output buffers are pooled per coding,
+ * since a deflater's native state is costly to set up and must be ended explicitly; up to
+ * {@code employee.export.compression.pool-size} idle ones are kept per coding.
+ * <p>
+ * Compressed bytes reach the target stream only when a buffer of
+ * {@code employee.export.compression.buffer-size} fills and when the body is finished, so a body that
+ * fails early has written nothing to it. Bytes in and out are counted per coding as
+ * {@code employee.export.compression.input} and {@code .output}.
+ */
+@Component
+public class StreamCompressor implements DisposableBean {
+    private static final int GZIP_TRAILER_BYTES = 8;
+    private static final byte[] GZIP_HEADER = {
+            (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private final int level;
+    private final int bufferSize;
+    private final Map<ContentCoding, ArrayBlockingQueue<Encoder>> pools = new EnumMap<>(ContentCoding.class);
+    private final Map<ContentCoding, Counter> input = new EnumMap<>(ContentCoding.class);
+    private final Map<ContentCoding, Counter> output = new EnumMap<>(ContentCoding.class);
+
+    public StreamCompressor(MeterRegistry meterRegistry,
+                            @Value("${employee.export.compression.level:6}") int level,
+                            @Value("${employee.export.compression.buffer-size:64KB}") DataSize bufferSize,
+                            @Value("${employee.export.compression.pool-size:4}") int poolSize) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be from -1 to 9, got " + level);
+        }
+        if (bufferSize.toBytes() < GZIP_HEADER.length + GZIP_TRAILER_BYTES || bufferSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Compression buffer size is out of range: " + bufferSize);
+        }
+        this.level = level;
+        this.bufferSize = (int) bufferSize.toBytes();
+        for (ContentCoding coding : new ContentCoding[]{ContentCoding.GZIP, ContentCoding.DEFLATE}) {
+            pools.put(coding, new ArrayBlockingQueue<>(Math.max(1, poolSize)));
+            input.put(coding, bytes(meterRegistry, "employee.export.compression.input",
+                    "Bytes handed to the compressor", coding));
+            output.put(coding, bytes(meterRegistry, "employee.export.compression.output",
+                    "Compressed bytes written", coding));
+        }
+    }
+
+    /**
+     * Writes {@code body} to {@code out} in {@code coding}, finishing the compressed stream once the
+     * body returns. Does not close {@code out}. If the body throws, the rest of the compressed stream
+     * is not written.
+     */
+    public void compress(ContentCoding coding, OutputStream out, Body body) throws IOException {
+        if (coding == ContentCoding.IDENTITY) {
+            body.writeTo(out);
+            return;
+        }
+        Encoder encoder = acquire(coding);
+        try {
+            CompressingStream stream = new CompressingStream(encoder, out);
+            body.writeTo(stream);
+            stream.finish();
+            input.get(coding).increment(encoder.deflater.getBytesRead());
+            output.get(coding).increment(stream.written);
+        } finally {
+            release(coding, encoder);
+        }
+    }
+
+    private Encoder acquire(ContentCoding coding) {
+        Encoder encoder = pools.get(coding).poll();
+        return encoder != null ? encoder : new Encoder(coding, level, bufferSize);
+    }
+
+    private void release(ContentCoding coding, Encoder encoder) {
+        encoder.reset();
+        if (!pools.get(coding).offer(encoder)) {
+            encoder.deflater.end();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(pool -> pool.forEach(encoder -> encoder.deflater.end()));
+    }
+
+    private static Counter bytes(MeterRegistry meterRegistry, String name, String description, ContentCoding coding) {
+        return Counter.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag("coding", coding.token())
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static final class Encoder {
+        private final boolean gzip;
+        private final Deflater deflater;
+        private final byte[] buffer;
+        private final CRC32 crc = new CRC32();
+
+        private Encoder(ContentCoding coding, int level, int bufferSize) {
+            this.gzip = coding == ContentCoding.GZIP;
+            this.deflater = new Deflater(level, gzip);
+            this.buffer = new byte[bufferSize];
+        }
+
+        private void reset() {
+            deflater.reset();
+            crc.reset();
+        }
+    }
+
+    /**
+     * Deflates into the encoder's buffer and hands the buffer to the target whenever it fills. Closing
+     * it does nothing; {@link StreamCompressor#compress} finishes it.
+     */
+    private static final class CompressingStream extends OutputStream {
+        private final Encoder encoder;
+        private final OutputStream out;
+        private int position;
+        private long written;
+
+        private CompressingStream(Encoder encoder, OutputStream out) {
+            this.encoder = encoder;
+            this.out = out;
+            if (encoder.gzip) {
+                System.arraycopy(GZIP_HEADER, 0, encoder.buffer, 0, GZIP_HEADER.length);
+                position = GZIP_HEADER.length;
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            if (encoder.gzip) {
+                encoder.crc.update(bytes, offset, length);
+            }
+            encoder.deflater.setInput(bytes, offset, length);
+            while (!encoder.deflater.needsInput()) {
+                deflate();
+            }
+        }
+
+        private void finish() throws IOException {
+            encoder.deflater.finish();
+            while (!encoder.deflater.finished()) {
+                deflate();
+            }
+            if (encoder.gzip) {
+                if (encoder.buffer.length - position < GZIP_TRAILER_BYTES) {
+                    drain();
+                }
+                writeIntLittleEndian((int) encoder.crc.getValue());
+                writeIntLittleEndian((int) encoder.deflater.getBytesRead());
+            }
+            drain();
+            out.flush();
+        }
+
+        private void deflate() throws IOException {
+            position += encoder.deflater.deflate(encoder.buffer, position, encoder.buffer.length - position);
+            if (position == encoder.buffer.length) {
+                drain();
+            }
+        }
+
+        private void writeIntLittleEndian(int value) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                encoder.buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void drain() throws IOException {
+            out.write(encoder.buffer, 0, position);
+            written += position;
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.employeesytem.util;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A least-recently-used cache bounded by the estimated weight of its values rather than their
+ * count. Every entry is tagged with the data version current when its load started, and
+ * {@link #invalidate()} moves the version on, so all entries become unreadable in O(1) without being
+ * visited. Outdated entries are dropped when they are next looked up or when they reach the cold
+ * end of the LRU order. An entry older than the maximum age is not served either, which bounds how
+ * long a value can be outdated by a change the cache was not told about.
+ * <p>
+ * A value whose load overlapped an invalidation is returned to its caller but not stored, and a
+ * value heavier than the whole budget is never stored.
+ */
+public class VersionedCache<K, V> {
+    private final long maxWeight;
+    private final long maxAgeNanos;
+    private final ToLongFunction<V> weigher;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private final AtomicLong version = new AtomicLong();
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    public VersionedCache(long maxWeight, Duration maxAge, ToLongFunction<V> weigher,
+                          Counter hits, Counter misses, Counter evictions) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight must not be negative");
+        }
+        this.maxWeight = maxWeight;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.weigher = weigher;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        long loadVersion = version.get();
+        long loadedAt = System.nanoTime();
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version() == loadVersion && loadedAt - entry.loadedAt() < maxAgeNanos) {
+                    hits.increment();
+                    return entry.value();
+                }
+                remove(key, entry);
+            }
+        }
+        misses.increment();
+        V value = loader.get();
+        put(key, value, loadVersion, loadedAt);
+        return value;
+    }
+
+    /**
+     * Makes every cached value unreadable. Call it after each write the cached values depend on.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    private synchronized void put(K key, V value, long loadVersion, long loadedAt) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (loadVersion != version.get() || valueWeight > maxWeight) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, loadVersion, loadedAt, valueWeight));
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += valueWeight;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            Map.Entry<K, Entry<V>> victim = eldest.next();
+            weight -= victim.getValue().weight();
+            eldest.remove();
+            if (victim.getValue().version() == loadVersion) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        weight -= entry.weight();
+    }
+
+    private record Entry<V>(V value, long version, long loadedAt, long weight) {
+    }
+}
@@ -0,0 +1,45 @@
+CREATE TABLE IF NOT EXISTS employee (
+    id INT NOT NULL PRIMARY KEY,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    department VARCHAR(20) NOT NULL,
+    salary DECIMAL(12, 2) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    last_modified TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    CONSTRAINT uk_employee_email UNIQUE (email),
+    INDEX idx_employee_last_modified (last_modified)
+);
+
+CREATE TABLE IF NOT EXISTS employee_id_sequence (
+    name VARCHAR(50) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS employee_email (
+    employee_id INT NOT NULL PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_employee_email_owner UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS employee_change_log (
+    seq BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    employee_id INT NULL,
+    version BIGINT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    changed_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_employee_change_log_changed_at (changed_at)
+);
+
+CREATE TABLE IF NOT EXISTS employee_audit (
+    seq BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    event_id CHAR(36) NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    employee_id INT NOT NULL,
+    before_image TEXT NULL,
+    after_image TEXT NULL,
+    occurred_at TIMESTAMP(6) NOT NULL,
+    recorded_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    CONSTRAINT uk_employee_audit_event UNIQUE (event_id),
+    INDEX idx_employee_audit_employee (employee_id)
+);
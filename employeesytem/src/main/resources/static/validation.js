@@ -81,6 +81,12 @@ async function handleBackendValidationErrors(res) {
             displayError(field, errors[field]);
         }
         return true; // Indicates validation error was handled
+    } else if (res.status === 412) {
+        // Someone else saved this employee after it was loaded
+        const errorMsg = await res.text();
+        document.getElementById("generalError").textContent =
+            "Error: " + errorMsg + ". Reload the employee and apply your changes again.";
+        return true;
     } else if (res.status === 409 || res.status === 404) {
         // Handle Conflict (409) or Not Found (404) errors
         const errorMsg = await res.text();
@@ -0,0 +1,65 @@
+package org.employeesytem.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SchemaUpgradeTest {
+
+    @Test
+    void shouldAddTheVersionColumnToAnEmployeeTableCreatedBeforeItOnce() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE employee (id INT PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+        jdbc.update("INSERT INTO employee (id, name) VALUES (1, 'Ada')");
+
+        SchemaUpgrade.apply(dataSource);
+        SchemaUpgrade.apply(dataSource);
+
+        assertEquals(0L, jdbc.queryForObject("SELECT version FROM employee WHERE id = 1", Long.class));
+    }
+
+    @Test
+    void shouldBringTheDeltaExportColumnsAndIndexesToTablesCreatedBeforeThem() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE employee (id INT PRIMARY KEY, version BIGINT NOT NULL DEFAULT 0)");
+        jdbc.execute("CREATE TABLE employee_change_log (seq BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "employee_id INT NULL, version BIGINT NULL, "
+                + "changed_at TIMESTAMP(0) NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        jdbc.update("INSERT INTO employee (id) VALUES (1)");
+        jdbc.update("INSERT INTO employee_change_log (employee_id, version) VALUES (1, 0)");
+
+        SchemaUpgrade.apply(dataSource);
+        SchemaUpgrade.apply(dataSource);
+
+        jdbc.update("INSERT INTO employee_change_log (employee_id, version, changed_at) "
+                + "VALUES (1, 1, TIMESTAMP '2026-01-01 00:00:00.123456')");
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM employee WHERE last_modified IS NOT NULL", Integer.class));
+        assertEquals(List.of(false, false), jdbc.queryForList("SELECT deleted FROM employee_change_log", Boolean.class));
+        assertEquals(123456000, jdbc.queryForObject(
+                "SELECT changed_at FROM employee_change_log WHERE version = 1", Timestamp.class).getNanos());
+        assertEquals(List.of("idx_employee_change_log_changed_at", "idx_employee_last_modified"), jdbc.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE index_name LIKE 'idx_%' ORDER BY index_name",
+                String.class));
+    }
+
+    @Test
+    void shouldLeaveADatabaseWithoutTheTablesAlone() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        SchemaUpgrade.apply(dataSource);
+
+        assertEquals(0, new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'employee'", Integer.class));
+    }
+}
@@ -0,0 +1,35 @@
+package org.employeesytem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.service.EmployeeBulkheads;
+import org.employeesytem.service.WorkloadClass;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WorkloadRoutingDataSourceTest {
+
+    @Test
+    void shouldRouteBulkheadThreadsToTheirPoolAndEverythingElseToTheBackgroundPool() {
+        Map<WorkloadClass, HikariDataSource> pools = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            pools.put(workload, new HikariDataSource());
+        }
+        HikariDataSource background = new HikariDataSource();
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(pools, background);
+        EmployeeBulkheads bulkheads = new EmployeeBulkheads(new StandardEnvironment(), new SimpleMeterRegistry(), 1);
+
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            Object key = bulkheads.execute(workload, routing::determineCurrentLookupKey);
+            assertSame(pools.get(workload), routing.getResolvedDataSources().get(key));
+        }
+        assertNull(routing.determineCurrentLookupKey());
+        assertSame(background, routing.getResolvedDefaultDataSource());
+    }
+}
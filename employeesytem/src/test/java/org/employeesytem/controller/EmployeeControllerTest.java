@@ -2,10 +2,24 @@ package org.employeesytem.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeLookup;
+import org.employeesytem.dto.EmployeePatch;
+import org.employeesytem.dto.EmployeeSuggestion;
+import org.employeesytem.exceptions.ChangeHistoryUnavailableException;
 import org.employeesytem.exceptions.DuplicateEmployeeException;
 import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.exceptions.EmployeeVersionConflictException;
+import org.employeesytem.service.EmployeeChangeStream;
+import org.employeesytem.service.EmployeeDeltaExporter;
+import org.employeesytem.service.EmployeeParallelExporter;
 import org.employeesytem.service.EmployeeService;
+import org.employeesytem.service.EmployeeSuggestionIndex;
 import org.employeesytem.util.CSVExporter;
+import org.employeesytem.util.ContentCoding;
+import org.employeesytem.util.StreamCompressor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -13,16 +27,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -32,20 +56,25 @@ import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.allOf;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -62,6 +91,19 @@ public class EmployeeControllerTest {
     private EmployeeService employeeService;
     @MockBean
     private CSVExporter exporter;
+    @MockBean
+    private EmployeeChangeStream changeStream;
+    @MockBean
+    private EmployeeSuggestionIndex suggestionIndex;
+    @MockBean
+    private EmployeeParallelExporter parallelExporter;
+    @MockBean
+    private StreamCompressor streamCompressor;
+    @MockBean
+    private EmployeeDeltaExporter deltaExporter;
+
+    private final StreamCompressor realCompressor = new StreamCompressor(new SimpleMeterRegistry(), 6,
+            DataSize.ofKilobytes(64), 1);
 
     private Employee employee;
     private Sort sort;
@@ -200,6 +242,91 @@ public class EmployeeControllerTest {
                 .andExpect(content().json(expectedResult));
     }
 
+    @Test
+    public void shouldReturnETagWhenEmployeeHasVersion() throws Exception {
+        employee.setVersion(3L);
+        when(employeeService.findByEmployeeId(101)).thenReturn(employee);
+
+        mockMvc.perform(get("/api/v1/employees/101")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    public void shouldPassIfMatchVersionToServiceWhenUpdating() throws Exception {
+        Employee expectedEmployee = new Employee(1, "Alice", "A", "abc.new@gmail.com", "IT", BigDecimal.valueOf(50000));
+        String expectedResult = objectMapper.writeValueAsString(expectedEmployee);
+        when(employeeService.updateEmployee(eq(1), any(Employee.class))).thenAnswer(invocation -> {
+            Employee updated = invocation.getArgument(1);
+            assertThat(updated.getVersion()).isEqualTo(3L);
+            updated.setVersion(updated.getVersion() + 1);
+            return updated;
+        });
+
+        mockMvc.perform(put("/api/v1/employees/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(expectedResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void shouldReturnPreconditionFailedWhenVersionConflicts() throws Exception {
+        Employee expectedEmployee = new Employee(1, "Alice", "A", "abc.new@gmail.com", "IT", BigDecimal.valueOf(50000));
+        String expectedResult = objectMapper.writeValueAsString(expectedEmployee);
+
+        when(employeeService.updateEmployee(eq(1), any(Employee.class)))
+                .thenThrow(new EmployeeVersionConflictException("Employee with id 1 has been modified since version 3"));
+
+        mockMvc.perform(put("/api/v1/employees/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(expectedResult))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string("Employee with id 1 has been modified since version 3"));
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenIfMatchIsNotAVersion() throws Exception {
+        mockMvc.perform(patch("/api/v1/employees/1")
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"salary\": 65000}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("If-Match must carry an employee version, got \"abc\"."));
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    public void shouldPatchEmployeeAndReturnNewETag() throws Exception {
+        when(employeeService.patchEmployee(eq(1), any(EmployeePatch.class), eq(3L))).thenReturn(4L);
+
+        mockMvc.perform(patch("/api/v1/employees/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"salary\": 65000}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        ArgumentCaptor<EmployeePatch> patchCaptor = ArgumentCaptor.forClass(EmployeePatch.class);
+        verify(employeeService).patchEmployee(eq(1), patchCaptor.capture(), eq(3L));
+        assertThat(patchCaptor.getValue().getChanges()).containsOnlyKeys("salary");
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenPatchedFieldIsInvalid() throws Exception {
+        mockMvc.perform(patch("/api/v1/employees/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"email\": \"bademail\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.email").value("Invalid email format."))
+                .andExpect(jsonPath("$.firstName").doesNotExist());
+    }
+
     @Test
     public void shouldThrowEmployeeNotFoundWhenIdNotExistsForUpdate() throws Exception {
         Employee expectedEmployee = new Employee(1, "Alice", "A", "abc.new@gmail.com", "IT", BigDecimal.valueOf(50000));
@@ -236,6 +363,97 @@ public class EmployeeControllerTest {
                 .andExpect(content().string("Employee with ID 101 not found"));
     }
 
+    @Test
+    public void shouldReturnDeletedCountWhenDeletingByIds() throws Exception {
+        when(employeeService.deleteEmployees(eq(List.of(1, 2, 3)), isNull(), isNull())).thenReturn(3);
+
+        mockMvc.perform(delete("/api/v1/employees")
+                        .param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("3"));
+    }
+
+    @Test
+    void shouldDeleteEmployeesPostedAsAJsonArray() throws Exception {
+        when(employeeService.deleteEmployees(eq(List.of(1, 2, 3)), isNull(), isNull())).thenReturn(2);
+
+        mockMvc.perform(post("/api/v1/employees/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2, 3]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("2"));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenMoreIdsThanTheLimitAreDeleted() throws Exception {
+        String ids = objectMapper.writeValueAsString(IntStream.rangeClosed(1, 1_001).boxed().toList());
+
+        mockMvc.perform(post("/api/v1/employees/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ids))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("At most 1000 ids can be deleted at once.")));
+        mockMvc.perform(delete("/api/v1/employees")
+                        .param("ids", IntStream.rangeClosed(1, 1_001).mapToObj(String::valueOf).toArray(String[]::new)))
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).deleteEmployees(any(), any(), any());
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenBulkDeleteHasNoSelection() throws Exception {
+        when(employeeService.deleteEmployees(isNull(), isNull(), isNull()))
+                .thenThrow(new InvalidRequestException("Specify either ids or name/department criteria to delete."));
+
+        mockMvc.perform(delete("/api/v1/employees"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Specify either ids or name/department criteria to delete."));
+    }
+
+    @Test
+    public void shouldReturnServiceUnavailableWithRetryAfterWhenOverloaded() throws Exception {
+        when(employeeService.findByEmployeeId(1))
+                .thenThrow(new ServiceOverloadedException("Service is overloaded, retry later", 1));
+
+        mockMvc.perform(get("/api/v1/employees/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().string("Service is overloaded, retry later"));
+    }
+
+    @Test
+    public void shouldOpenChangeStreamResumingFromLastEventId() throws Exception {
+        when(changeStream.subscribe("abc-7")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/employees/changes")
+                        .header("Last-Event-ID", "abc-7")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(changeStream).subscribe("abc-7");
+    }
+
+    @Test
+    public void shouldReturnSuggestionsForPrefix() throws Exception {
+        when(suggestionIndex.suggest("yo", 10)).thenReturn(List.of(new EmployeeSuggestion(101, "Yousuf", "Shaik")));
+
+        mockMvc.perform(get("/api/v1/employees/suggest")
+                        .param("prefix", "yo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(101))
+                .andExpect(jsonPath("$[0].firstName").value("Yousuf"))
+                .andExpect(jsonPath("$[0].lastName").value("Shaik"));
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenSuggestionLimitIsTooLarge() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/suggest")
+                        .param("prefix", "yo")
+                        .param("limit", "51"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Suggestion limit must not exceed 50.")));
+    }
+
     @Test
     public void shouldReturnZeroCount() throws Exception {
         when(employeeService.getEmployeeCount()).thenReturn(0L);
@@ -349,6 +567,67 @@ public class EmployeeControllerTest {
                 .andExpect(content().string(containsString("Page size must be at least 1.")));
     }
 
+    @Test
+    void shouldReturnBadRequestWhenSizeExceedsTheMaximum() throws Exception {
+        mockMvc.perform(get("/api/v1/employees")
+                        .param("page", "0")
+                        .param("size", "100000")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Page size must not exceed 1000.")));
+        verify(employeeService, never()).findAllEmployees(any(), any(), any());
+    }
+
+    @Test
+    void shouldStreamEmployeesAsJsonLinesWhenNdjsonIsAccepted() throws Exception {
+        Employee employee2 = new Employee(102, "Laddu", "B", "bca@gmail.com", "IT", BigDecimal.valueOf(100000));
+        doAnswer(invocation -> {
+            Consumer<Employee> rows = invocation.getArgument(3);
+            rows.accept(employee);
+            rows.accept(employee2);
+            return 2;
+        }).when(employeeService).exportEmployees(eq("Yousuf"), eq("IT"), eq(sort), any());
+
+        String body = mockMvc.perform(get("/api/v1/employees")
+                        .param("name", "Yousuf")
+                        .param("department", "IT")
+                        .param("sort", "firstName,asc")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n", -1);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).isEmpty();
+        assertThat(objectMapper.readValue(lines[0], Employee.class)).isEqualTo(employee);
+        assertThat(objectMapper.readValue(lines[1], Employee.class)).isEqualTo(employee2);
+        verify(employeeService, never()).findAllEmployees(any(), any(), any());
+    }
+
+    @Test
+    void shouldStillPageAsJsonWhenNdjsonIsNotAsked() throws Exception {
+        when(employeeService.findAllEmployees(any(Pageable.class), isNull(), isNull()))
+                .thenReturn(new PageImpl<>(List.of(employee)));
+
+        mockMvc.perform(get("/api/v1/employees"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].id").value(101));
+        verify(employeeService, never()).exportEmployees(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldReportAnOverloadedNdjsonStreamAsUsual() throws Exception {
+        when(employeeService.exportEmployees(any(), any(), any(), any()))
+                .thenThrow(new ServiceOverloadedException("Service is overloaded, retry later", 1));
+
+        mockMvc.perform(get("/api/v1/employees")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().string("Service is overloaded, retry later"));
+    }
+
     @Test
     void shouldReturnBadRequestWhenDeleteIdIsZero() throws Exception {
         mockMvc.perform(delete("/api/v1/employees/0")
@@ -430,6 +709,76 @@ public class EmployeeControllerTest {
         verify(employeeService, times(1)).findAllEmployees(any(Pageable.class), isNull(), eq("IT"));
     }
 
+    @Test
+    void shouldLookUpEmployeesInRequestOrderWhenIdsArePassed() throws Exception {
+        Employee other = new Employee(102, "Laddu", "B", "bca@gmail.com", "IT", BigDecimal.valueOf(100000));
+        when(employeeService.lookupEmployees(List.of(102, 7, 101)))
+                .thenReturn(new EmployeeLookup(List.of(other, employee), List.of(7)));
+
+        mockMvc.perform(get("/api/v1/employees").param("ids", "102,7,101"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees[0].id").value(102))
+                .andExpect(jsonPath("$.employees[1].id").value(101))
+                .andExpect(jsonPath("$.missing[0]").value(7));
+        verify(employeeService, never()).findAllEmployees(any(), any(), any());
+    }
+
+    @Test
+    void shouldLookUpEmployeesPostedAsAJsonArray() throws Exception {
+        when(employeeService.lookupEmployees(List.of(101, 9)))
+                .thenReturn(new EmployeeLookup(List.of(employee), List.of(9)));
+
+        mockMvc.perform(post("/api/v1/employees/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[101, 9]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees[0].email").value("yousuf@gmail.com"))
+                .andExpect(jsonPath("$.missing[0]").value(9));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenMoreIdsThanTheLimitAreLookedUp() throws Exception {
+        String ids = objectMapper.writeValueAsString(IntStream.rangeClosed(1, 1_001).boxed().toList());
+
+        mockMvc.perform(post("/api/v1/employees/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ids))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("At most 1000 ids can be looked up at once.")));
+        verify(employeeService, never()).lookupEmployees(any());
+    }
+
+    @Test
+    void shouldServeASalaryRangeFromTheSalarySnapshotWhenMinOrMaxSalaryIsPassed() throws Exception {
+        when(employeeService.findBySalaryRange(any(Pageable.class), eq("IT"), eq(new BigDecimal("100000")), isNull()))
+                .thenReturn(new PageImpl<>(List.of(employee)));
+
+        mockMvc.perform(get("/api/v1/employees")
+                        .param("department", "IT")
+                        .param("minSalary", "100000")
+                        .param("sort", "salary,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(101))
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+        verify(employeeService).findBySalaryRange(eq(PageRequest.of(0, 5, Sort.by("salary").descending())), eq("IT"),
+                eq(new BigDecimal("100000")), isNull());
+        verify(employeeService, never()).findAllEmployees(any(), any(), any());
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenASalaryRangeIsInvalidOrCombinedWithName() throws Exception {
+        mockMvc.perform(get("/api/v1/employees").param("minSalary", "5000").param("maxSalary", "4000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("minSalary must not exceed maxSalary.")));
+        mockMvc.perform(get("/api/v1/employees").param("maxSalary", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("maxSalary cannot be negative.")));
+        mockMvc.perform(get("/api/v1/employees").param("name", "Yousuf").param("maxSalary", "4000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("minSalary and maxSalary cannot be combined with name.")));
+        verify(employeeService, never()).findBySalaryRange(any(), any(), any(), any());
+    }
+
     @Test
     void shouldReturnBadRequestForInvalidDepartmentParam() throws Exception {
         mockMvc.perform(get("/api/v1/employees")
@@ -445,13 +794,9 @@ public class EmployeeControllerTest {
     @Test
     void shouldExportAllEmployeesToCSVSortByParameterIsPassed() throws Exception {
         Employee employee2 = new Employee(102, "Laddu", "B", "bca@gmail.com", "HR", BigDecimal.valueOf(100000.50));
-        List<Employee> mockEmployees = List.of(employee, employee2);
-        String csvContent = "ID,First Name,Last Name,Email,Department,Salary\n" +
-                "101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",123456.00\n" +
-                "102,\"Laddu\",\"B\",\"bca@gmail.com\",\"HR\",100000.50\n";
-        byte[] mockCsvBytes = csvContent.getBytes(StandardCharsets.UTF_8);
-        when(employeeService.findAllEmployeesForExport(null, null, sort)).thenReturn(mockEmployees);
-        when(exporter.writeEmployeesToCsv(anyList())).thenReturn(mockCsvBytes);
+        stubCompression();
+        stubCsvEncoding();
+        exportsEmployees(null, null, employee, employee2);
 
         mockMvc.perform(get("/api/v1/employees/export")
                         .param("sort", "firstName,asc")
@@ -467,8 +812,9 @@ public class EmployeeControllerTest {
                 .andExpect(content().string(not(emptyOrNullString())))
                 .andExpect(content().string(containsString("ID,First Name,Last Name,Email,Department,Salary")))
                 .andExpect(content().string(containsString("101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",123456.00")))
-                .andExpect(content().string(containsString("102,\"Laddu\",\"B\",\"bca@gmail.com\",\"HR\",100000.50")));
-        verify(employeeService, times(1)).findAllEmployeesForExport(null, null, sort);
+                .andExpect(content().string(containsString("102,\"Laddu\",\"B\",\"bca@gmail.com\",\"HR\",100000.50")))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH));
+        verify(employeeService, never()).findAllEmployeesForExport(any(), any(), any());
     }
 
     @Test
@@ -476,13 +822,9 @@ public class EmployeeControllerTest {
         String department = "IT";
         String name = "Yousuf";
         Employee employee2 = new Employee(102, "Laddu", name, "bca@gmail.com", department, BigDecimal.valueOf(100000.50));
-        List<Employee> mockEmployees = List.of(employee, employee2);
-        String csvContent = "ID,First Name,Last Name,Email,Department,Salary\n" +
-                "101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",123456.00\n" +
-                "102,\"Laddu\",\"Yousuf\",\"bca@gmail.com\",\"IT\",100000.50\n";
-        byte[] mockCsvBytes = csvContent.getBytes(StandardCharsets.UTF_8);
-        when(employeeService.findAllEmployeesForExport(name, department, sort)).thenReturn(mockEmployees);
-        when(exporter.writeEmployeesToCsv(anyList())).thenReturn(mockCsvBytes);
+        stubCompression();
+        stubCsvEncoding();
+        exportsEmployees(name, department, employee, employee2);
 
         mockMvc.perform(get("/api/v1/employees/export")
                         .param("name", name)
@@ -501,6 +843,181 @@ public class EmployeeControllerTest {
                 .andExpect(content().string(containsString("ID,First Name,Last Name,Email,Department,Salary")))
                 .andExpect(content().string(containsString("101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",123456.00")))
                 .andExpect(content().string(containsString("102,\"Laddu\",\"Yousuf\",\"bca@gmail.com\",\"IT\",100000.50")));
-        verify(employeeService, times(1)).findAllEmployeesForExport(name, department, sort);
+        verify(employeeService, times(1)).exportEmployees(eq(name), eq(department), eq(sort), any());
+    }
+
+    @Test
+    void shouldUseTheParallelExporterWhenParallelIsRequested() throws Exception {
+        stubCompression();
+        byte[] csv = "ID,First Name,Last Name,Email,Department,Salary\n".getBytes(StandardCharsets.UTF_8);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write(csv);
+            return 0;
+        }).when(parallelExporter).exportToCsv(eq("Yousuf"), isNull(), eq(sort), any());
+
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("name", "Yousuf")
+                        .param("parallel", "true")
+                        .param("sort", "firstName,asc"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(csv));
+        verify(employeeService, never()).findAllEmployeesForExport(any(), any(), any());
+    }
+
+    @Test
+    void shouldStreamAGzipExportWhenTheClientAcceptsIt() throws Exception {
+        stubCompression();
+        when(exporter.header()).thenReturn("ID,First Name,Last Name,Email,Department,Salary\n".getBytes(StandardCharsets.UTF_8));
+        when(exporter.encode(employee)).thenReturn("101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",123456.00\n"
+                .getBytes(StandardCharsets.UTF_8));
+        doAnswer(invocation -> {
+            Consumer<Employee> rows = invocation.getArgument(3);
+            rows.accept(employee);
+            return 1;
+        }).when(employeeService).exportEmployees(isNull(), eq("IT"), eq(sort), any());
+
+        byte[] body = mockMvc.perform(get("/api/v1/employees/export")
+                        .param("department", "IT")
+                        .param("sort", "firstName,asc")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo("ID,First Name,Last Name,Email,Department,Salary\n"
+                        + "101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",123456.00\n");
+        verify(employeeService, never()).findAllEmployeesForExport(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotCompressWhenCompressIsNoneWhateverTheClientAccepts() throws Exception {
+        stubCompression();
+        byte[] csv = "ID,First Name,Last Name,Email,Department,Salary\n".getBytes(StandardCharsets.UTF_8);
+        when(exporter.header()).thenReturn(csv);
+
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("compress", "none")
+                        .param("sort", "firstName,asc")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(csv));
+    }
+
+    @Test
+    void shouldReportAnOverloadedCompressedExportWithoutItsEncoding() throws Exception {
+        stubCompression();
+        when(exporter.header()).thenReturn("ID\n".getBytes(StandardCharsets.UTF_8));
+        when(employeeService.exportEmployees(any(), any(), any(), any()))
+                .thenThrow(new ServiceOverloadedException("Service is overloaded, retry later", 1));
+
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("compress", "deflate"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string("Service is overloaded, retry later"));
+    }
+
+    @Test
+    void shouldRejectAnUnknownCompression() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("compress", "br"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("compress must be one of: gzip, deflate, none."));
+    }
+
+    @Test
+    void shouldExportOnlyTheChangesSinceAWatermark() throws Exception {
+        LocalDateTime since = LocalDateTime.parse("2026-10-19T09:15:00.123456");
+        LocalDateTime next = LocalDateTime.parse("2026-10-19T09:30:00");
+        stubCompression();
+        stubCsvEncoding();
+        doAnswer(invocation -> {
+            invocation.<Consumer<LocalDateTime>>getArgument(1).accept(next);
+            invocation.<Consumer<Employee>>getArgument(2).accept(employee);
+            invocation.<IntConsumer>getArgument(3).accept(102);
+            return null;
+        }).when(deltaExporter).exportChangesSince(eq(since), any(), any(), any());
+
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("since", "2026-10-19T09:15:00.123456"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EmployeeController.NEXT_WATERMARK, "2026-10-19T09:30"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("employees_delta_")))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH))
+                .andExpect(content().string(String.join(System.lineSeparator(),
+                        "ID,First Name,Last Name,Email,Department,Salary,Deleted",
+                        "101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",123456.00,false",
+                        "102,,,,,,true", "")));
+
+        verify(employeeService, never()).findAllEmployeesForExport(any(), any(), any());
+    }
+
+    @Test
+    void shouldHandOutAWatermarkWithAFullExport() throws Exception {
+        stubCompression();
+        stubCsvEncoding();
+        when(deltaExporter.currentWatermark()).thenReturn(LocalDateTime.parse("2026-10-19T09:30:00.5"));
+
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("sort", "firstName,asc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EmployeeController.NEXT_WATERMARK, "2026-10-19T09:30:00.500"));
+    }
+
+    @Test
+    void shouldRejectAWatermarkItDidNotHandOut() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("since", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("since must be a watermark returned in X-Next-Watermark."));
+
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("since", "2026-10-19T09:15:00")
+                        .param("name", "Yousuf"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("since cannot be combined with name, department or parallel."));
+    }
+
+    @Test
+    void shouldReturnGoneWhenTheChangesSinceTheWatermarkAreNoLongerKnown() throws Exception {
+        stubCompression();
+        doThrow(new ChangeHistoryUnavailableException("Run a full export."))
+                .when(deltaExporter).exportChangesSince(any(), any(), any(), any());
+
+        mockMvc.perform(get("/api/v1/employees/export")
+                        .param("since", "2026-10-19T09:15:00"))
+                .andExpect(status().isGone())
+                .andExpect(content().string("Run a full export."));
+    }
+
+    private void stubCsvEncoding() {
+        CSVExporter csv = new CSVExporter();
+        when(exporter.header()).thenAnswer(invocation -> csv.header());
+        when(exporter.encode(any())).thenAnswer(invocation -> csv.encode(invocation.getArgument(0)));
+        when(exporter.deltaHeader()).thenAnswer(invocation -> csv.deltaHeader());
+        when(exporter.encodeChanged(any())).thenAnswer(invocation -> csv.encodeChanged(invocation.getArgument(0)));
+        when(exporter.encodeDeleted(anyInt())).thenAnswer(invocation -> csv.encodeDeleted(invocation.getArgument(0)));
+    }
+
+    private void exportsEmployees(String name, String department, Employee... employees) {
+        doAnswer(invocation -> {
+            Consumer<Employee> rows = invocation.getArgument(3);
+            List.of(employees).forEach(rows);
+            return employees.length;
+        }).when(employeeService).exportEmployees(eq(name), eq(department), eq(sort), any());
+    }
+
+    private void stubCompression() throws Exception {
+        doAnswer(invocation -> {
+            realCompressor.compress(invocation.getArgument(0), invocation.<OutputStream>getArgument(1),
+                    invocation.getArgument(2));
+            return null;
+        }).when(streamCompressor).compress(any(ContentCoding.class), any(), any());
     }
 }
@@ -0,0 +1,63 @@
+package org.employeesytem.dto;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.employeesytem.exceptions.InvalidEmployeePatchException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeePatchTest {
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void shouldKeepOnlyThePresentFieldsWithTheirEntityTypes() {
+        EmployeePatch patch = EmployeePatch.of(Map.of("salary", 65000), validator);
+
+        assertEquals(Map.of("salary", new BigDecimal("65000")), patch.getChanges());
+    }
+
+    @Test
+    void shouldRejectInvalidValuesForPresentFieldsOnly() {
+        InvalidEmployeePatchException exception = assertThrows(InvalidEmployeePatchException.class,
+                () -> EmployeePatch.of(Map.of("email", "bademail", "salary", 0), validator));
+
+        assertEquals("Invalid email format.", exception.getErrors().get("email"));
+        assertEquals("Salary must be a positive number.", exception.getErrors().get("salary"));
+        assertEquals(2, exception.getErrors().size());
+    }
+
+    @Test
+    void shouldRejectNullForRequiredFields() {
+        Map<String, Object> mergePatch = new HashMap<>();
+        mergePatch.put("firstName", null);
+
+        InvalidEmployeePatchException exception = assertThrows(InvalidEmployeePatchException.class,
+                () -> EmployeePatch.of(mergePatch, validator));
+
+        assertEquals("First name is required.", exception.getErrors().get("firstName"));
+    }
+
+    @Test
+    void shouldRejectFieldsThatCannotBePatched() {
+        InvalidEmployeePatchException exception = assertThrows(InvalidEmployeePatchException.class,
+                () -> EmployeePatch.of(Map.of("id", 7, "salary", "abc"), validator));
+
+        assertTrue(exception.getErrors().containsKey("id"));
+        assertEquals("Must be a number.", exception.getErrors().get("salary"));
+    }
+
+    @Test
+    void shouldRejectInvalidDepartment() {
+        InvalidEmployeePatchException exception = assertThrows(InvalidEmployeePatchException.class,
+                () -> EmployeePatch.of(Map.of("department", "CLEANING"), validator));
+
+        assertEquals("Department must be one of: HR, IT, MARKETING, SALES, FINANCE", exception.getErrors().get("department"));
+    }
+}
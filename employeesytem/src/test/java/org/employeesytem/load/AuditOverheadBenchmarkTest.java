@@ -0,0 +1,167 @@
+package org.employeesytem.load;
+
+import org.employeesytem.EmployeeSytemApplication;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.service.EmployeeService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Times creates and updates through {@link EmployeeService} under each audit durability mode, each
+ * on a fresh database and spool. Pick the modes with {@code -Dload.audit-modes}; run against a tree
+ * without the audit trail, where the property is ignored, it gives the unaudited baseline.
+ */
+@Tag("load")
+class AuditOverheadBenchmarkTest {
+    private final List<String> modes = List.of(System.getProperty("load.audit-modes", "async,spool,transaction").split(","));
+    private final int writers = Integer.getInteger("load.writers", 4);
+    private final int rows = Integer.getInteger("load.rows", 1_000);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 10);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 3);
+    private final int rounds = Integer.getInteger("load.rounds", 2);
+
+    @Test
+    void compareWriteLatencyPerDurabilityMode() throws Exception {
+        for (String mode : modes) {
+            measure(mode, warmupSeconds);
+        }
+        Map<String, List<long[]>> samples = new LinkedHashMap<>();
+        for (int round = 0; round < rounds; round++) {
+            List<String> order = new ArrayList<>(modes);
+            if (round % 2 == 1) {
+                Collections.reverse(order);
+            }
+            for (String mode : order) {
+                long[][] measured = measure(mode, durationSeconds);
+                samples.computeIfAbsent("update," + mode, key -> new ArrayList<>()).add(measured[0]);
+                samples.computeIfAbsent("create," + mode, key -> new ArrayList<>()).add(measured[1]);
+            }
+        }
+        Path report = Path.of("target", "load-report", "audit-overhead.csv");
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println("operation,mode,writers,writes,mean_us,p50_us,p99_us");
+            samples.forEach((key, runs) -> writer.println(line(key, merge(runs))));
+        }
+    }
+
+    /**
+     * Runs updates and then creates for {@code seconds} each on a fresh context and returns their
+     * latencies. Every mode is run once as warm-up first, and the measured rounds alternate the order
+     * of the modes, since whichever runs first would otherwise also pay for JIT compilation and the
+     * previous context's cleanup.
+     */
+    private long[][] measure(String mode, int seconds) throws Exception {
+        try (ConfigurableApplicationContext context = start(mode)) {
+            EmployeeService service = context.getBean(EmployeeService.class);
+            List<Object[]> batch = new ArrayList<>();
+            for (int id = 1; id <= rows; id++) {
+                batch.add(new Object[]{id, "Audit", "Bench", "audit" + id + "@example.com", "IT", BigDecimal.valueOf(50_000)});
+            }
+            context.getBean(JdbcTemplate.class).batchUpdate(
+                    "INSERT INTO employee (id, first_name, last_name, email, department, salary) VALUES (?, ?, ?, ?, ?, ?)", batch);
+            AtomicInteger nextId = new AtomicInteger(rows);
+            IntConsumer update = writer -> {
+                int id = ThreadLocalRandom.current().nextInt(1, rows + 1);
+                service.updateEmployee(id, new Employee(id, "Audit", "Bench", "audit" + id + "@example.com", "IT",
+                        BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(30_000, 90_000))));
+            };
+            IntConsumer create = writer -> {
+                int id = nextId.incrementAndGet();
+                service.addEmployee(new Employee(id, "Audit", "Bench", "audit" + id + "@example.com", "IT",
+                        BigDecimal.valueOf(50_000)));
+            };
+            return new long[][]{run(update, seconds), run(create, seconds)};
+        }
+    }
+
+    private long[] run(IntConsumer write, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                long[] nanos = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        write.accept(writer);
+                    } catch (ServiceOverloadedException exception) {
+                        continue;
+                    }
+                    if (count == nanos.length) {
+                        nanos = Arrays.copyOf(nanos, count * 2);
+                    }
+                    nanos[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(nanos, count);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] nanos = future.get();
+            int from = all.length;
+            all = Arrays.copyOf(all, from + nanos.length);
+            System.arraycopy(nanos, 0, all, from, nanos.length);
+        }
+        executor.shutdown();
+        Arrays.sort(all);
+        return all;
+    }
+
+    private String line(String operationAndMode, long[] nanos) {
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1_000;
+        return String.format("%s,%d,%d,%.0f,%d,%d", operationAndMode, writers, nanos.length, mean,
+                percentile(nanos, 0.50) / 1_000, percentile(nanos, 0.99) / 1_000);
+    }
+
+    private static long[] merge(List<long[]> runs) {
+        long[] all = runs.stream().flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        return new SpringApplicationBuilder(EmployeeSytemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:audit-bench-" + UUID.randomUUID()
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--employee.audit.durability=" + mode,
+                        "--employee.audit.spool-dir=target/audit-spool/" + UUID.randomUUID());
+    }
+}
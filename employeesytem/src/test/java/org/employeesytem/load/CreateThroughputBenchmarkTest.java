@@ -0,0 +1,110 @@
+package org.employeesytem.load;
+
+import org.employeesytem.dto.Employee;
+import org.employeesytem.exceptions.DuplicateEmployeeException;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.service.EmployeeService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares concurrent creators that pick their own ids, by reading {@code MAX(id) + 1} and
+ * retrying on a duplicate as clients had to, with creators that leave the id to the server's
+ * block allocator. Run it again with {@code -Demployee.ids.block-size=1} to see the cost of one
+ * sequence round trip per create.
+ */
+@Tag("load")
+@SpringBootTest
+@TestPropertySource(locations = "classpath:embedded-h2.properties")
+class CreateThroughputBenchmarkTest {
+    private final int creators = Integer.getInteger("load.creators", 16);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 10);
+    private final AtomicLong emails = new AtomicLong();
+
+    @Autowired
+    private EmployeeService service;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Value("${employee.ids.block-size}")
+    private int blockSize;
+
+    @Test
+    void compareClientPickedAndServerAssignedIds() throws Exception {
+        Result clientPicked = run(() -> jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM employee", Integer.class));
+        Result serverAssigned = run(() -> 0);
+
+        write(Path.of("target", "load-report", "create-throughput.csv"), clientPicked, serverAssigned);
+    }
+
+    private Result run(IdChoice idChoice) throws Exception {
+        LongAdder created = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(creators);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < creators; i++) {
+            futures.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    Employee employee = new Employee(idChoice.next(), "Bench", "Creator",
+                            "bench" + emails.incrementAndGet() + "@example.com", "IT", BigDecimal.valueOf(50_000));
+                    try {
+                        service.addEmployee(employee);
+                        created.increment();
+                    } catch (DuplicateEmployeeException exception) {
+                        conflicts.increment();
+                    } catch (ServiceOverloadedException exception) {
+                        rejected.increment();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(created.sum(), conflicts.sum(), rejected.sum(), created.sum() / seconds);
+    }
+
+    private void write(Path report, Result clientPicked, Result serverAssigned) throws IOException {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println("strategy,creators,block_size,created,conflicts,rejected,created_per_second");
+            writer.printf("client-picked,%d,,%d,%d,%d,%.1f%n", creators,
+                    clientPicked.created, clientPicked.conflicts, clientPicked.rejected, clientPicked.throughput);
+            writer.printf("server-assigned,%d,%d,%d,%d,%d,%.1f%n", creators, blockSize,
+                    serverAssigned.created, serverAssigned.conflicts, serverAssigned.rejected, serverAssigned.throughput);
+        }
+    }
+
+    private interface IdChoice {
+        int next();
+    }
+
+    private record Result(long created, long conflicts, long rejected, double throughput) {
+    }
+}
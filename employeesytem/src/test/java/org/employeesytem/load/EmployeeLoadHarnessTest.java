@@ -0,0 +1,141 @@
+package org.employeesytem.load;
+
+import org.employeesytem.dto.Department;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Seeds an embedded database, starts the application and drives it with an open-model request mix.
+ * Excluded from the default build; run with {@code mvn -Pload test} and tune with the {@code load.*}
+ * system properties below. Results are written to {@code target/load-report/<label>.csv}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "classpath:embedded-h2.properties")
+class EmployeeLoadHarnessTest {
+    private static final String[] FIRST_NAMES = {"Yousuf", "Alice", "Bob", "Laddu", "Priya", "Chen", "Maria", "Omar"};
+    private static final String[] LAST_NAMES = {"Shaik", "Smith", "Jones", "Rao", "Wang", "Garcia", "Khan", "Brown"};
+    private static final String[] SORTS = {"id,asc", "firstName,asc", "lastName,desc", "salary,desc", "department,asc"};
+
+    private final int employees = Integer.getInteger("load.employees", 10_000);
+    private final int rate = Integer.getInteger("load.rate", 200);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 30);
+    private final String mix = System.getProperty("load.mix",
+            "list=35,filter=20,get=25,create=6,update=6,delete=4,export=4");
+    private final String label = System.getProperty("load.label", "current");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> created = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void driveEmployeeEndpoints() throws Exception {
+        seed();
+        nextId.set(employees + 1);
+        Map<String, Integer> weights = parseMix();
+        String base = "http://localhost:" + port + "/api/v1/employees";
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(client)
+                .endpoint("list", weights.getOrDefault("list", 0),
+                        () -> get(base + "?page=" + random(20) + "&size=20&sort=" + SORTS[random(SORTS.length)]))
+                .endpoint("filter", weights.getOrDefault("filter", 0),
+                        () -> get(base + "?page=0&size=20&name=" + FIRST_NAMES[random(FIRST_NAMES.length)]
+                                + "&department=" + randomDepartment() + "&sort=" + SORTS[random(SORTS.length)]))
+                .endpoint("get", weights.getOrDefault("get", 0),
+                        () -> get(base + "/" + (1 + random(employees))))
+                .endpoint("create", weights.getOrDefault("create", 0),
+                        () -> {
+                            int id = nextId.getAndIncrement();
+                            created.add(id);
+                            return send("POST", base, employeeJson(id));
+                        })
+                .endpoint("update", weights.getOrDefault("update", 0),
+                        () -> {
+                            int id = 1 + random(employees);
+                            return send("PUT", base + "/" + id, employeeJson(id));
+                        })
+                .endpoint("delete", weights.getOrDefault("delete", 0),
+                        () -> {
+                            Integer id = created.poll();
+                            return HttpRequest.newBuilder(URI.create(base + "/" + (id == null ? nextId.getAndIncrement() : id)))
+                                    .DELETE()
+                                    .build();
+                        })
+                .endpoint("export", weights.getOrDefault("export", 0),
+                        () -> get(base + "/export?department=" + randomDepartment() + "&sort=" + SORTS[random(SORTS.length)]));
+
+        generator.run(rate, Duration.ofSeconds(durationSeconds));
+        generator.writeReport(Path.of("target", "load-report", label + ".csv"), label);
+    }
+
+    private void seed() {
+        List<Object[]> rows = new ArrayList<>(employees);
+        for (int id = 1; id <= employees; id++) {
+            rows.add(new Object[]{id, FIRST_NAMES[id % FIRST_NAMES.length], LAST_NAMES[(id / 8) % LAST_NAMES.length],
+                    "employee" + id + "@example.com", Department.values()[id % Department.values().length].name(),
+                    BigDecimal.valueOf(30_000 + (id * 37L) % 170_000)});
+        }
+        jdbc.batchUpdate("INSERT INTO employee (id, first_name, last_name, email, department, salary) VALUES (?, ?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    private Map<String, Integer> parseMix() {
+        return List.of(mix.split(",")).stream()
+                .map(entry -> entry.trim().split("="))
+                .collect(Collectors.toMap(entry -> entry[0], entry -> Integer.parseInt(entry[1])));
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest send(String method, String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String employeeJson(int id) {
+        return String.format("{\"id\":%d,\"firstName\":\"%s\",\"lastName\":\"%s\",\"email\":\"load%d@example.com\","
+                        + "\"department\":\"%s\",\"salary\":%d}",
+                id, FIRST_NAMES[random(FIRST_NAMES.length)], LAST_NAMES[random(LAST_NAMES.length)], id,
+                randomDepartment(), 30_000 + random(170_000));
+    }
+
+    private static String randomDepartment() {
+        return Department.values()[random(Department.values().length)].name();
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+}
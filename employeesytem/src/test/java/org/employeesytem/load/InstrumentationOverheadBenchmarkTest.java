@@ -0,0 +1,75 @@
+package org.employeesytem.load;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.metrics.InstrumentedEmployeeRepository;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.repository.jpa.EmployeeRepositoryJPAImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times {@link InstrumentedEmployeeRepository} around a repository that does no work, so that what
+ * is left is the cost of the timer, row summary and error counter per call. Use
+ * {@code -Dload.iterations} for the calls per round.
+ */
+@Tag("load")
+class InstrumentationOverheadBenchmarkTest {
+    private final int iterations = Integer.getInteger("load.iterations", 2_000_000);
+    private final int rounds = Integer.getInteger("load.rounds", 5);
+
+    private long sink;
+
+    @Test
+    void measureOverheadPerCall() throws IOException {
+        StubRepository stub = new StubRepository();
+        InstrumentedEmployeeRepository instrumented = new InstrumentedEmployeeRepository(stub, new SimpleMeterRegistry());
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long plain = time(stub);
+            long wrapped = time(instrumented);
+            best = Math.min(best, (wrapped - plain) / iterations);
+        }
+        write(Path.of("target", "load-report", "instrumentation-overhead.csv"), best);
+
+        assertTrue(best < 1_000, "Instrumentation overhead was " + best + "ns per call");
+    }
+
+    private long time(EmployeeRepository repository) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            total += repository.count();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += total;
+        return elapsed;
+    }
+
+    private void write(Path report, long overheadNanos) throws IOException {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println("iterations,rounds,cpus,best_overhead_ns");
+            writer.printf("%d,%d,%d,%d%n", iterations, rounds, Runtime.getRuntime().availableProcessors(), overheadNanos);
+        }
+    }
+
+    private static final class StubRepository extends EmployeeRepositoryJPAImpl {
+        private StubRepository() {
+            super(null);
+        }
+
+        @Override
+        public Long count() {
+            return 7L;
+        }
+    }
+}
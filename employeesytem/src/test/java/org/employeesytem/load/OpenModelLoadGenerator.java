@@ -0,0 +1,116 @@
+package org.employeesytem.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Issues requests at a constant arrival rate regardless of how quickly earlier ones complete.
+ * Latency is measured from the time a request was scheduled to start rather than when it was sent,
+ * which corrects for coordinated omission when the server falls behind.
+ */
+class OpenModelLoadGenerator {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient client;
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final List<Endpoint> weighted = new ArrayList<>();
+
+    OpenModelLoadGenerator(HttpClient client) {
+        this.client = client;
+    }
+
+    OpenModelLoadGenerator endpoint(String name, int weight, Supplier<HttpRequest> request) {
+        if (weight <= 0) {
+            return this;
+        }
+        Endpoint endpoint = new Endpoint(name, request);
+        endpoints.put(name, endpoint);
+        for (int i = 0; i < weight; i++) {
+            weighted.add(endpoint);
+        }
+        return this;
+    }
+
+    void run(int requestsPerSecond, Duration duration) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long total = duration.toNanos() / interval;
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * interval;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = weighted.get(ThreadLocalRandom.current().nextInt(weighted.size()));
+            inFlight.add(client.sendAsync(endpoint.request.get(), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        endpoint.record(intendedStart, failure == null && response.statusCode() < 400);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - start;
+        endpoints.values().forEach(endpoint -> endpoint.elapsedNanos = elapsed);
+    }
+
+    void writeReport(Path report, String label) throws IOException {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println("label,endpoint,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms");
+            for (Endpoint endpoint : endpoints.values()) {
+                Histogram histogram = endpoint.latencies;
+                writer.printf("%s,%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                        label,
+                        endpoint.name,
+                        histogram.getTotalCount(),
+                        endpoint.errors.sum(),
+                        histogram.getTotalCount() / (endpoint.elapsedNanos / 1e9),
+                        histogram.getValueAtPercentile(50) / 1e6,
+                        histogram.getValueAtPercentile(99) / 1e6,
+                        histogram.getValueAtPercentile(99.9) / 1e6,
+                        histogram.getMaxValue() / 1e6);
+            }
+        }
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final Supplier<HttpRequest> request;
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+        private long elapsedNanos = 1;
+
+        private Endpoint(String name, Supplier<HttpRequest> request) {
+            this.name = name;
+            this.request = request;
+        }
+
+        private void record(long intendedStart, boolean success) {
+            latencies.recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS));
+            if (!success) {
+                errors.increment();
+            }
+        }
+    }
+}
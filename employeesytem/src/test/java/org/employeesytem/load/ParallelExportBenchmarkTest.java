@@ -0,0 +1,110 @@
+package org.employeesytem.load;
+
+import org.employeesytem.service.EmployeeParallelExporter;
+import org.employeesytem.service.EmployeeService;
+import org.employeesytem.util.CSVExporter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Times the sequential export against the range-partitioned one over the same rows and checks that
+ * both produce the same bytes. Use {@code -Dload.rows} for the table size and
+ * {@code -Demployee.export.parallelism} (with {@code employee.bulkhead.bulk.pool-size}) for the
+ * number of ranges read at once.
+ */
+@Tag("load")
+@SpringBootTest
+@TestPropertySource(locations = "classpath:embedded-h2.properties")
+class ParallelExportBenchmarkTest {
+    private final int rows = Integer.getInteger("load.rows", 200_000);
+    private final int runs = Integer.getInteger("load.runs", 5);
+
+    @Autowired
+    private EmployeeService service;
+
+    @Autowired
+    private EmployeeParallelExporter parallelExporter;
+
+    @Autowired
+    private CSVExporter csvExporter;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Value("${employee.export.parallelism}")
+    private int parallelism;
+
+    @Test
+    void compareSequentialAndParallelExport() throws IOException {
+        List<Object[]> batch = new ArrayList<>();
+        for (int id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, "First" + id % 977, "Last" + id, "export" + id + "@example.com",
+                    id % 2 == 0 ? "IT" : "HR", BigDecimal.valueOf(30_000_00L + (id * 7919L) % 90_000_00L, 2)});
+        }
+        jdbc.batchUpdate("INSERT INTO employee (id, first_name, last_name, email, department, salary) VALUES (?, ?, ?, ?, ?, ?)", batch);
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "salary");
+        byte[] sequential = csvExporter.writeEmployeesToCsv(service.findAllEmployeesForExport(null, null, sort));
+        assertArrayEquals(sequential, parallel(sort));
+
+        Result sequentialResult = time(() -> csvExporter.writeEmployeesToCsv(service.findAllEmployeesForExport(null, null, sort)));
+        Result parallelResult = time(() -> parallel(sort));
+        write(Path.of("target", "load-report", "parallel-export.csv"), sequentialResult, parallelResult, sequential.length);
+    }
+
+    private byte[] parallel(Sort sort) {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try {
+            parallelExporter.exportToCsv(null, null, sort, csv);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return csv.toByteArray();
+    }
+
+    private Result time(Supplier<byte[]> export) {
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            export.get();
+            millis[run] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        return new Result(millis[runs / 2], millis[0], millis[runs - 1]);
+    }
+
+    private void write(Path report, Result sequential, Result parallel, int bytes) throws IOException {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println("mode,rows,bytes,parallelism,cpus,median_ms,min_ms,max_ms");
+            writer.printf("sequential,%d,%d,1,%d,%d,%d,%d%n", rows, bytes, Runtime.getRuntime().availableProcessors(),
+                    sequential.medianMillis, sequential.minMillis, sequential.maxMillis);
+            writer.printf("parallel,%d,%d,%d,%d,%d,%d,%d%n", rows, bytes, parallelism, Runtime.getRuntime().availableProcessors(),
+                    parallel.medianMillis, parallel.minMillis, parallel.maxMillis);
+        }
+    }
+
+    private record Result(long medianMillis, long minMillis, long maxMillis) {
+    }
+}
@@ -0,0 +1,138 @@
+package org.employeesytem.load;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Department;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.service.EmployeeBulkheads;
+import org.employeesytem.service.EmployeeSalarySnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Times salary range queries on the {@link EmployeeSalarySnapshot} against the same filter and sort
+ * run over the employee objects, and checks both pick the same page. Use {@code -Dload.rows} for the
+ * number of employees and {@code -Dload.runs} for the timed runs of each query.
+ */
+@Tag("load")
+class SalaryRangeBenchmarkTest {
+    private final int rows = Integer.getInteger("load.rows", 1_000_000);
+    private final int runs = Integer.getInteger("load.runs", 25);
+
+    @Test
+    void compareSnapshotAndObjectScan() throws IOException {
+        Department[] departments = Department.values();
+        List<Employee> employees = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            employees.add(new Employee(id, "First" + id % 977, "Last" + id, "range" + id + "@example.com",
+                    departments[id % departments.length].name(),
+                    BigDecimal.valueOf(30_000_00L + (id * 7919L) % 90_000_00L, 2)));
+        }
+        EmployeeRepository repository = mock(EmployeeRepository.class);
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(3);
+            employees.forEach(consumer);
+            return rows;
+        }).when(repository).streamForExport(any(), any(), any(), any());
+        EmployeeBulkheads bulkheads = new EmployeeBulkheads(new StandardEnvironment(), new SimpleMeterRegistry(), 1);
+        EmployeeSalarySnapshot snapshot = new EmployeeSalarySnapshot(repository, bulkheads, new SimpleMeterRegistry());
+        try {
+            snapshot.afterSingletonsInstantiated();
+
+            List<Query> queries = List.of(
+                    new Query("wide_by_salary", null, "40000", "110000", Sort.by("salary").descending(), 0, 20),
+                    new Query("narrow_by_salary", null, "50000", "50500", Sort.by("salary"), 0, 20),
+                    new Query("department_by_salary", "IT", "40000", "110000", Sort.by("salary"), 0, 20),
+                    new Query("deep_page_by_salary", null, "40000", "110000", Sort.by("salary"), 10_000, 20),
+                    new Query("wide_by_id", null, "40000", "110000", Sort.by("id"), 0, 20));
+
+            List<String> lines = new ArrayList<>();
+            for (Query query : queries) {
+                assertEquals(scan(employees, query), snapshot(snapshot, query));
+                Result columnar = time(() -> snapshot(snapshot, query));
+                Result objects = time(() -> scan(employees, query));
+                lines.add(String.format("%s,%d,%d,%.3f,%.3f,%.3f,%.3f", query.name(), rows,
+                        Runtime.getRuntime().availableProcessors(), columnar.medianMillis(), columnar.maxMillis(),
+                        objects.medianMillis(), objects.maxMillis()));
+            }
+            write(Path.of("target", "load-report", "salary-range.csv"), lines);
+        } finally {
+            bulkheads.destroy();
+        }
+    }
+
+    private static List<Integer> snapshot(EmployeeSalarySnapshot snapshot, Query query) {
+        return snapshot.find(query.department(), new BigDecimal(query.minSalary()), new BigDecimal(query.maxSalary()),
+                query.sort(), query.offset(), query.limit()).ids();
+    }
+
+    /**
+     * The same query as a filter and sort over the employees, as a cache of entities would run it.
+     */
+    private static List<Integer> scan(List<Employee> employees, Query query) {
+        BigDecimal min = new BigDecimal(query.minSalary());
+        BigDecimal max = new BigDecimal(query.maxSalary());
+        Sort.Order order = query.sort().iterator().next();
+        Comparator<Employee> comparator = order.getProperty().equals("salary")
+                ? Comparator.comparing(Employee::getSalary)
+                : Comparator.comparingInt(Employee::getId);
+        comparator = (order.isAscending() ? comparator : comparator.reversed()).thenComparingInt(Employee::getId);
+        return employees.stream()
+                .filter(employee -> query.department() == null || query.department().equals(employee.getDepartment()))
+                .filter(employee -> employee.getSalary().compareTo(min) >= 0 && employee.getSalary().compareTo(max) <= 0)
+                .sorted(comparator)
+                .skip(query.offset())
+                .limit(query.limit())
+                .map(Employee::getId)
+                .toList();
+    }
+
+    private Result time(Supplier<List<Integer>> query) {
+        for (int run = 0; run < 5; run++) {
+            query.get();
+        }
+        double[] millis = new double[runs];
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            query.get();
+            millis[run] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return new Result(millis[runs / 2], millis[runs - 1]);
+    }
+
+    private static void write(Path report, List<String> lines) throws IOException {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println("query,rows,cpus,snapshot_median_ms,snapshot_max_ms,scan_median_ms,scan_max_ms");
+            lines.forEach(writer::println);
+        }
+    }
+
+    private record Query(String name, String department, String minSalary, String maxSalary, Sort sort,
+                         long offset, int limit) {
+    }
+
+    private record Result(double medianMillis, double maxMillis) {
+    }
+}
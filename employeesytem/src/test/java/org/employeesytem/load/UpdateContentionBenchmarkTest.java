@@ -0,0 +1,133 @@
+package org.employeesytem.load;
+
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares editors updating a few hot rows with version checks against editors that hold a
+ * {@code SELECT ... FOR UPDATE} lock between reading and writing. Each editor "thinks" for
+ * {@code load.think-millis} between the read and the write, as a user of update.html would.
+ */
+@Tag("load")
+@SpringBootTest
+@TestPropertySource(locations = "classpath:embedded-h2.properties")
+class UpdateContentionBenchmarkTest {
+    private final int editors = Integer.getInteger("load.editors", 16);
+    private final int hotRows = Integer.getInteger("load.hot-rows", 4);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 10);
+    private final int thinkMillis = Integer.getInteger("load.think-millis", 2);
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareOptimisticAndPessimisticUpdates() throws Exception {
+        for (int id = 1; id <= hotRows; id++) {
+            jdbc.update("INSERT INTO employee (id, first_name, last_name, email, department, salary) VALUES (?, ?, ?, ?, ?, ?)",
+                    id, "Hot", "Row", "hot" + id + "@example.com", "IT", BigDecimal.valueOf(50_000));
+        }
+
+        Result optimistic = run(this::optimisticEdit);
+        Result pessimistic = run(this::pessimisticEdit);
+
+        write(Path.of("target", "load-report", "update-contention.csv"), optimistic, pessimistic);
+    }
+
+    private boolean optimisticEdit(int id) {
+        Employee employee = repository.findById(id).orElseThrow();
+        think();
+        employee.setSalary(employee.getSalary().add(BigDecimal.ONE));
+        return repository.update(employee, employee.getVersion()) == 1;
+    }
+
+    private boolean pessimisticEdit(int id) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Employee employee = jdbc.queryForObject("SELECT * FROM employee WHERE id = ? FOR UPDATE",
+                    new BeanPropertyRowMapper<>(Employee.class), id);
+            think();
+            employee.setSalary(employee.getSalary().add(BigDecimal.ONE));
+            return repository.update(employee, null) == 1;
+        }));
+    }
+
+    private Result run(Edit edit) throws Exception {
+        LongAdder committed = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(editors);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < editors; i++) {
+            futures.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (edit.apply(1 + ThreadLocalRandom.current().nextInt(hotRows))) {
+                        committed.increment();
+                    } else {
+                        conflicts.increment();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(committed.sum(), conflicts.sum(), committed.sum() / seconds);
+    }
+
+    private void think() {
+        try {
+            Thread.sleep(thinkMillis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Path report, Result optimistic, Result pessimistic) throws IOException {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println("strategy,editors,hot_rows,think_ms,committed,conflicts,committed_per_second");
+            writer.printf("optimistic,%d,%d,%d,%d,%d,%.1f%n", editors, hotRows, thinkMillis,
+                    optimistic.committed, optimistic.conflicts, optimistic.throughput);
+            writer.printf("pessimistic,%d,%d,%d,%d,%d,%.1f%n", editors, hotRows, thinkMillis,
+                    pessimistic.committed, pessimistic.conflicts, pessimistic.throughput);
+        }
+    }
+
+    private interface Edit {
+        boolean apply(int id);
+    }
+
+    private record Result(long committed, long conflicts, double throughput) {
+    }
+}
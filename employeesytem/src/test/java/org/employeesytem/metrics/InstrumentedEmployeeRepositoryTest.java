@@ -0,0 +1,70 @@
+package org.employeesytem.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.repository.jpa.EmployeeRepositoryJPAImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+class InstrumentedEmployeeRepositoryTest {
+    @Mock
+    private EmployeeRepositoryJPAImpl delegate;
+
+    private MeterRegistry registry;
+    private InstrumentedEmployeeRepository repository;
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        repository = new InstrumentedEmployeeRepository(delegate, registry);
+        employee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "IT", new BigDecimal("123456"));
+    }
+
+    @Test
+    void shouldRecordLatencyAndRowsWhenFindAllIsCalled() {
+        PageRequest pageRequest = PageRequest.of(0, 5);
+        when(delegate.findAll(pageRequest)).thenReturn(new PageImpl<>(List.of(employee, employee)));
+
+        repository.findAll(pageRequest);
+
+        assertEquals(1, registry.get(InstrumentedEmployeeRepository.TIMER_NAME).tag("method", "findAllPaged").timer().count());
+        assertEquals(2.0, registry.get(InstrumentedEmployeeRepository.ROWS_NAME).tag("method", "findAllPaged").summary().totalAmount());
+    }
+
+    @Test
+    void shouldRecordZeroRowsWhenIdNotExists() {
+        when(delegate.findById(101)).thenReturn(Optional.empty());
+
+        repository.findById(101);
+
+        assertEquals(0.0, registry.get(InstrumentedEmployeeRepository.ROWS_NAME).tag("method", "findById").summary().totalAmount());
+        assertEquals(1, registry.get(InstrumentedEmployeeRepository.TIMER_NAME).tag("method", "findById").timer().count());
+    }
+
+    @Test
+    void shouldCountErrorsAndRethrowWhenDelegateFails() {
+        doThrow(new EmployeeNotFoundException("Employee with ID 101 not found")).when(delegate).deleteById(101);
+
+        assertThrows(EmployeeNotFoundException.class, () -> repository.deleteById(101));
+
+        assertEquals(1.0, registry.get(InstrumentedEmployeeRepository.ERRORS_NAME).tag("method", "deleteById").counter().count());
+        assertEquals(1, registry.get(InstrumentedEmployeeRepository.TIMER_NAME).tag("method", "deleteById").timer().count());
+    }
+}
@@ -0,0 +1,180 @@
+package org.employeesytem.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.service.EmployeeBulkheads;
+import org.employeesytem.service.WorkloadClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+class SlowQueryDataSourceTest {
+    @Mock
+    private DataSource target;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+    @Mock
+    private ResultSet resultSet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+    }
+
+    @Test
+    void shouldRecordSqlParametersAndRowsWhenQueryExceedsThreshold() throws Exception {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 10, false, new SimpleMeterRegistry());
+        DataSource dataSource = new SlowQueryDataSource(target, recorder);
+        String sql = "SELECT * FROM employee WHERE department = ? AND salary > ?";
+
+        try (Connection proxied = dataSource.getConnection();
+             PreparedStatement prepared = proxied.prepareStatement(sql)) {
+            prepared.setString(1, "IT");
+            prepared.setInt(2, 1000);
+            try (ResultSet rows = prepared.executeQuery()) {
+                while (rows.next()) {
+                    rows.getInt(1);
+                }
+            }
+        }
+
+        List<SlowQuery> slowQueries = recorder.getSlowQueries();
+        assertEquals(1, slowQueries.size());
+        SlowQuery slowQuery = slowQueries.get(0);
+        assertEquals(sql, slowQuery.sql());
+        assertEquals(List.of("IT", 1000), slowQuery.parameters());
+        assertEquals(2, slowQuery.rowCount());
+        assertNull(slowQuery.plan());
+    }
+
+    @Test
+    void shouldRecordRowsAffectedWhenUpdateExceedsThreshold() throws Exception {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 10, false, new SimpleMeterRegistry());
+        DataSource dataSource = new SlowQueryDataSource(target, recorder);
+        when(statement.executeUpdate()).thenReturn(3);
+
+        try (Connection proxied = dataSource.getConnection();
+             PreparedStatement prepared = proxied.prepareStatement("DELETE FROM employee WHERE department = ?")) {
+            prepared.setString(1, "HR");
+            prepared.executeUpdate();
+        }
+
+        assertEquals(3, recorder.getSlowQueries().get(0).rowCount());
+    }
+
+    @Test
+    void shouldRecordParametersAsTheTypesTheyWereBoundAs() throws Exception {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 10, false, new SimpleMeterRegistry());
+        DataSource dataSource = new SlowQueryDataSource(target, recorder);
+
+        try (Connection proxied = dataSource.getConnection();
+             PreparedStatement prepared = proxied.prepareStatement("UPDATE employee SET salary = ? WHERE id = ?")) {
+            prepared.setDouble(1, 1.5);
+            prepared.setLong(2, 7L);
+            prepared.setNull(3, Types.VARCHAR);
+            prepared.setBoolean(5, true);
+            prepared.executeUpdate();
+            prepared.clearParameters();
+            prepared.setShort(1, (short) 2);
+            prepared.executeUpdate();
+        }
+
+        List<SlowQuery> slowQueries = recorder.getSlowQueries();
+        assertEquals(Arrays.asList((short) 2), slowQueries.get(0).parameters());
+        assertEquals(Arrays.asList(1.5, 7L, null, null, true), slowQueries.get(1).parameters());
+    }
+
+    @Test
+    void shouldRecordTheRowsOfABatchAndLeaveOutUnknownCounts() throws Exception {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 10, false, new SimpleMeterRegistry());
+        DataSource dataSource = new SlowQueryDataSource(target, recorder);
+        when(statement.executeBatch()).thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO, 2});
+
+        try (Connection proxied = dataSource.getConnection();
+             PreparedStatement prepared = proxied.prepareStatement("INSERT INTO employee_audit VALUES (?)")) {
+            prepared.setString(1, "a");
+            prepared.addBatch();
+            prepared.executeBatch();
+            assertSame(proxied, prepared.getConnection());
+        }
+
+        assertEquals(3, recorder.getSlowQueries().get(0).rowCount());
+    }
+
+    @Test
+    void shouldNotRecordQueriesUnderThreshold() throws Exception {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(60_000, 10, false, new SimpleMeterRegistry());
+        DataSource dataSource = new SlowQueryDataSource(target, recorder);
+
+        try (Connection proxied = dataSource.getConnection();
+             PreparedStatement prepared = proxied.prepareStatement("SELECT * FROM employee")) {
+            prepared.executeQuery().close();
+        }
+
+        assertTrue(recorder.getSlowQueries().isEmpty());
+    }
+
+    @Test
+    void shouldNameTheServiceMethodTheBulkheadRanTheStatementFor() {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 10, false, new SimpleMeterRegistry());
+        EmployeeBulkheads bulkheads = new EmployeeBulkheads(new MockEnvironment(), new SimpleMeterRegistry(), 1);
+        try {
+            bulkheads.execute(WorkloadClass.WRITE, "updateEmployee", () -> {
+                recorder.complete(null, "UPDATE employee SET salary = ?", null, 1, 10);
+                return null;
+            });
+        } finally {
+            bulkheads.destroy();
+        }
+
+        assertEquals("updateEmployee", recorder.getSlowQueries().get(0).serviceMethod());
+    }
+
+    @Test
+    void shouldOnlyCountSlowQueriesWhenTheCapacityIsZero() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 0, false, meterRegistry);
+
+        recorder.complete(null, "SELECT 1", null, 1, 10);
+
+        assertTrue(recorder.getSlowQueries().isEmpty());
+        assertEquals(1.0, meterRegistry.get("employee.slow.queries").counter().count());
+    }
+
+    @Test
+    void shouldKeepOnlyTheMostRecentQueriesWhenBufferIsFull() {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 2, false, new SimpleMeterRegistry());
+
+        recorder.complete(null, "SELECT 1", null, 1, 10);
+        recorder.complete(null, "SELECT 2", null, 1, 10);
+        recorder.complete(null, "SELECT 3", null, 1, 10);
+
+        List<SlowQuery> slowQueries = recorder.getSlowQueries();
+        assertEquals(2, slowQueries.size());
+        assertEquals("SELECT 3", slowQueries.get(0).sql());
+        assertEquals("SELECT 2", slowQueries.get(1).sql());
+    }
+}
@@ -0,0 +1,126 @@
+package org.employeesytem.repository;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+class EmployeeIdSequenceRepositoryTest {
+    @Mock
+    EmployeeRepository employees;
+
+    JdbcTemplate jdbc;
+    EmployeeIdSequenceRepository repository;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sequence-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        repository = new EmployeeIdSequenceRepository(jdbc, employees);
+    }
+
+    @Test
+    void shouldStartTheSequenceAboveTheLargestExistingId() {
+        when(employees.findIdRange()).thenReturn(Optional.of(new EmployeeRepository.IdRange(3, 100)));
+
+        repository.startAboveExistingIds();
+
+        assertEquals(101, repository.reserve(50));
+        assertEquals(151, repository.reserve(50));
+    }
+
+    @Test
+    void shouldStartAtOneWhenThereAreNoEmployees() {
+        when(employees.findIdRange()).thenReturn(Optional.empty());
+
+        repository.startAboveExistingIds();
+
+        assertEquals(1, repository.reserve(50));
+    }
+
+    @Test
+    void shouldMoveAnExistingSequenceUpButNeverDown() {
+        when(employees.findIdRange())
+                .thenReturn(Optional.of(new EmployeeRepository.IdRange(3, 100)))
+                .thenReturn(Optional.of(new EmployeeRepository.IdRange(3, 499)))
+                .thenReturn(Optional.of(new EmployeeRepository.IdRange(3, 120)));
+
+        repository.startAboveExistingIds();
+        repository.startAboveExistingIds();
+        repository.startAboveExistingIds();
+
+        assertEquals(500, repository.reserve(50));
+    }
+
+    @Test
+    void shouldKeepLaterBlocksClearOfIdsClientsPicked() {
+        when(employees.findIdRange()).thenReturn(Optional.empty());
+        repository.startAboveExistingIds();
+        assertEquals(1, repository.reserve(50));
+
+        repository.skip(120);
+        repository.skip(30);
+
+        assertEquals(121, repository.reserve(50));
+    }
+
+    @Test
+    void shouldNeverReserveTheSameIdTwiceUnderContention() throws Exception {
+        when(employees.findIdRange()).thenReturn(Optional.empty());
+        repository.startAboveExistingIds();
+        Set<Integer> firsts = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    firsts.add(repository.reserve(10));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(400, firsts.size());
+        assertEquals(4001L, jdbc.queryForObject("SELECT next_val FROM employee_id_sequence WHERE name = ?",
+                Long.class, "employee"));
+    }
+
+    @Test
+    void shouldRefuseToReserveBeforeTheSequenceIsStarted() {
+        assertThrows(IllegalStateException.class, () -> repository.reserve(50));
+    }
+
+    @Test
+    void shouldRefuseToReserveBeyondTheLargestInt() {
+        when(employees.findIdRange()).thenReturn(Optional.of(new EmployeeRepository.IdRange(3, Integer.MAX_VALUE - 11)));
+        repository.startAboveExistingIds();
+
+        assertThrows(IllegalStateException.class, () -> repository.reserve(50));
+    }
+}
@@ -2,18 +2,25 @@ package org.employeesytem.repository.jdbc;
 
 import org.employeesytem.dto.Employee;
 import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.exceptions.InvalidRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -22,6 +29,9 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,18 +45,35 @@ class EmployeeRepositoryJDBCImplTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        when(jdbc.execute(any(ConnectionCallback.class))).thenReturn(0L);
     }
 
-    /* To-do: Implement Pagination in JDBC
     @Test
-    void shouldReturnAllEmployeesWhenFindAllIsCalled() {
+    void shouldReturnAPageOfEmployeesWhenFindAllIsCalled() {
         Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "Dev", new BigDecimal("123456"));
-        when(jdbc.query(anyString(), org.mockito.ArgumentMatchers.<RowMapper<Employee>>any()))
+        when(jdbc.query(eq("SELECT * FROM employee ORDER BY first_name ASC LIMIT ? OFFSET ?"),
+                org.mockito.ArgumentMatchers.<RowMapper<Employee>>any(), eq(1), eq(1L)))
+                .thenReturn(List.of(expectedEmployee));
+        when(jdbc.queryForObject(eq("SELECT COUNT(*) FROM employee"), eq(Long.class), any(Object[].class))).thenReturn(3L);
+
+        Page<Employee> page = repository.findAll(PageRequest.of(1, 1, Sort.by("firstName")));
+
+        assertEquals(List.of(expectedEmployee), page.getContent());
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void shouldReadOneIdRangeWithTheExportFilters() {
+        Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "IT", new BigDecimal("123456"));
+        when(jdbc.query(eq("SELECT * FROM employee WHERE LOWER(department) = ? AND id BETWEEN ? AND ? ORDER BY salary DESC, id ASC"),
+                org.mockito.ArgumentMatchers.<RowMapper<Employee>>any(), eq("it"), eq(100), eq(199)))
                 .thenReturn(List.of(expectedEmployee));
-        List<Employee> all = repository.findAll();
-        assertEquals(1, all.size());
-        assertEquals(expectedEmployee, all.get(0));
-    } */
+
+        List<Employee> employees = repository.findRangeForExport(null, "IT", 100, 199,
+                Sort.by(Sort.Direction.DESC, "salary").and(Sort.by("id")));
+
+        assertEquals(List.of(expectedEmployee), employees);
+    }
 
     @Test
     void shouldSaveTheEmployeeSuccessfullyWhenTheIdIsUnique() {
@@ -68,7 +95,7 @@ class EmployeeRepositoryJDBCImplTest {
     void shouldThrowTheExceptionWhenTheIdExists() {
         Employee duplicateEmployee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "Dev", new BigDecimal("123456"));
 
-        when(jdbc.update(anyString(), any(), any(), any(), any(), any(), any()))
+        when(jdbc.execute(any(ConnectionCallback.class)))
                 .thenThrow(new DuplicateKeyException("Duplicate entry for id"));
 
         DuplicateKeyException exception = assertThrows(DuplicateKeyException.class,
@@ -76,6 +103,24 @@ class EmployeeRepositoryJDBCImplTest {
         assertTrue(exception.getMessage().contains("Duplicate entry for id"));
     }
 
+    @Test
+    void shouldLeaveAnEmailConflictForTheCallerToReport() {
+        Employee employee = new Employee(102, "Ravi", "Kumar", "yousufbabashaik@gmail.com", "IT", new BigDecimal("1000"));
+        when(jdbc.update(startsWith("INSERT INTO employee"), any(Object[].class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'yousufbabashaik@gmail.com' for key 'employee.uk_employee_email'"));
+
+        assertThrows(DuplicateKeyException.class, () -> repository.save(employee));
+    }
+
+    @Test
+    void shouldFindTheIdOwningAnEmail() {
+        when(jdbc.queryForList("SELECT id FROM employee WHERE email = ?", Integer.class, "yousufbabashaik@gmail.com"))
+                .thenReturn(List.of(101));
+
+        assertEquals(Optional.of(101), repository.findIdByEmail("yousufbabashaik@gmail.com"));
+        assertEquals(Optional.empty(), repository.findIdByEmail("nobody@example.com"));
+    }
+
     @Test
     void shouldReturnEmployeeWhenIdExists() {
         Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "Dev", new BigDecimal("123456"));
@@ -97,12 +142,20 @@ class EmployeeRepositoryJDBCImplTest {
     void shouldUpdateEmployeeWhenIdExists() {
         Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousuf.new@gmail.com", "Dev", new BigDecimal("123456"));
 
-        when(jdbc.queryForObject(anyString(), eq(Integer.class), anyInt())).thenReturn(1);
-        when(jdbc.update(anyString(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(1);
+        when(jdbc.execute(any(ConnectionCallback.class))).thenReturn(4L);
 
         Employee actualEmployee = repository.save(expectedEmployee);
         assertEquals(expectedEmployee, actualEmployee);
+        verify(jdbc, never()).update(startsWith("INSERT INTO employee"), any(Object[].class));
+    }
+
+    @Test
+    void shouldReturnTheVersionAnUpdateOrPatchProduced() {
+        Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousuf.new@gmail.com", "Dev", new BigDecimal("123456"));
+        when(jdbc.execute(any(ConnectionCallback.class))).thenReturn(4L, 0L);
+
+        assertEquals(4L, repository.update(expectedEmployee, null));
+        assertEquals(0L, repository.patch(101, Map.of("salary", new BigDecimal("65000")), 3L));
     }
 
     @Test
@@ -124,6 +177,61 @@ class EmployeeRepositoryJDBCImplTest {
         assertTrue(exception.getMessage().contains("not found"));
     }
 
+    @Test
+    void shouldReadIdsInChunksOfAtMostMaxIdsPerStatement() {
+        List<Integer> ids = IntStream.rangeClosed(1, 501).boxed().toList();
+        Employee employee = new Employee(1, "Yousuf", "Shaik", "yousuf@gmail.com", "IT", new BigDecimal("123456"));
+        when(jdbc.query(startsWith("SELECT * FROM employee WHERE id IN ("),
+                org.mockito.ArgumentMatchers.<RowMapper<Employee>>any(), any(Object[].class)))
+                .thenReturn(List.of(employee), List.of());
+
+        List<Employee> employees = repository.findAllById(ids);
+
+        assertEquals(List.of(employee), employees);
+        verify(jdbc, times(2)).query(startsWith("SELECT * FROM employee WHERE id IN ("),
+                org.mockito.ArgumentMatchers.<RowMapper<Employee>>any(), any(Object[].class));
+    }
+
+    @Test
+    void shouldDeleteIdsInChunksOfAtMostMaxIdsPerStatement() {
+        List<Integer> ids = IntStream.rangeClosed(1, 1_001).boxed().toList();
+        when(jdbc.update(anyString(), any(Object[].class))).thenReturn(500, 500, 1);
+
+        int deleted = repository.deleteAllById(ids);
+
+        assertEquals(1_001, deleted);
+        verify(jdbc, times(3)).update(startsWith("DELETE FROM employee WHERE id IN ("), any(Object[].class));
+    }
+
+    @Test
+    void shouldDeleteByLowercasedCriteria() {
+        when(jdbc.update(anyString(), any(Object[].class))).thenReturn(2);
+
+        int deleted = repository.deleteByCriteria("Yo", "IT");
+
+        assertEquals(2, deleted);
+        verify(jdbc).update("DELETE FROM employee WHERE (LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ?)"
+                + " AND LOWER(department) = ?", "%yo%", "%yo%", "it");
+    }
+
+    @Test
+    void shouldOrderTheFullScanByWhitelistedColumns() {
+        Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "IT", new BigDecimal("123456"));
+        when(jdbc.query(anyString(), org.mockito.ArgumentMatchers.<RowMapper<Employee>>any()))
+                .thenReturn(List.of(expectedEmployee));
+
+        List<Employee> all = repository.findAll(Sort.by("lastName").descending().and(Sort.by("id")));
+
+        assertEquals(List.of(expectedEmployee), all);
+        verify(jdbc).query(eq("SELECT * FROM employee ORDER BY last_name DESC, id ASC"),
+                org.mockito.ArgumentMatchers.<RowMapper<Employee>>any());
+    }
+
+    @Test
+    void shouldRejectSortingByAnUnknownProperty() {
+        assertThrows(InvalidRequestException.class, () -> repository.findAll(Sort.by("password")));
+    }
+
     @Test
     void shouldReturnZeroWhenCountIsCalled() {
         when(jdbc.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
@@ -15,11 +15,15 @@ import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -67,6 +71,17 @@ class EmployeeRepositoryJPAImplTest {
         verify(jpa).save(employee);
     }
 
+    @Test
+    void shouldPersistAnInsertedEmployeeRatherThanMergeIt() {
+        employee.setVersion(3L);
+        when(jpa.saveAndFlush(employee)).thenReturn(employee);
+
+        repository.insert(employee);
+
+        verify(jpa).saveAndFlush(employee);
+        assertNull(employee.getVersion());
+    }
+
     @Test
     void shouldThrowTheExceptionWhenTheIdExists() {
         when(jpa.save(employee)).thenThrow(new DuplicateKeyException("Duplicate entry for id"));
@@ -136,6 +151,30 @@ class EmployeeRepositoryJPAImplTest {
         assertTrue(exception.getMessage().contains("not found"));
     }
 
+    @Test
+    void shouldReadIdsInChunksOfAtMostMaxIdsPerStatement() {
+        List<Integer> ids = IntStream.rangeClosed(1, 501).boxed().toList();
+        when(jpa.findAllById(ids.subList(0, 500))).thenReturn(List.of(employee));
+        when(jpa.findAllById(ids.subList(500, 501))).thenReturn(List.of());
+
+        List<Employee> employees = repository.findAllById(ids);
+
+        assertEquals(List.of(employee), employees);
+        verify(jpa, times(2)).findAllById(anyCollection());
+    }
+
+    @Test
+    void shouldDeleteIdsInChunksOfAtMostMaxIdsPerStatement() {
+        List<Integer> ids = IntStream.rangeClosed(1, 501).boxed().toList();
+        when(jpa.deleteByIdIn(ids.subList(0, 500))).thenReturn(500);
+        when(jpa.deleteByIdIn(ids.subList(500, 501))).thenReturn(1);
+
+        int deleted = repository.deleteAllById(ids);
+
+        assertEquals(501, deleted);
+        verify(jpa, times(2)).deleteByIdIn(anyCollection());
+    }
+
     @Test
     void shouldReturnZeroWhenCountIsCalled() {
         when(jpa.count()).thenReturn(0L);
@@ -146,6 +185,15 @@ class EmployeeRepositoryJPAImplTest {
         verify(jpa).count();
     }
 
+    @Test
+    void shouldDelegateEmailLookupsToJpaRepository() {
+        when(jpa.findIdByEmail("yousufbabashaik@gmail.com")).thenReturn(Optional.of(101));
+        when(jpa.findAllEmails()).thenReturn(List.of("yousufbabashaik@gmail.com"));
+
+        assertEquals(Optional.of(101), repository.findIdByEmail("yousufbabashaik@gmail.com"));
+        assertEquals(List.of("yousufbabashaik@gmail.com"), repository.findAllEmails());
+    }
+
     @Test
     void shouldReturnAllEmployeesCountWhenCountIsCalled() {
         when(jpa.count()).thenReturn(10L);
@@ -226,4 +274,13 @@ class EmployeeRepositoryJPAImplTest {
         assertEquals(employee, all.get(0));
         verify(jpa, times(1)).findByCriteriaForExport(name, department, sort);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldDelegatePatchToJpaRepository() {
+        Map<String, Object> changes = Map.of("salary", new BigDecimal("65000"));
+        when(jpa.patch(101, changes, 3L)).thenReturn(4L);
+
+        assertEquals(4L, repository.patch(101, changes, 3L));
+        verify(jpa).patch(101, changes, 3L);
+    }
+}
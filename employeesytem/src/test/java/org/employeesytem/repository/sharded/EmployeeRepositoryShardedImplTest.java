@@ -0,0 +1,481 @@
+package org.employeesytem.repository.sharded;
+
+import org.employeesytem.EmployeeSytemApplication;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.exceptions.DuplicateEmployeeException;
+import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.repository.EmployeeRepository.IdRange;
+import org.employeesytem.service.EmployeeService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the cases of the JPA repository's test, and those only sharding has, against three in-memory
+ * databases.
+ */
+class EmployeeRepositoryShardedImplTest {
+    private static final String[] DEPARTMENTS = {"IT", "HR", "Finance", "Sales"};
+
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private DataSource primary;
+    private EmployeeRepositoryShardedImpl repository;
+    private Employee employee;
+    private Sort sort;
+    private PageRequest pageRequest;
+
+    @BeforeEach
+    void setup() {
+        for (int shard = 0; shard < 3; shard++) {
+            dataSources.add(database("shard-" + shard + "-" + UUID.randomUUID()));
+        }
+        primary = database("primary-" + UUID.randomUUID());
+        repository = new EmployeeRepositoryShardedImpl(new EmployeeShards(dataSources), new JdbcTemplate(primary),
+                new StandardEnvironment(), true);
+        employee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "IT", new BigDecimal("123456.00"));
+        sort = Sort.by("firstName").ascending();
+        pageRequest = PageRequest.of(0, 5, sort);
+    }
+
+    @AfterEach
+    void stop() {
+        repository.destroy();
+    }
+
+    @Test
+    void shouldReturnAllEmployeesWhenFindAllIsCalled() {
+        repository.save(employee);
+
+        Page<Employee> all = repository.findAll(pageRequest);
+
+        assertEquals(1, all.getTotalElements());
+        assertEquals(employee, all.getContent().get(0));
+    }
+
+    @Test
+    void shouldSaveTheEmployeeSuccessfullyWhenTheIdIsUnique() {
+        Employee actualEmployee = repository.save(employee);
+
+        assertEquals(employee, actualEmployee);
+        assertEquals(1, rowsOn(repository.shardOf(101)));
+    }
+
+    @Test
+    void shouldThrowTheExceptionWhenAnotherEmployeeOnTheShardHasTheEmail() {
+        repository.save(employee);
+        int sameShard = IntStream.iterate(102, id -> id + 1)
+                .filter(id -> repository.shardOf(id) == repository.shardOf(101))
+                .findFirst().orElseThrow();
+
+        assertThrows(DuplicateKeyException.class, () -> repository.save(new Employee(sameShard, "Other", "Person",
+                "yousufbabashaik@gmail.com", "HR", new BigDecimal("50000"))));
+    }
+
+    @Test
+    void shouldThrowTheExceptionWhenAnEmployeeOnAnotherShardHasTheEmail() {
+        repository.save(employee);
+        int otherShard = IntStream.iterate(102, id -> id + 1)
+                .filter(id -> repository.shardOf(id) != repository.shardOf(101))
+                .findFirst().orElseThrow();
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(primary));
+
+        DuplicateKeyException exception = assertThrows(DuplicateKeyException.class,
+                () -> transactions.executeWithoutResult(status -> repository.save(new Employee(otherShard, "Other",
+                        "Person", "yousufbabashaik@gmail.com", "HR", new BigDecimal("50000")))));
+
+        assertTrue(EmployeeRepository.isEmailConflict(exception));
+        assertEquals(Optional.empty(), repository.findById(otherShard));
+    }
+
+    @Test
+    void shouldInsertWithoutOverwritingTheEmployeeThatHasTheId() {
+        repository.insert(employee);
+
+        assertThrows(DuplicateKeyException.class, () -> repository.insert(new Employee(101, "Other", "Person",
+                "other@example.com", "HR", new BigDecimal("50000"))));
+
+        assertEquals("Yousuf", repository.findById(101).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void shouldReturnTheVersionEachUpdateProducedWithOrWithoutAnExpectedOne() {
+        repository.save(employee);
+        employee.setSalary(new BigDecimal("130000.00"));
+
+        assertEquals(1L, repository.update(employee, null));
+        assertEquals(2L, repository.update(employee, 1L));
+        assertEquals(0L, repository.update(employee, 1L));
+        assertEquals(3L, repository.patch(101, Map.of("department", "HR"), null));
+        assertEquals(0L, repository.patch(101, Map.of("department", "IT"), 2L));
+        assertEquals(0L, repository.patch(999, Map.of("department", "IT"), null));
+        assertEquals(3L, repository.findById(101).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldReleaseTheEmailWhenItsEmployeeIsDeletedOrChangesIt() {
+        repository.save(employee);
+        repository.patch(101, Map.of("email", "changed@example.com"), null);
+
+        assertEquals(Optional.empty(), repository.findIdByEmail("yousufbabashaik@gmail.com"));
+        assertEquals(Optional.of(101), repository.findIdByEmail("changed@example.com"));
+
+        repository.deleteByCriteria("yousuf", null);
+
+        assertEquals(List.of(), repository.findAllEmails());
+    }
+
+    @Test
+    void shouldReconcileTheEmailClaimsWithTheShardsOnStart() {
+        saveEmployees(10);
+        JdbcTemplate claims = new JdbcTemplate(primary);
+        claims.update("DELETE FROM employee_email WHERE employee_id IN (2, 3)");
+        claims.update("UPDATE employee_email SET email = 'stale@example.com' WHERE employee_id = 4");
+        claims.update("INSERT INTO employee_email (employee_id, email) VALUES (99, 'gone@example.com')");
+
+        repository.afterPropertiesSet();
+
+        assertEquals(Optional.of(2), repository.findIdByEmail("employee2@example.com"));
+        assertEquals(Optional.of(4), repository.findIdByEmail("employee4@example.com"));
+        assertEquals(Optional.empty(), repository.findIdByEmail("gone@example.com"));
+        assertEquals(10, repository.findAllEmails().size());
+    }
+
+    @Test
+    void shouldReturnEmployeeWhenIdExists() {
+        repository.save(employee);
+
+        assertEquals(Optional.of(employee), repository.findById(101));
+    }
+
+    @Test
+    void shouldReturnEmptyWhenIdNotExists() {
+        assertEquals(Optional.empty(), repository.findById(101));
+    }
+
+    @Test
+    void shouldUpdateEmployeeWhenIdExists() {
+        repository.save(employee);
+        employee.setSalary(new BigDecimal("150000.00"));
+
+        repository.save(employee);
+
+        assertEquals(Optional.of(employee), repository.findById(101));
+        assertEquals(1L, repository.count());
+    }
+
+    @Test
+    void shouldDeleteEmployeeWhenIdExists() {
+        repository.save(employee);
+
+        repository.deleteById(101);
+
+        assertEquals(Optional.empty(), repository.findById(101));
+    }
+
+    @Test
+    void shouldThrowEmployeeNotFoundExceptionWhenIdNotExistsToDelete() {
+        EmployeeNotFoundException exception = assertThrows(EmployeeNotFoundException.class,
+                () -> repository.deleteById(101));
+
+        assertTrue(exception.getMessage().contains("not found"));
+    }
+
+    @Test
+    void shouldDeleteIdsOnEveryShardTheyLiveOn() {
+        saveEmployees(501);
+
+        int deleted = repository.deleteAllById(IntStream.rangeClosed(1, 501).boxed().toList());
+
+        assertEquals(501, deleted);
+        assertEquals(0L, repository.count());
+    }
+
+    @Test
+    void shouldReadIdsFromEveryShardTheyLiveOn() {
+        List<Employee> saved = saveEmployees(10);
+
+        List<Employee> found = repository.findAllById(List.of(9, 2, 42, 5, 1));
+
+        assertEquals(List.of(saved.get(0), saved.get(1), saved.get(4), saved.get(8)),
+                sorted(found, Comparator.comparingInt(Employee::getId)));
+    }
+
+    @Test
+    void shouldReturnZeroWhenCountIsCalled() {
+        assertEquals(0L, repository.count());
+    }
+
+    @Test
+    void shouldReturnAllEmployeesCountWhenCountIsCalled() {
+        saveEmployees(10);
+
+        assertEquals(10L, repository.count());
+    }
+
+    @Test
+    void shouldLookUpEmailsOfEveryShard() {
+        List<Employee> saved = saveEmployees(10);
+
+        assertEquals(Optional.of(7), repository.findIdByEmail(saved.get(6).getEmail()));
+        assertEquals(Optional.empty(), repository.findIdByEmail("nobody@example.com"));
+        assertEquals(10, repository.findAllEmails().size());
+    }
+
+    @Test
+    void shouldReturnAllNameMatchedEmployeesWhenNameIsNotNull() {
+        repository.save(employee);
+        saveEmployees(10);
+
+        Page<Employee> all = repository.findByCriteria("Yousuf", null, pageRequest);
+
+        assertEquals(1, all.getTotalElements());
+        assertEquals(employee, all.getContent().get(0));
+    }
+
+    @Test
+    void shouldReturnAllDepartmentMatchedEmployeesWhenDepartmentIsNotNull() {
+        List<Employee> saved = saveEmployees(20);
+
+        Page<Employee> all = repository.findByCriteria(null, "hr", PageRequest.of(0, 100, Sort.by("id")));
+
+        assertEquals(saved.stream().filter(e -> e.getDepartment().equals("HR")).toList(), all.getContent());
+        assertEquals(5, all.getTotalElements());
+    }
+
+    @Test
+    void shouldReturnAllListOfEmployeesWhenFindAllIsCalledWithoutPaginationRequest() {
+        List<Employee> saved = saveEmployees(30);
+
+        List<Employee> all = repository.findAll(sort);
+
+        assertEquals(sorted(saved, Comparator.comparing(Employee::getFirstName)), all);
+    }
+
+    @Test
+    void shouldReturnAllDepartmentMatchedEmployeesWhenDepartmentIsPassedForExport() {
+        List<Employee> saved = saveEmployees(30);
+
+        List<Employee> all = repository.findByCriteriaForExport(null, "IT", sort);
+
+        assertEquals(sorted(saved.stream().filter(e -> e.getDepartment().equals("IT")).toList(),
+                Comparator.comparing(Employee::getFirstName)), all);
+    }
+
+    @Test
+    void shouldReturnAllNameMatchedEmployeesWhenNameIsPassedForExport() {
+        repository.save(employee);
+        saveEmployees(30);
+
+        assertEquals(List.of(employee), repository.findByCriteriaForExport("yousuf", null, sort));
+    }
+
+    @Test
+    void shouldReturnAllNameDepartmentMatchedEmployeesWhenNameAndDepartmentArePassedForExport() {
+        repository.save(employee);
+        saveEmployees(30);
+
+        assertEquals(List.of(employee), repository.findByCriteriaForExport("Yousuf", "IT", sort));
+        assertEquals(List.of(), repository.findByCriteriaForExport("Yousuf", "HR", sort));
+    }
+
+    @Test
+    void shouldPatchTheEmployeeOnItsShard() {
+        repository.save(employee);
+
+        assertEquals(1L, repository.patch(101, Map.of("salary", new BigDecimal("65000.00")), 0L));
+
+        assertEquals(new BigDecimal("65000.00"), repository.findById(101).orElseThrow().getSalary());
+        assertEquals(0L, repository.patch(101, Map.of("department", "HR"), 0L));
+    }
+
+    @Test
+    void shouldSpreadEmployeesOverEveryShard() {
+        saveEmployees(60);
+
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            assertTrue(rowsOn(shard) >= 10, "shard " + shard + " holds " + rowsOn(shard));
+        }
+    }
+
+    @Test
+    void shouldPageInTheOrderOneDatabaseWould() {
+        List<Employee> saved = saveEmployees(50);
+        List<Employee> expected = sorted(saved, Comparator.comparing(Employee::getSalary).reversed());
+        Sort bySalary = Sort.by("salary").descending();
+
+        List<Employee> paged = new ArrayList<>();
+        Page<Employee> page;
+        Pageable pageable = PageRequest.of(0, 7, bySalary);
+        do {
+            page = repository.findAll(pageable);
+            assertEquals(50, page.getTotalElements());
+            paged.addAll(page.getContent());
+            pageable = pageable.next();
+        } while (page.hasNext());
+
+        assertEquals(expected, paged);
+        assertEquals(8, page.getTotalPages());
+    }
+
+    @Test
+    void shouldStreamExportsInTheOrderOneDatabaseWould() {
+        List<Employee> saved = saveEmployees(50);
+        List<Employee> streamed = new ArrayList<>();
+
+        int rows = repository.streamForExport(null, null, Sort.by("lastName").descending(), streamed::add);
+
+        assertEquals(50, rows);
+        assertEquals(sorted(saved, Comparator.comparing(Employee::getLastName).reversed()), streamed);
+    }
+
+    @Test
+    void shouldStreamOneIdRangeInTheOrderOneDatabaseWould() {
+        List<Employee> saved = saveEmployees(50);
+        List<Employee> streamed = new ArrayList<>();
+
+        int rows = repository.streamRangeForExport(null, "IT", 11, 40, Sort.by("salary").descending(), streamed::add);
+
+        List<Employee> expected = sorted(saved.stream()
+                .filter(e -> e.getId() >= 11 && e.getId() <= 40 && e.getDepartment().equals("IT"))
+                .toList(), Comparator.comparing(Employee::getSalary).reversed());
+        assertEquals(expected.size(), rows);
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    void shouldMergeIdRangesAndModifiedEmployeesFromEveryShard() {
+        saveEmployees(30);
+
+        assertEquals(Optional.of(new IdRange(1, 30)), repository.findIdRange());
+        assertEquals(IntStream.rangeClosed(11, 20).boxed().toList(),
+                repository.findRangeForExport(null, null, 11, 20, Sort.by("id")).stream().map(Employee::getId).toList());
+        List<Employee> modified = new ArrayList<>();
+        assertEquals(30, repository.streamModifiedBetween(LocalDateTime.now().minusHours(1),
+                LocalDateTime.now().plusHours(1), modified::add));
+        assertEquals(30, modified.stream().map(Employee::getId).distinct().count());
+    }
+
+    @Test
+    void shouldRejectASortItCannotMerge() {
+        assertThrows(InvalidRequestException.class, () -> repository.findAll(Sort.by("version")));
+    }
+
+    @Test
+    void shouldCommitAndRollBackShardWritesWithTheCallersTransaction() {
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(primary));
+
+        transactions.executeWithoutResult(status -> {
+            repository.save(employee);
+            status.setRollbackOnly();
+        });
+        assertEquals(Optional.empty(), repository.findById(101));
+        assertEquals(Optional.empty(), repository.findIdByEmail(employee.getEmail()));
+
+        transactions.executeWithoutResult(status -> repository.save(employee));
+        assertEquals(Optional.of(employee), repository.findById(101));
+    }
+
+    @Test
+    void shouldServeEmployeesUnderTheShardedProfile() {
+        String spoolDir = "target/audit-spool/" + UUID.randomUUID();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EmployeeSytemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=sharded",
+                        "--spring.datasource.url=" + url("primary-" + UUID.randomUUID()),
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--employee.sharding.shards[0].url=" + url("profile-shard-0-" + UUID.randomUUID()),
+                        "--employee.sharding.shards[0].username=sa",
+                        "--employee.sharding.shards[1].url=" + url("profile-shard-1-" + UUID.randomUUID()),
+                        "--employee.sharding.shards[1].username=sa",
+                        "--employee.audit.spool-dir=" + spoolDir)) {
+            EmployeeService service = context.getBean(EmployeeService.class);
+            for (int id = 1; id <= 10; id++) {
+                service.addEmployee(new Employee(id, "Sharded", "Employee", "sharded" + id + "@example.com", "IT",
+                        new BigDecimal("50000")));
+            }
+            service.deleteEmployee(3);
+
+            assertEquals(9L, service.getEmployeeCount());
+            assertEquals(9, service.findAllEmployees(PageRequest.of(0, 20), null, null).getContent().size());
+            EmployeeShards shards = context.getBean(EmployeeShards.class);
+            for (DataSource shard : shards.dataSources()) {
+                long rows = new JdbcTemplate(shard).queryForObject("SELECT COUNT(*) FROM employee", Long.class);
+                assertTrue(rows > 0 && rows < 9, "a shard holds " + rows);
+            }
+            assertEquals(11, service.addEmployee(new Employee(0, "Sharded", "Employee", "allocated@example.com", "IT",
+                    new BigDecimal("50000"))).getId());
+            for (int id = 12; id <= 13; id++) {
+                Employee sameEmail = new Employee(id, "Sharded", "Employee", "sharded1@example.com", "IT",
+                        new BigDecimal("50000"));
+                assertThrows(DuplicateEmployeeException.class, () -> service.addEmployee(sameEmail));
+            }
+        }
+    }
+
+    private List<Employee> saveEmployees(int count) {
+        Random random = new Random(count);
+        List<Employee> saved = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            Employee next = new Employee(id, "First" + random.nextInt(1000), "Last" + random.nextInt(1000),
+                    "employee" + id + "@example.com", DEPARTMENTS[id % DEPARTMENTS.length],
+                    new BigDecimal(random.nextInt(20) * 5000 + 30000).setScale(2));
+            saved.add(repository.save(next));
+        }
+        return saved;
+    }
+
+    private static List<Employee> sorted(List<Employee> employees, Comparator<Employee> order) {
+        return employees.stream().sorted(order.thenComparingInt(Employee::getId)).toList();
+    }
+
+    private long rowsOn(int shard) {
+        return new JdbcTemplate(dataSources.get(shard)).queryForObject("SELECT COUNT(*) FROM employee", Long.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url(name));
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+}
@@ -0,0 +1,67 @@
+package org.employeesytem.repository.sharded;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.service.EmployeeBulkheads;
+import org.employeesytem.service.WorkloadClass;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardQueryExecutorsTest {
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("employee.background.pool-size", "1");
+    private final ShardQueryExecutors executors = new ShardQueryExecutors(1, environment);
+    private final EmployeeBulkheads bulkheads = new EmployeeBulkheads(environment, new SimpleMeterRegistry(), 1);
+
+    @AfterEach
+    void stop() {
+        executors.shutdownNow();
+        bulkheads.destroy();
+    }
+
+    @Test
+    void shouldRunQueriesOnTheExecutorOfTheCallersWorkload() throws Exception {
+        String thread = bulkheads.execute(WorkloadClass.BULK,
+                () -> get(executors.submit(() -> Thread.currentThread().getName())));
+
+        assertTrue(thread.startsWith("employee-shard-bulk-"), thread);
+        assertTrue(executors.submit(() -> Thread.currentThread().getName()).get().startsWith("employee-shard-background-"));
+    }
+
+    @Test
+    void shouldRefuseQueriesBeyondTheThreadsAndQueueOfTheWorkload() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = executors.submit(() -> awaitUninterruptibly(release));
+        Future<?> queued = executors.submit(() -> awaitUninterruptibly(release));
+
+        assertThrows(ServiceOverloadedException.class, () -> executors.submit(() -> true));
+
+        release.countDown();
+        running.get();
+        queued.get();
+        assertTrue(running.isDone() && queued.isDone());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> T get(Future<T> result) {
+        try {
+            return result.get();
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.employeesytem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.EmployeeSytemApplication;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeAuditRecord;
+import org.employeesytem.dto.EmployeeAuditRecord.Action;
+import org.employeesytem.dto.EmployeePatch;
+import org.employeesytem.exceptions.DuplicateEmployeeException;
+import org.employeesytem.repository.EmployeeAuditRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jakarta.validation.Validation;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the audit trail against an in-memory database, with a spool directory under {@code target}.
+ */
+class EmployeeAuditTrailTest {
+    private final String url = "jdbc:h2:mem:audit-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private final Path spoolDir = Path.of("target", "audit-spool", UUID.randomUUID().toString());
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jpa", "jdbc"})
+    void shouldRecordEveryWriteWithTheVersionItProducedInTheBackground(String profile) throws Exception {
+        ConfigurableApplicationContext context = start(profile, "spool");
+        EmployeeService service = context.getBean(EmployeeService.class);
+        EmployeeAuditRepository audit = context.getBean(EmployeeAuditRepository.class);
+
+        service.addEmployee(employee("audited@example.com"));
+        Employee raised = employee("audited@example.com");
+        raised.setSalary(new BigDecimal("60000"));
+        service.updateEmployee(101, raised);
+        service.patchEmployee(101, EmployeePatch.of(Map.of("department", "HR"),
+                Validation.buildDefaultValidatorFactory().getValidator()), 1L);
+        service.deleteEmployee(101);
+        List<EmployeeAuditRecord> trail = awaitTrail(audit, 4);
+
+        assertEquals(List.of(Action.CREATE, Action.UPDATE, Action.PATCH, Action.DELETE),
+                trail.stream().map(EmployeeAuditRecord::action).toList());
+        assertNull(trail.get(0).before());
+        assertEquals(0, json(trail.get(0).after()).get("version").asInt());
+        assertNull(trail.get(1).before());
+        assertEquals(60000, json(trail.get(1).after()).get("salary").asInt());
+        assertEquals(1, json(trail.get(1).after()).get("version").asInt());
+        assertNull(trail.get(2).before());
+        assertEquals("HR", json(trail.get(2).after()).get("department").asText());
+        assertEquals(2, json(trail.get(2).after()).get("version").asInt());
+        assertNull(json(trail.get(2).after()).get("salary"));
+        assertNull(trail.get(3).before());
+        assertNull(trail.get(3).after());
+        awaitEmptySpool();
+    }
+
+    @Test
+    void shouldQueueRecordsByDefaultWithoutASpool() throws Exception {
+        ConfigurableApplicationContext context = start("jdbc", null);
+        EmployeeService service = context.getBean(EmployeeService.class);
+
+        service.addEmployee(employee("queued@example.com"));
+        service.deleteEmployee(101);
+
+        List<EmployeeAuditRecord> trail = awaitTrail(context.getBean(EmployeeAuditRepository.class), 2);
+        assertEquals(List.of(Action.CREATE, Action.DELETE), trail.stream().map(EmployeeAuditRecord::action).toList());
+        assertTrue(Files.notExists(spoolDir.resolve("employee-audit.spool")));
+    }
+
+    @Test
+    void shouldRetryAnOverflowInsertThatFailedAndThenTruncateTheSpool() throws Exception {
+        EmployeeAuditRepository repository = mock(EmployeeAuditRepository.class);
+        doThrow(new QueryTimeoutException("database is away")).doNothing().when(repository).insertAll(any());
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        EmployeeAuditTrail trail = new EmployeeAuditTrail(repository, mock(PlatformTransactionManager.class),
+                new ObjectMapper().findAndRegisterModules(), meters, "spool", spoolDir.toString(), 1, 10, 20);
+        trail.afterSingletonsInstantiated();
+        try {
+            for (String email : List.of("first@example.com", "second@example.com")) {
+                EmployeeAuditTrail.Pending pending = trail.pending();
+                pending.created(employee(email));
+                pending.publish();
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (meters.get("employee.audit.records").counter().count() < 2) {
+                assertTrue(System.nanoTime() < deadline, "the failed insert was never retried");
+                Thread.sleep(10);
+            }
+            awaitEmptySpool();
+            assertEquals(1, meters.get("employee.audit.failures").counter().count());
+        } finally {
+            trail.destroy();
+        }
+    }
+
+    @Test
+    void shouldRecordInTheWritesTransactionAndNotForOneThatRolledBack() {
+        ConfigurableApplicationContext context = start("jpa", "transaction");
+        EmployeeService service = context.getBean(EmployeeService.class);
+        service.addEmployee(employee("first@example.com"));
+
+        assertThrows(DuplicateEmployeeException.class, () -> service.addEmployee(employee("second@example.com")));
+
+        List<EmployeeAuditRecord> trail = context.getBean(EmployeeAuditRepository.class).findByEmployeeId(101);
+        assertEquals(1, trail.size());
+        assertEquals("first@example.com", json(trail.get(0).after()).get("email").asText());
+        assertTrue(Files.notExists(spoolDir.resolve("employee-audit.spool")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jpa", "jdbc"})
+    void shouldRecordEveryEmployeeABulkDeleteRemoved(String profile) {
+        ConfigurableApplicationContext context = start(profile, "transaction");
+        EmployeeService service = context.getBean(EmployeeService.class);
+        EmployeeAuditRepository audit = context.getBean(EmployeeAuditRepository.class);
+        for (int id = 101; id <= 104; id++) {
+            Employee employee = employee("bulk" + id + "@example.com");
+            employee.setId(id);
+            employee.setDepartment(id % 2 == 0 ? "HR" : "IT");
+            service.addEmployee(employee);
+        }
+
+        assertEquals(2, service.deleteEmployees(List.of(101, 102, 105), null, null));
+        assertEquals(1, service.deleteEmployees(null, null, "HR"));
+
+        for (int id = 101; id <= 104; id++) {
+            List<EmployeeAuditRecord> trail = audit.findByEmployeeId(id);
+            if (id == 103) {
+                assertEquals(List.of(Action.CREATE), trail.stream().map(EmployeeAuditRecord::action).toList());
+                continue;
+            }
+            assertEquals(List.of(Action.CREATE, Action.DELETE), trail.stream().map(EmployeeAuditRecord::action).toList());
+            assertEquals("bulk" + id + "@example.com", json(trail.get(1).before()).get("email").asText());
+            assertNull(trail.get(1).after());
+        }
+    }
+
+    @Test
+    void shouldReplayWhatTheSpoolHoldsAtStartupWithoutDuplicatingRecordedEvents() throws Exception {
+        ConfigurableApplicationContext first = start("jpa", "transaction");
+        first.getBean(EmployeeService.class).addEmployee(employee("replayed@example.com"));
+        EmployeeAuditRecord recorded = first.getBean(EmployeeAuditRepository.class).findByEmployeeId(101).get(0);
+        ObjectMapper objectMapper = first.getBean(ObjectMapper.class);
+        EmployeeAuditRecord lost = new EmployeeAuditRecord(UUID.randomUUID().toString(), Action.DELETE, 101,
+                recorded.after(), null, Instant.now());
+        Files.createDirectories(spoolDir);
+        Files.writeString(spoolDir.resolve("employee-audit.spool"), objectMapper.writeValueAsString(recorded) + "\n"
+                + objectMapper.writeValueAsString(lost) + "\n{\"eventId\":\"torn", StandardCharsets.UTF_8);
+        first.close();
+
+        ConfigurableApplicationContext second = start("jpa", "spool");
+
+        List<EmployeeAuditRecord> trail = second.getBean(EmployeeAuditRepository.class).findByEmployeeId(101);
+        assertEquals(List.of(recorded.eventId(), lost.eventId()),
+                trail.stream().map(EmployeeAuditRecord::eventId).toList());
+        assertEquals(0, Files.size(spoolDir.resolve("employee-audit.spool")));
+    }
+
+    @Test
+    void shouldRefuseASpoolAnotherNodeIsUsing() {
+        start("jpa", "spool");
+
+        Exception exception = assertThrows(Exception.class, () -> start("jpa", "spool"));
+
+        Throwable cause = exception;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause.getMessage().contains("in use by another process"), cause.getMessage());
+    }
+
+    /**
+     * Starts the application with {@code durability}, or with the default if it is {@code null}.
+     */
+    private ConfigurableApplicationContext start(String profile, String durability) {
+        List<String> args = new ArrayList<>(List.of("--spring.profiles.active=" + profile,
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--employee.audit.spool-dir=" + spoolDir));
+        if (durability != null) {
+            args.add("--employee.audit.durability=" + durability);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EmployeeSytemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        contexts.add(context);
+        return context;
+    }
+
+    private static List<EmployeeAuditRecord> awaitTrail(EmployeeAuditRepository audit, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<EmployeeAuditRecord> trail;
+        while ((trail = audit.findByEmployeeId(101)).size() < size) {
+            assertTrue(System.nanoTime() < deadline, "audit trail has " + trail.size() + " records");
+            Thread.sleep(10);
+        }
+        return trail;
+    }
+
+    private void awaitEmptySpool() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (Files.size(spoolDir.resolve("employee-audit.spool")) > 0) {
+            assertTrue(System.nanoTime() < deadline, "spool was never truncated");
+            Thread.sleep(10);
+        }
+    }
+
+    private static JsonNode json(String image) {
+        try {
+            return new ObjectMapper().readTree(image);
+        } catch (IOException exception) {
+            throw new AssertionError(exception);
+        }
+    }
+
+    private static Employee employee(String email) {
+        return new Employee(101, "Audit", "Subject", email, "IT", new BigDecimal("50000"));
+    }
+}
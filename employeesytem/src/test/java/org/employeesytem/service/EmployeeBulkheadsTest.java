@@ -0,0 +1,96 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeBulkheadsTest {
+    private SimpleMeterRegistry meterRegistry;
+    private EmployeeBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("employee.bulkhead.bulk.pool-size", "1")
+                .withProperty("employee.bulkhead.bulk.queue-capacity", "1");
+        meterRegistry = new SimpleMeterRegistry();
+        bulkheads = new EmployeeBulkheads(environment, meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.destroy();
+    }
+
+    @Test
+    void shouldRunWorkOnAThreadBoundToItsWorkload() {
+        assertNull(EmployeeBulkheads.currentWorkload());
+
+        assertEquals(WorkloadClass.BULK, bulkheads.execute(WorkloadClass.BULK, EmployeeBulkheads::currentWorkload));
+        assertEquals(WorkloadClass.INTERACTIVE_READ,
+                bulkheads.execute(WorkloadClass.INTERACTIVE_READ, EmployeeBulkheads::currentWorkload));
+    }
+
+    @Test
+    void shouldCarryTheOperationToTheBulkheadThreadAndToWorkItSubmits() throws Exception {
+        assertEquals("exportEmployees", bulkheads.execute(WorkloadClass.BULK, "exportEmployees",
+                () -> bulkheads.await(WorkloadClass.INTERACTIVE_READ,
+                        bulkheads.submit(WorkloadClass.INTERACTIVE_READ, EmployeeBulkheads::currentOperation))));
+        assertEquals("count", bulkheads.execute(WorkloadClass.BULK, "count", EmployeeBulkheads::currentOperation));
+        assertNull(bulkheads.execute(WorkloadClass.BULK, EmployeeBulkheads::currentOperation));
+        assertNull(EmployeeBulkheads.currentOperation());
+    }
+
+    @Test
+    void shouldRejectBulkWorkWhenItsQueueIsFullWithoutAffectingInteractiveReads() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> bulkheads.execute(WorkloadClass.BULK, () -> {
+            running.countDown();
+            await(release);
+            return 1;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> bulkheads.execute(WorkloadClass.BULK, () -> 2));
+        while (meterRegistry.get("executor.queued").tag("workload", "bulk").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> bulkheads.execute(WorkloadClass.BULK, () -> 3));
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(4, bulkheads.execute(WorkloadClass.INTERACTIVE_READ, () -> 4));
+
+        release.countDown();
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldRethrowTheCallersExceptionUnwrapped() {
+        assertThrows(EmployeeNotFoundException.class, () -> bulkheads.execute(WorkloadClass.WRITE, () -> {
+            throw new EmployeeNotFoundException("Employee with ID 1 not found");
+        }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
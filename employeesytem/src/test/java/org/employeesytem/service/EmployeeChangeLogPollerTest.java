@@ -0,0 +1,166 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeChangeLogRepository;
+import org.employeesytem.repository.EmployeeChangeLogRepository.Change;
+import org.employeesytem.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeChangeLogPollerTest {
+    @Mock
+    private EmployeeChangeLogRepository changeLog;
+
+    @Mock
+    private EmployeePageCache pageCache;
+
+    @Mock
+    private EmployeeReadCoalescer coalescer;
+
+    @Mock
+    private EmployeeSalarySnapshot salarySnapshot;
+
+    @Mock
+    private EmployeeSuggestionIndex suggestionIndex;
+
+    @Mock
+    private EmployeeEmailGuard emailGuard;
+
+    @Mock
+    private EmployeeRepository repository;
+
+    private EmployeeBulkheads bulkheads;
+    private EmployeeChangeLogPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkheads = new EmployeeBulkheads(new StandardEnvironment(), new SimpleMeterRegistry(), 1);
+        poller = poller(10_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        poller.destroy();
+        bulkheads.destroy();
+    }
+
+    @Test
+    void shouldInvalidateTheCachesWhenAnotherNodeLoggedAChange() {
+        when(changeLog.findAfter(0, 100)).thenReturn(List.of(new Change(1, 101, 1L), new Change(2, 102, null)));
+        when(changeLog.findAfter(2, 100)).thenReturn(List.of());
+
+        assertEquals(2, poller.poll());
+        assertEquals(0, poller.poll());
+
+        verify(pageCache, times(1)).invalidate();
+        verify(coalescer, times(1)).invalidate();
+        verify(salarySnapshot).refreshInBackground(Set.of(101, 102));
+    }
+
+    @Test
+    void shouldReloadTheSalarySnapshotWhenAChangeNamesNoEmployee() {
+        when(changeLog.findAfter(0, 100)).thenReturn(List.of(new Change(1, 101, 1L), new Change(2, null, null)));
+
+        assertEquals(2, poller.poll());
+
+        verify(salarySnapshot).reloadInBackground();
+        verify(salarySnapshot, never()).refreshInBackground(any());
+    }
+
+    @Test
+    void shouldReadTheChangedEmployeesOnceForTheSuggestionsAndTheEmailFilter() throws Exception {
+        List<Employee> found = List.of(employee(101));
+        when(changeLog.findAfter(0, 100)).thenReturn(List.of(new Change(1, 101, 1L), new Change(2, 102, null)));
+        when(repository.findAllById(any())).thenReturn(found);
+
+        poller.poll();
+        poller.awaitBackgroundWork();
+
+        verify(repository).findAllById(argThat(ids -> Set.copyOf(ids).equals(Set.of(101, 102))));
+        verify(suggestionIndex).refresh(argThat(ids -> Set.copyOf(ids).equals(Set.of(101, 102))), eq(found));
+        verify(emailGuard).addAll(found);
+    }
+
+    @Test
+    void shouldReloadTheSuggestionsWhenAChangeNamesNoEmployee() throws Exception {
+        List<Employee> all = List.of(employee(101), employee(102));
+        when(changeLog.findAfter(0, 100)).thenReturn(List.of(new Change(1, null, null)));
+        when(repository.findAll(Sort.by("id"))).thenReturn(all);
+
+        poller.poll();
+        poller.awaitBackgroundWork();
+
+        verify(suggestionIndex).replaceAll(all);
+        verify(emailGuard).addAll(all);
+        verify(suggestionIndex, never()).refresh(any(), any());
+    }
+
+    @Test
+    void shouldPickUpAChangeThatCommitsAfterAHigherSequence() {
+        when(changeLog.findAfter(0, 100)).thenReturn(List.of(new Change(1, 101, 1L), new Change(3, 103, 1L)));
+        when(changeLog.findAfter(1, 100))
+                .thenReturn(List.of(new Change(3, 103, 1L)))
+                .thenReturn(List.of(new Change(2, 102, 4L), new Change(3, 103, 1L)));
+        when(changeLog.findAfter(3, 100)).thenReturn(List.of());
+
+        assertEquals(2, poller.poll());
+        assertEquals(0, poller.poll());
+        assertEquals(1, poller.poll());
+        assertEquals(0, poller.poll());
+
+        verify(pageCache, times(2)).invalidate();
+    }
+
+    @Test
+    void shouldGiveUpOnAMissingSequenceAfterTheGapTimeout() {
+        poller.destroy();
+        poller = poller(0);
+        when(changeLog.findAfter(0, 100)).thenReturn(List.of(new Change(2, 102, 1L)));
+        when(changeLog.findAfter(2, 100)).thenReturn(List.of());
+
+        assertEquals(1, poller.poll());
+        assertEquals(0, poller.poll());
+        assertEquals(0, poller.poll());
+
+        verify(changeLog).findAfter(2, 100);
+    }
+
+    @Test
+    void shouldLeaveTheCachesAloneWhenNothingWasLogged() {
+        when(changeLog.findAfter(0, 100)).thenReturn(List.of());
+
+        assertEquals(0, poller.poll());
+
+        verify(pageCache, never()).invalidate();
+        verify(salarySnapshot, never()).refreshInBackground(any());
+    }
+
+    private EmployeeChangeLogPoller poller(long gapTimeoutMillis) {
+        return new EmployeeChangeLogPoller(changeLog, pageCache, coalescer, salarySnapshot, suggestionIndex, emailGuard,
+                repository, bulkheads, new SimpleMeterRegistry(), 50, 100, gapTimeoutMillis, 60);
+    }
+
+    private static Employee employee(int id) {
+        return new Employee(id, "Jo", "Lee", "employee" + id + "@example.com", "IT", new BigDecimal("1000"));
+    }
+}
@@ -0,0 +1,110 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.employeesytem.EmployeeSytemApplication;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.exceptions.DuplicateEmployeeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application contexts sharing one in-memory database stand in for two nodes behind a load
+ * balancer. Their page caches only hear of each other's writes through the change log.
+ */
+class EmployeeChangeLogTwoNodeTest {
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10);
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        String url = "jdbc:h2:mem:nodes-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        nodeA = start(url);
+        nodeB = start(url);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void shouldShowAWriteOnOneNodeInTheOtherNodesCachedPages() throws InterruptedException {
+        EmployeeService serviceA = nodeA.getBean(EmployeeService.class);
+        EmployeeService serviceB = nodeB.getBean(EmployeeService.class);
+        serviceB.findAllEmployees(FIRST_PAGE, null, null);
+        serviceB.findAllEmployees(FIRST_PAGE, null, null);
+        assertEquals(1.0, nodeB.getBean(MeterRegistry.class).counter("employee.page-cache.requests", "result", "hit").count());
+
+        serviceA.addEmployee(employee("first@example.com"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (serviceB.findAllEmployees(FIRST_PAGE, null, null).getTotalElements() == 0) {
+            assertTrue(System.nanoTime() < deadline, "node B never saw node A's write");
+            Thread.sleep(10);
+        }
+        assertTrue(nodeB.getBean(MeterRegistry.class).counter("employee.change-log.changes").count() >= 1);
+    }
+
+    @Test
+    void shouldSuggestAndGuardTheEmailOfAnEmployeeAddedOnTheOtherNode() throws InterruptedException {
+        nodeA.getBean(EmployeeService.class).addEmployee(employee("first@example.com"));
+
+        EmployeeSuggestionIndex suggestionsB = nodeB.getBean(EmployeeSuggestionIndex.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (suggestionsB.suggest("node", 10).isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "node B never indexed node A's employee");
+            Thread.sleep(10);
+        }
+
+        assertThrows(DuplicateEmployeeException.class,
+                () -> nodeB.getBean(EmployeeService.class).addEmployee(employee("first@example.com")));
+        assertEquals(1.0, nodeB.getBean(MeterRegistry.class)
+                .counter("employee.email-filter.checks", "outcome", "conflict").count());
+    }
+
+    @Test
+    void shouldNotLogAWriteThatRolledBack() {
+        nodeA.getBean(EmployeeService.class).addEmployee(employee("taken@example.com"));
+
+        // Node B may not have polled the log yet, in which case only the database constraint stops it
+        assertThrows(DuplicateEmployeeException.class,
+                () -> nodeB.getBean(EmployeeService.class).addEmployee(employee("taken@example.com")));
+
+        JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM employee", Integer.class));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM employee_change_log", Integer.class));
+    }
+
+    private static ConfigurableApplicationContext start(String url) {
+        return new SpringApplicationBuilder(EmployeeSytemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--employee.change-log.poll-interval-ms=50",
+                        "--employee.page-cache.max-age=10m",
+                        "--employee.audit.spool-dir=target/audit-spool/" + UUID.randomUUID());
+    }
+
+    private static Employee employee(String email) {
+        return new Employee(0, "Node", "Writer", email, "IT", new BigDecimal("50000"));
+    }
+}
@@ -0,0 +1,166 @@
+package org.employeesytem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeChangeStreamTest {
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CountDownLatch release;
+    private EmployeeChangeStream stream;
+
+    @BeforeEach
+    void setUp() {
+        release = new CountDownLatch(0);
+        stream = new EmployeeChangeStream(new ObjectMapper(), meterRegistry, 4, 8, 60_000, 0, 1) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(release);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        stream.destroy();
+    }
+
+    @Test
+    void shouldDeliverEachChangeToEverySubscriber() throws Exception {
+        stream.subscribe(null);
+        stream.subscribe(null);
+
+        stream.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(7)));
+
+        for (RecordingEmitter emitter : emitters) {
+            String event = emitter.awaitEvents(1).get(0);
+            assertTrue(event.contains("event:employee"), event);
+            assertTrue(event.contains("\"type\":\"DELETED\""), event);
+            assertTrue(event.contains("\"ids\":[7]"), event);
+        }
+    }
+
+    @Test
+    void shouldReplayChangesMissedSinceLastEventId() throws Exception {
+        stream.subscribe(null);
+        stream.onEmployeeChanged(EmployeeChangedEvent.created(employee(1)));
+        String lastSeen = eventId(emitters.get(0).awaitEvents(1).get(0));
+        stream.onEmployeeChanged(EmployeeChangedEvent.created(employee(2)));
+        stream.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(1)));
+
+        stream.subscribe(lastSeen);
+
+        List<String> replayed = emitters.get(1).awaitEvents(2);
+        assertTrue(replayed.get(0).contains("\"id\":2"), replayed.get(0));
+        assertTrue(replayed.get(1).contains("\"ids\":[1]"), replayed.get(1));
+    }
+
+    @Test
+    void shouldSendResetWhenLastEventIdIsNoLongerRetained() throws Exception {
+        stream.subscribe(null);
+        stream.onEmployeeChanged(EmployeeChangedEvent.created(employee(1)));
+        String lastSeen = eventId(emitters.get(0).awaitEvents(1).get(0));
+        for (int i = 0; i < 10; i++) {
+            stream.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(i)));
+        }
+
+        stream.subscribe(lastSeen);
+
+        assertTrue(emitters.get(1).awaitEvents(1).get(0).contains("event:reset"));
+    }
+
+    @Test
+    void shouldSendResetForAnIdFromAnotherProcess() throws Exception {
+        stream.subscribe("0-5");
+
+        assertTrue(emitters.get(0).awaitEvents(1).get(0).contains("event:reset"));
+    }
+
+    @Test
+    void shouldEvictASubscriberWhoseBufferOverflowsWithoutDelayingOthers() throws Exception {
+        release = new CountDownLatch(1);
+        stream.subscribe(null);
+        RecordingEmitter slow = emitters.get(0);
+
+        stream.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(0)));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            stream.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(i)));
+        }
+
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, stream.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("employee.changes.evictions").counter().count());
+    }
+
+    private static String eventId(String event) {
+        Matcher matcher = EVENT_ID.matcher(event);
+        assertTrue(matcher.find(), event);
+        return matcher.group(1);
+    }
+
+    private static Employee employee(int id) {
+        return new Employee(id, "Yousuf", "Shaik", "employee" + id + "@example.com", "IT", new BigDecimal("1000"));
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private List<String> awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(events.size() >= count, "received " + events);
+            return events;
+        }
+    }
+}
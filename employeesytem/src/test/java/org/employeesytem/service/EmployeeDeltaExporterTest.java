@@ -0,0 +1,102 @@
+package org.employeesytem.service;
+
+import org.employeesytem.EmployeeSytemApplication;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeDelta;
+import org.employeesytem.exceptions.ChangeHistoryUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs delta exports against an in-memory database under each repository profile, since each one
+ * stamps {@code last_modified} in its own SQL.
+ */
+class EmployeeDeltaExporterTest {
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void stop() {
+        context.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jpa", "jdbc"})
+    void shouldReturnTheRowsChangedAndTheIdsDeletedSinceTheWatermark(String profile) throws InterruptedException {
+        start(profile);
+        EmployeeService service = context.getBean(EmployeeService.class);
+        EmployeeDeltaExporter deltas = context.getBean(EmployeeDeltaExporter.class);
+        service.addEmployee(employee(101, "kept@example.com"));
+        service.addEmployee(employee(102, "updated@example.com"));
+        service.addEmployee(employee(103, "deleted@example.com"));
+        service.addEmployee(employee(104, "recreated@example.com"));
+        LocalDateTime watermark = deltas.currentWatermark();
+        Thread.sleep(2);
+
+        Employee raised = employee(102, "updated@example.com");
+        raised.setSalary(new BigDecimal("60000"));
+        service.updateEmployee(102, raised);
+        service.deleteEmployee(103);
+        service.deleteEmployees(List.of(104), null, null);
+        service.addEmployee(employee(104, "recreated@example.com"));
+        service.addEmployee(employee(105, "added@example.com"));
+        Thread.sleep(2);
+        EmployeeDelta delta = deltas.findChangesSince(watermark);
+
+        assertEquals(List.of(102, 104, 105), delta.changed().stream().map(Employee::getId).toList());
+        assertEquals(new BigDecimal("60000.00"), delta.changed().get(0).getSalary());
+        assertEquals(List.of(103), delta.deleted());
+        assertTrue(delta.next().isAfter(watermark));
+        Thread.sleep(2);
+        EmployeeDelta nothingNew = deltas.findChangesSince(delta.next());
+        assertEquals(List.of(), nothingNew.changed());
+        assertEquals(List.of(), nothingNew.deleted());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jpa"})
+    void shouldRefuseADeltaAcrossADeleteByCriteriaOrBeyondRetention(String profile) throws InterruptedException {
+        start(profile);
+        EmployeeService service = context.getBean(EmployeeService.class);
+        EmployeeDeltaExporter deltas = context.getBean(EmployeeDeltaExporter.class);
+        service.addEmployee(employee(101, "first@example.com"));
+        LocalDateTime watermark = deltas.currentWatermark();
+        Thread.sleep(2);
+
+        service.deleteEmployees(null, null, "IT");
+        Thread.sleep(2);
+
+        assertThrows(ChangeHistoryUnavailableException.class, () -> deltas.findChangesSince(watermark));
+        assertThrows(ChangeHistoryUnavailableException.class,
+                () -> deltas.findChangesSince(watermark.minusDays(2)));
+    }
+
+    private void start(String profile) {
+        String url = "jdbc:h2:mem:delta-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        context = new SpringApplicationBuilder(EmployeeSytemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=" + profile,
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--employee.export.delta.commit-grace-ms=0",
+                        "--employee.audit.spool-dir=target/audit-spool/" + UUID.randomUUID());
+    }
+
+    private static Employee employee(int id, String email) {
+        return new Employee(id, "Delta", "Reader", email, "IT", new BigDecimal("50000"));
+    }
+}
@@ -0,0 +1,101 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.exceptions.DuplicateEmployeeException;
+import org.employeesytem.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeEmailGuardTest {
+    @Mock
+    private EmployeeRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmployeeBulkheads bulkheads;
+    private EmployeeEmailGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkheads = new EmployeeBulkheads(new StandardEnvironment(), meterRegistry, 1);
+        when(repository.findAllEmails()).thenReturn(List.of("Yousuf@Example.com", "john@example.com"));
+        guard = new EmployeeEmailGuard(repository, bulkheads, meterRegistry, 1_000, 0.01);
+        guard.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.destroy();
+    }
+
+    @Test
+    void shouldSkipTheLookupForAnEmailTheFilterHasNeverSeen() {
+        guard.requireUnique("new.hire@example.com", 3);
+
+        verify(repository, never()).findIdByEmail(anyString());
+        assertEquals(1.0, checks("definite-negative"));
+    }
+
+    @Test
+    void shouldConfirmAProbableMatchWithTheIndexedLookup() {
+        when(repository.findIdByEmail("yousuf@example.com")).thenReturn(Optional.of(1));
+
+        guard.requireUnique("yousuf@example.com", 1);
+        DuplicateEmployeeException ex = assertThrows(DuplicateEmployeeException.class,
+                () -> guard.requireUnique("yousuf@example.com", 2));
+
+        assertEquals("Employee with email yousuf@example.com already exists", ex.getMessage());
+        assertEquals(1.0, checks("same-employee"));
+        assertEquals(1.0, checks("conflict"));
+    }
+
+    @Test
+    void shouldCountAProbableMatchThatIsNotStoredAsAFalsePositive() {
+        when(repository.findIdByEmail("john@example.com")).thenReturn(Optional.empty());
+
+        guard.requireUnique("john@example.com", 5);
+
+        assertEquals(1.0, checks("false-positive"));
+    }
+
+    @Test
+    void shouldAddEmailsFromWrites() {
+        guard.onEmployeeChanged(EmployeeChangedEvent.created(new Employee(3, "Ravi", "Kumar", "Ravi@Example.com",
+                "IT", new BigDecimal("1000"))));
+        guard.onEmployeeChanged(EmployeeChangedEvent.patched(1, Map.of("email", "yousuf.shaik@example.com"), 1L));
+        when(repository.findIdByEmail(anyString())).thenReturn(Optional.of(99));
+
+        assertThrows(DuplicateEmployeeException.class, () -> guard.requireUnique("ravi@example.com", 4));
+        assertThrows(DuplicateEmployeeException.class, () -> guard.requireUnique("yousuf.shaik@example.com", 4));
+    }
+
+    @Test
+    void shouldReportTheFilterSizeAndExpectedFalsePositiveRate() {
+        assertEquals(1_200.0, meterRegistry.get("employee.email-filter.memory").gauge().value());
+        assertEquals(2.0, meterRegistry.get("employee.email-filter.elements").gauge().value());
+        double expected = meterRegistry.get("employee.email-filter.false-positive-probability").gauge().value();
+        assertEquals(0.0, expected, 1e-9);
+    }
+
+    private double checks(String outcome) {
+        return meterRegistry.get("employee.email-filter.checks").tag("outcome", outcome).counter().count();
+    }
+}
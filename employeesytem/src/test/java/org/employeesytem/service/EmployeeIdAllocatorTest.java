@@ -0,0 +1,74 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.repository.EmployeeIdSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeIdAllocatorTest {
+    @Mock
+    private EmployeeIdSequenceRepository sequence;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void shouldHandOutABlockBeforeReservingTheNext() {
+        when(sequence.reserve(3)).thenReturn(10, 40);
+        EmployeeIdAllocator allocator = new EmployeeIdAllocator(sequence, meterRegistry, 3);
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(allocator.nextId());
+        }
+
+        assertEquals(List.of(10, 11, 12, 40, 41), ids);
+        verify(sequence, times(2)).reserve(3);
+        assertEquals(2.0, meterRegistry.get("employee.ids.reservations").counter().count());
+    }
+
+    @Test
+    void shouldNeverHandOutTheSameIdTwiceUnderContention() throws Exception {
+        AtomicInteger nextBlock = new AtomicInteger(1);
+        when(sequence.reserve(50)).thenAnswer(invocation -> nextBlock.getAndAdd(50));
+        EmployeeIdAllocator allocator = new EmployeeIdAllocator(sequence, meterRegistry, 50);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    ids.add(allocator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(8_000, ids.size());
+        verify(sequence, times(160)).reserve(50);
+    }
+}
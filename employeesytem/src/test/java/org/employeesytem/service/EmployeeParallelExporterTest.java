@@ -0,0 +1,178 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.repository.EmployeeRepository;
+import org.employeesytem.repository.EmployeeRepository.IdRange;
+import org.employeesytem.util.CSVExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeParallelExporterTest {
+    @Mock
+    private EmployeeService service;
+
+    @Mock
+    private EmployeeRepository repository;
+
+    private final CSVExporter csvExporter = new CSVExporter();
+
+    private List<Employee> employees;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        employees = IntStream.rangeClosed(1, 95)
+                .mapToObj(id -> new Employee(id * 3, "First" + (id % 7), "Last" + id, "e" + id + "@example.com",
+                        id % 2 == 0 ? "IT" : "HR", BigDecimal.valueOf(1000 + (id * 37) % 11, 2)))
+                .toList();
+        when(repository.findIdRange()).thenAnswer(invocation -> Optional.of(new IdRange(
+                employees.get(0).getId(), employees.get(employees.size() - 1).getId())));
+        when(repository.streamRangeForExport(isNull(), isNull(), anyInt(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            int from = invocation.getArgument(2);
+            int to = invocation.getArgument(3);
+            Sort sort = invocation.getArgument(4);
+            Consumer<Employee> action = invocation.getArgument(5);
+            List<Employee> range = employees.stream()
+                    .filter(employee -> employee.getId() >= from && employee.getId() <= to)
+                    .sorted(comparatorFor(sort))
+                    .toList();
+            range.forEach(action);
+            return range.size();
+        });
+    }
+
+    @Test
+    void shouldSplitTheIdRangeIntoAtMostTheConfiguredParallelism() {
+        EmployeeParallelExporter exporter = exporter(4, 4, false);
+
+        assertEquals(List.of(new IdRange(1, 3), new IdRange(4, 6), new IdRange(7, 9), new IdRange(10, 10)),
+                exporter.split(new IdRange(1, 10)));
+        assertEquals(List.of(new IdRange(5, 5)), exporter.split(new IdRange(5, 5)));
+    }
+
+    @Test
+    void shouldNotSplitIntoMoreRangesThanTheBulkBulkheadHasThreads() {
+        assertEquals(List.of(new IdRange(1, 5), new IdRange(6, 10)), exporter(8, 2, false).split(new IdRange(1, 10)));
+    }
+
+    @Test
+    void shouldProduceTheSequentialCsvForASalarySort() throws IOException {
+        Sort sort = Sort.by(Sort.Direction.DESC, "salary");
+
+        assertArrayEquals(sequentialCsv(sort), export(exporter(3, 3, false), sort));
+    }
+
+    @Test
+    void shouldProduceTheSequentialCsvWhenUnsorted() throws IOException {
+        assertArrayEquals(sequentialCsv(Sort.unsorted()), export(exporter(2, 2, false), Sort.unsorted()));
+    }
+
+    @Test
+    void shouldMergeRangesLongerThanTheirQueues() throws IOException {
+        employees = IntStream.rangeClosed(1, 3 * EmployeeRepository.EXPORT_FETCH_SIZE)
+                .mapToObj(id -> new Employee(id, "First", "Last" + id, "e" + id + "@example.com", "IT",
+                        BigDecimal.valueOf(1000 + (id * 7919L) % 97, 2)))
+                .toList();
+        Sort sort = Sort.by("salary");
+
+        assertArrayEquals(sequentialCsv(sort), export(exporter(2, 2, false), sort));
+    }
+
+    @Test
+    void shouldRethrowTheFailureOfARange() {
+        RuntimeException failure = new IllegalStateException("connection lost");
+        doThrow(failure).when(repository).streamRangeForExport(isNull(), isNull(), eq(1), anyInt(), any(), any());
+        employees = IntStream.rangeClosed(1, 10)
+                .mapToObj(id -> new Employee(id, "First", "Last", "e" + id + "@example.com", "IT", BigDecimal.TEN))
+                .toList();
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> export(exporter(2, 2, false), Sort.by("salary"))));
+    }
+
+    @Test
+    void shouldMergeTextSortsOnlyWhenTheDatabaseComparesTextByCodeUnit() throws IOException {
+        Sort sort = Sort.by("firstName").and(Sort.by(Sort.Direction.DESC, "salary"));
+
+        assertArrayEquals(sequentialCsv(sort), export(exporter(2, 2, true), sort));
+        verify(service, never()).exportEmployees(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldFallBackToTheSequentialExportForTextSortsByDefault() throws IOException {
+        Sort sort = Sort.by("lastName");
+        when(service.exportEmployees(isNull(), isNull(), eq(sort), any())).thenAnswer(invocation -> {
+            Consumer<Employee> rows = invocation.getArgument(3);
+            List<Employee> sorted = employees.stream().sorted(comparatorFor(EmployeeService.exportSort(sort))).toList();
+            sorted.forEach(rows);
+            return sorted.size();
+        });
+
+        assertArrayEquals(sequentialCsv(sort), export(exporter(2, 2, false), sort));
+        verify(repository, never()).findIdRange();
+    }
+
+    private EmployeeParallelExporter exporter(int parallelism, int bulkThreads, boolean binaryTextOrder) {
+        EmployeeConcurrencyLimiter limiter = new EmployeeConcurrencyLimiter(new SimpleMeterRegistry(),
+                10, 2, 50, 2.0, 0.9, 0.8, 0.3, 1);
+        EmployeeBulkheads bulkheads = new EmployeeBulkheads(new MockEnvironment()
+                .withProperty("employee.bulkhead.bulk.pool-size", String.valueOf(bulkThreads)),
+                new SimpleMeterRegistry(), 1);
+        return new EmployeeParallelExporter(service, repository, limiter, bulkheads, csvExporter,
+                parallelism, binaryTextOrder);
+    }
+
+    private static byte[] export(EmployeeParallelExporter exporter, Sort sort) throws IOException {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exporter.exportToCsv(null, null, sort, csv);
+        return csv.toByteArray();
+    }
+
+    private byte[] sequentialCsv(Sort sort) {
+        return csvExporter.writeEmployeesToCsv(employees.stream()
+                .sorted(comparatorFor(EmployeeService.exportSort(sort)))
+                .toList());
+    }
+
+    private static Comparator<Employee> comparatorFor(Sort sort) {
+        Comparator<Employee> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Employee> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparingInt(Employee::getId);
+                case "salary" -> Comparator.comparing(Employee::getSalary);
+                case "firstName" -> Comparator.comparing(Employee::getFirstName);
+                case "lastName" -> Comparator.comparing(Employee::getLastName);
+                default -> throw new IllegalArgumentException(order.getProperty());
+            };
+            comparator = comparator.thenComparing(order.isAscending() ? next : next.reversed());
+        }
+        return comparator;
+    }
+}
@@ -0,0 +1,203 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeSalarySnapshotTest {
+    @Mock
+    private EmployeeRepository repository;
+
+    private final List<Employee> table = new ArrayList<>();
+    private Runnable whileStreaming = () -> { };
+    private EmployeeBulkheads bulkheads;
+    private EmployeeSalarySnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkheads = new EmployeeBulkheads(new StandardEnvironment(), new SimpleMeterRegistry(), 1);
+        table.addAll(List.of(
+                employee(1, "IT", "5000.00", 0L),
+                employee(2, "HR", "3000.00", 0L),
+                employee(3, "IT", "3000.00", 0L),
+                employee(4, "SALES", "7000.50", 0L),
+                employee(5, "IT", "9000.00", 0L)));
+        doAnswer(invocation -> {
+            Consumer<Employee> rows = invocation.getArgument(3);
+            table.forEach(rows);
+            whileStreaming.run();
+            return table.size();
+        }).when(repository).streamForExport(isNull(), isNull(), eq(Sort.by("id")), any());
+        snapshot = new EmployeeSalarySnapshot(repository, bulkheads, new SimpleMeterRegistry());
+        snapshot.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.destroy();
+        bulkheads.destroy();
+    }
+
+    @Test
+    void shouldFindARangeBySalaryThenIdByDefault() {
+        EmployeeSalarySnapshot.Matches matches = find(null, "3000", "7000.50", Sort.unsorted(), 0, 10);
+
+        assertEquals(List.of(2, 3, 1, 4), matches.ids());
+        assertEquals(4, matches.total());
+    }
+
+    @Test
+    void shouldFilterByDepartmentIgnoringCase() {
+        assertEquals(List.of(5, 1, 3), find(" it", "1", null, Sort.by("salary").descending(), 0, 10).ids());
+        assertEquals(List.of(), find("FINANCE", null, null, Sort.unsorted(), 0, 10).ids());
+    }
+
+    @Test
+    void shouldRoundTheBoundsInward() {
+        assertEquals(List.of(4), find(null, "7000.001", "7000.509", Sort.unsorted(), 0, 10).ids());
+        assertEquals(List.of(), find(null, "7000.501", "7000.509", Sort.unsorted(), 0, 10).ids());
+    }
+
+    @Test
+    void shouldPageThroughEverySortOrder() {
+        assertEquals(List.of(1, 4), find(null, null, null, Sort.unsorted(), 2, 2).ids());
+        assertEquals(List.of(3, 2), find(null, null, null,
+                Sort.by(Sort.Order.desc("salary"), Sort.Order.desc("id")), 3, 5).ids());
+        assertEquals(List.of(3, 4), find(null, null, null, Sort.by("id"), 2, 2).ids());
+        assertEquals(List.of(3, 2), find(null, null, null, Sort.by("id").descending(), 2, 2).ids());
+
+        EmployeeSalarySnapshot.Matches beyond = find(null, null, null, Sort.unsorted(), 5, 2);
+        assertEquals(List.of(), beyond.ids());
+        assertEquals(5, beyond.total());
+    }
+
+    @Test
+    void shouldRejectSortingByAnythingButSalaryAndId() {
+        assertThrows(InvalidRequestException.class, () -> find(null, null, null, Sort.by("lastName"), 0, 10));
+        assertThrows(InvalidRequestException.class, () -> find(null, null, null, Sort.by("id", "salary"), 0, 10));
+    }
+
+    @Test
+    void shouldFollowCreatesUpdatesAndPatches() {
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.created(employee(7, "HR", "4000.00", 0L)));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.created(employee(6, "HR", "4500.00", 0L)));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.updated(employee(2, "FINANCE", "3000.00", 1L)));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.patched(3, Map.of("salary", new BigDecimal("4200")), 1L));
+
+        assertEquals(List.of(7, 3, 6), find(null, "4000", "4500", Sort.unsorted(), 0, 10).ids());
+        assertEquals(List.of(6, 7), find("HR", null, null, Sort.by("id"), 0, 10).ids());
+    }
+
+    @Test
+    void shouldIgnoreStaleUpdatesAndUpdatesOfDeletedEmployees() {
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.updated(employee(2, "HR", "3500.00", 3L)));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.patched(2, Map.of("salary", new BigDecimal("3100")), 2L));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(4)));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.updated(employee(4, "SALES", "7000.50", 1L)));
+
+        assertEquals(List.of(2), find("HR", null, null, Sort.unsorted(), 0, 10).ids());
+        assertEquals(List.of(), find(null, "3100", "3100", Sort.unsorted(), 0, 10).ids());
+        assertEquals(List.of(), find("SALES", null, null, Sort.unsorted(), 0, 10).ids());
+    }
+
+    @Test
+    void shouldDropDeletedEmployeesByIdAndByDepartment() {
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(2, 42)));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deletedMatching(null, "it"));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.created(employee(3, "HR", "100.00", 0L)));
+
+        EmployeeSalarySnapshot.Matches matches = find(null, null, null, Sort.unsorted(), 0, 10);
+        assertEquals(List.of(3, 4), matches.ids());
+        assertEquals(2, matches.total());
+        verify(repository, times(1)).streamForExport(isNull(), isNull(), eq(Sort.by("id")), any());
+    }
+
+    @Test
+    void shouldReloadInTheBackgroundAfterADeleteByName() throws Exception {
+        table.removeIf(employee -> employee.getId() == 1);
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deletedMatching("Yousuf", null));
+        snapshot.awaitBackgroundWork();
+
+        assertEquals(List.of(3, 5), find("IT", null, null, Sort.by("id"), 0, 10).ids());
+        verify(repository, times(2)).streamForExport(isNull(), isNull(), eq(Sort.by("id")), any());
+    }
+
+    @Test
+    void shouldReadAgainTheEmployeesWrittenWhileReloading() throws Exception {
+        Employee created = employee(8, "IT", "100.00", 0L);
+        whileStreaming = () -> {
+            whileStreaming = () -> { };
+            snapshot.onEmployeeChanged(EmployeeChangedEvent.created(created));
+        };
+        when(repository.findAllById(List.of(8))).thenReturn(List.of(created));
+
+        snapshot.reloadInBackground();
+        snapshot.awaitBackgroundWork();
+
+        assertEquals(List.of(1, 3, 5, 8), find("IT", null, null, Sort.by("id"), 0, 10).ids());
+    }
+
+    @Test
+    void shouldRefreshTheIdsChangedOnAnotherNode() throws Exception {
+        when(repository.findAllById(any())).thenReturn(List.of(
+                employee(2, "IT", "3300.00", 1L), employee(3, "IT", "2000.00", 0L), employee(9, "IT", "100.00", 0L)));
+
+        snapshot.refreshInBackground(List.of(1, 2, 3, 9));
+        snapshot.awaitBackgroundWork();
+
+        assertEquals(List.of(2, 3, 5, 9), find("IT", null, null, Sort.by("id"), 0, 10).ids());
+        assertEquals(List.of(9, 3, 2, 5), find("IT", null, null, Sort.unsorted(), 0, 10).ids());
+    }
+
+    @Test
+    void shouldKeepIdOrderWhenCreatesArriveOutOfOrder() {
+        for (int id = 40; id >= 10; id--) {
+            snapshot.onEmployeeChanged(EmployeeChangedEvent.created(employee(id, "MARKETING", "100.00", 0L)));
+        }
+        List<Integer> ids = find("MARKETING", null, null, Sort.by("id"), 0, 100).ids();
+
+        assertEquals(31, ids.size());
+        assertEquals(10, ids.get(0));
+        assertEquals(40, ids.get(30));
+        assertEquals(List.of(40, 39), find("MARKETING", null, null, Sort.by("id").descending(), 0, 2).ids());
+    }
+
+    private EmployeeSalarySnapshot.Matches find(String department, String minSalary, String maxSalary, Sort sort,
+                                                long offset, int limit) {
+        return snapshot.find(department, minSalary == null ? null : new BigDecimal(minSalary),
+                maxSalary == null ? null : new BigDecimal(maxSalary), sort, offset, limit);
+    }
+
+    private static Employee employee(int id, String department, String salary, Long version) {
+        Employee employee = new Employee(id, "Yousuf", "Shaik", "employee" + id + "@example.com", department,
+                new BigDecimal(salary));
+        employee.setVersion(version);
+        return employee;
+    }
+}
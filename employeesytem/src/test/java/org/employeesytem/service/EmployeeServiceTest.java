@@ -1,27 +1,55 @@
 package org.employeesytem.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.dto.EmployeeLookup;
+import org.employeesytem.dto.EmployeePatch;
 import org.employeesytem.exceptions.DuplicateEmployeeException;
 import org.employeesytem.exceptions.EmployeeNotFoundException;
+import org.employeesytem.exceptions.EmployeeVersionConflictException;
+import org.employeesytem.exceptions.InvalidRequestException;
+import org.employeesytem.exceptions.ServiceOverloadedException;
+import org.employeesytem.repository.EmployeeChangeLogRepository;
 import org.employeesytem.repository.jpa.EmployeeRepositoryJPAImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doNothing;
@@ -32,6 +60,44 @@ class EmployeeServiceTest {
     @Mock
     private EmployeeRepositoryJPAImpl repository;
 
+    @Spy
+    private EmployeeReadCoalescer coalescer = new EmployeeReadCoalescer(new SimpleMeterRegistry());
+
+    @Spy
+    private EmployeeConcurrencyLimiter limiter = new EmployeeConcurrencyLimiter(new SimpleMeterRegistry(),
+            10, 2, 50, 2.0, 0.9, 0.8, 0.3, 1);
+
+    @Spy
+    private EmployeeBulkheads bulkheads = new EmployeeBulkheads(new StandardEnvironment(), new SimpleMeterRegistry(), 1);
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private EmployeeEmailGuard emailGuard;
+
+    @Mock
+    private EmployeeIdAllocator idAllocator;
+
+    @Spy
+    private EmployeePageCache pageCache = new EmployeePageCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1),
+            Duration.ofMinutes(1));
+
+    @Mock
+    private EmployeeChangeLogRepository changeLog;
+
+    @Spy
+    private TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
+    @Mock
+    private EmployeeAuditTrail audit;
+
+    @Mock
+    private EmployeeAuditTrail.Pending audited;
+
+    @Mock
+    private EmployeeSalarySnapshot salarySnapshot;
+
     @InjectMocks
     private EmployeeService service;
 
@@ -42,6 +108,7 @@ class EmployeeServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(audit.pending()).thenReturn(audited);
         employee = new Employee(101, "Yousuf", "Shaik", "yousufbabashaik@gmail.com", "IT", new BigDecimal("123456"));
         sort = Sort.by("firstName").ascending();
         pageRequest = PageRequest.of(0, 5, sort);
@@ -57,12 +124,85 @@ class EmployeeServiceTest {
         assertEquals(employee, allEmployees.getContent().get(0));
     }
 
+    @Test
+    void shouldReadASalaryRangePageInTheSnapshotsOrder() {
+        PageRequest bySalary = PageRequest.of(1, 2, Sort.by("salary").descending());
+        Employee other = new Employee(102, "Laddu", "B", "laddu@gmail.com", "IT", new BigDecimal("200000"));
+        when(salarySnapshot.find("IT", new BigDecimal("1000"), null, bySalary.getSort(), 2, 2))
+                .thenReturn(new EmployeeSalarySnapshot.Matches(List.of(102, 101, 103), 7));
+        when(repository.findAllById(List.of(102, 101, 103))).thenReturn(List.of(employee, other));
+
+        Page<Employee> page = service.findBySalaryRange(bySalary, " IT ", new BigDecimal("1000"), null);
+
+        assertEquals(List.of(other, employee), page.getContent());
+        assertEquals(7, page.getTotalElements());
+    }
+
+    @Test
+    void shouldNotReadTheRepositoryWhenNoSalaryMatches() {
+        when(salarySnapshot.find(null, null, BigDecimal.ONE, pageRequest.getSort(), 0, 5))
+                .thenReturn(new EmployeeSalarySnapshot.Matches(List.of(), 0));
+
+        Page<Employee> page = service.findBySalaryRange(pageRequest, null, null, BigDecimal.ONE);
+
+        assertTrue(page.isEmpty());
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldLookUpEachIdOnceInRequestOrderAndListTheMissingOnes() {
+        Employee other = new Employee(102, "Laddu", "B", "laddu@gmail.com", "IT", new BigDecimal("200000"));
+        when(repository.findAllById(List.of(102, 7, 101))).thenReturn(List.of(employee, other));
+
+        EmployeeLookup lookup = service.lookupEmployees(List.of(102, 7, 101, 102));
+
+        assertEquals(List.of(other, employee), lookup.employees());
+        assertEquals(List.of(7), lookup.missing());
+        verify(repository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void shouldRejectALookupWithoutIds() {
+        assertThrows(InvalidRequestException.class, () -> service.lookupEmployees(List.of()));
+        assertThrows(InvalidRequestException.class, () -> service.lookupEmployees(Arrays.asList(1, null)));
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldServeARepeatedListRequestFromThePageCache() {
+        when(repository.findAll(pageRequest)).thenReturn(new PageImpl<>(List.of(employee)));
+
+        Page<Employee> first = service.findAllEmployees(pageRequest, null, null);
+        Page<Employee> second = service.findAllEmployees(PageRequest.of(0, 5, sort), null, null);
+
+        assertEquals(first, second);
+        verify(repository, times(1)).findAll(pageRequest);
+    }
+
+    @Test
+    void shouldReloadListPagesAfterAWrite() {
+        when(repository.findByCriteria(null, "IT", pageRequest)).thenReturn(new PageImpl<>(List.of(employee)));
+        when(repository.findAllById(List.of(101))).thenReturn(List.of(employee));
+        when(repository.deleteAllById(List.of(101))).thenReturn(1);
+
+        service.findAllEmployees(pageRequest, null, "IT");
+        service.deleteEmployees(List.of(101), null, null);
+        service.findAllEmployees(pageRequest, null, "IT");
+
+        verify(repository, times(2)).findByCriteria(null, "IT", pageRequest);
+        verify(pageCache).invalidate();
+    }
+
     @Test
     public void shouldAddAnEmployeeWhenTheIdIsUnique() {
         when(repository.save(any(Employee.class))).thenReturn(employee);
 
         Employee actualEmployee = service.addEmployee(employee);
         assertEquals(employee, actualEmployee);
+        verify(events).publishEvent(EmployeeChangedEvent.created(employee));
+        verify(changeLog).append(101, null);
+        verify(audited).created(employee);
+        verify(audited).publish();
     }
 
     @Test
@@ -75,6 +215,103 @@ class EmployeeServiceTest {
                 () -> service.addEmployee(employee)
         );
         assertEquals("Employee with id 101 already exists", ex.getMessage());
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void shouldAssignAnIdWhenTheEmployeeHasNone() {
+        employee.setId(0);
+        when(idAllocator.nextId()).thenReturn(751);
+        when(repository.insert(any(Employee.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Employee saved = service.addEmployee(employee);
+
+        assertEquals(751, saved.getId());
+        verify(emailGuard).requireUnique("yousufbabashaik@gmail.com", 751);
+        verify(repository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    void shouldMoveOnToTheNextIdWhenAClientTookTheAssignedOne() {
+        employee.setId(0);
+        when(idAllocator.nextId()).thenReturn(751, 752);
+        when(repository.insert(any(Employee.class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry '751' for key 'employee.PRIMARY'"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Employee saved = service.addEmployee(employee);
+
+        assertEquals(752, saved.getId());
+        verify(changeLog, never()).append(751, null);
+        verify(changeLog).append(752, null);
+        verify(audited).created(saved);
+        verify(events).publishEvent(EmployeeChangedEvent.created(saved));
+    }
+
+    @Test
+    void shouldNotAssignAnotherIdWhenTheEmailIsTaken() {
+        employee.setId(0);
+        when(idAllocator.nextId()).thenReturn(751);
+        when(repository.insert(any(Employee.class))).thenThrow(new DataIntegrityViolationException(
+                "Duplicate entry 'yousufbabashaik@gmail.com' for key 'employee.uk_employee_email'"));
+
+        assertThrows(DuplicateEmployeeException.class, () -> service.addEmployee(employee));
+
+        verify(idAllocator, times(1)).nextId();
+    }
+
+    @Test
+    void shouldKeepAnIdTheClientChose() {
+        when(repository.save(any(Employee.class))).thenReturn(employee);
+
+        service.addEmployee(employee);
+
+        verify(idAllocator, never()).nextId();
+        verify(idAllocator).skip(101);
+    }
+
+    @Test
+    void shouldNormalizeTheEmailAndCheckItIsFreeBeforeSaving() {
+        employee.setEmail(" Yousuf.Shaik@Gmail.com ");
+        when(repository.save(any(Employee.class))).thenReturn(employee);
+
+        service.addEmployee(employee);
+
+        assertEquals("yousuf.shaik@gmail.com", employee.getEmail());
+        verify(emailGuard).requireUnique("yousuf.shaik@gmail.com", 101);
+    }
+
+    @Test
+    void shouldNotSaveAnEmployeeWhoseEmailIsTaken() {
+        doThrow(EmployeeEmailGuard.duplicateEmail("yousufbabashaik@gmail.com"))
+                .when(emailGuard).requireUnique("yousufbabashaik@gmail.com", 101);
+
+        DuplicateEmployeeException ex = assertThrows(DuplicateEmployeeException.class, () -> service.addEmployee(employee));
+
+        assertEquals("Employee with email yousufbabashaik@gmail.com already exists", ex.getMessage());
+        verify(repository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    void shouldReportAnEmailTakenConcurrentlyAsADuplicateEmail() {
+        when(repository.save(employee)).thenThrow(new DataIntegrityViolationException(
+                "Duplicate entry 'yousufbabashaik@gmail.com' for key 'employee.uk_employee_email'"));
+
+        DuplicateEmployeeException ex = assertThrows(DuplicateEmployeeException.class, () -> service.addEmployee(employee));
+
+        assertEquals("Employee with email yousufbabashaik@gmail.com already exists", ex.getMessage());
+    }
+
+    @Test
+    void shouldCheckAPatchedEmailAgainstOtherEmployees() {
+        EmployeePatch patch = EmployeePatch.of(Map.of("email", "Taken@Example.com"),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        doThrow(EmployeeEmailGuard.duplicateEmail("taken@example.com"))
+                .when(emailGuard).requireUnique("taken@example.com", 101);
+
+        assertThrows(DuplicateEmployeeException.class, () -> service.patchEmployee(101, patch, null));
+
+        verify(repository, never()).patch(eq(101), any(), any());
     }
 
     @Test
@@ -102,43 +339,256 @@ class EmployeeServiceTest {
     void shouldUpdateEmployeeWhenIdExists() {
         Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousuf.new@gmail.com", "IT", new BigDecimal("123456"));
 
-        when(repository.save(expectedEmployee)).thenReturn(expectedEmployee);
+        when(repository.update(expectedEmployee, null)).thenReturn(6L);
 
         Employee actualEmployee = service.updateEmployee(101, expectedEmployee);
         assertEquals(expectedEmployee, actualEmployee);
+        assertEquals(6L, actualEmployee.getVersion());
+    }
+
+    @Test
+    void shouldUpdateWithoutIfMatchWithoutReadingTheRowFirst() {
+        Employee raised = new Employee(101, "Yousuf", "Shaik", "yousuf@gmail.com", "IT", new BigDecimal("123456"));
+        when(repository.update(raised, null)).thenReturn(5L);
+
+        assertEquals(5L, service.updateEmployee(101, raised).getVersion());
+
+        verify(repository, never()).findById(101);
+        verify(audited).updated(raised, 5L);
+        verify(changeLog, times(1)).append(101, 5L);
+        verify(events).publishEvent(EmployeeChangedEvent.updated(raised));
+    }
+
+    @Test
+    void shouldReturnAndPublishTheVersionOfAPatchWithoutIfMatch() {
+        EmployeePatch patch = EmployeePatch.of(Map.of("salary", 65000),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        when(repository.patch(101, patch.getChanges(), null)).thenReturn(4L);
+
+        assertEquals(4L, service.patchEmployee(101, patch, null));
+
+        verify(repository, never()).findById(101);
+        verify(audited).patched(101, Map.of("salary", new BigDecimal("65000")), 4L);
+        verify(events).publishEvent(EmployeeChangedEvent.patched(101, Map.of("salary", new BigDecimal("65000")), 4L));
+        verify(changeLog).append(101, 4L);
+    }
+
+    @Test
+    void shouldIncrementVersionWhenExpectedVersionMatches() {
+        Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousuf.new@gmail.com", "IT", new BigDecimal("123456"));
+        expectedEmployee.setVersion(3L);
+
+        when(repository.update(expectedEmployee, 3L)).thenReturn(4L);
+
+        Employee actualEmployee = service.updateEmployee(101, expectedEmployee);
+        assertEquals(4L, actualEmployee.getVersion());
+    }
+
+    @Test
+    void shouldThrowVersionConflictExceptionWhenEmployeeWasModifiedConcurrently() {
+        Employee staleEmployee = new Employee(101, "Yousuf", "Shaik", "yousuf.new@gmail.com", "IT", new BigDecimal("123456"));
+        staleEmployee.setVersion(3L);
+
+        when(repository.update(staleEmployee, 3L)).thenReturn(0L);
+        when(repository.findById(101)).thenReturn(Optional.of(employee));
+
+        EmployeeVersionConflictException exception = assertThrows(EmployeeVersionConflictException.class,
+                () -> service.updateEmployee(101, staleEmployee));
+        assertTrue(exception.getMessage().contains("version 3"));
     }
 
     @Test
     void shouldThrowEmployeeNotFoundExceptionWhenIdNotExistsForUpdate() {
         Employee expectedEmployee = new Employee(101, "Yousuf", "Shaik", "yousuf.new@gmail.com", "IT", new BigDecimal("123456"));
 
-        when(repository.save(expectedEmployee))
-                .thenThrow(new EmployeeNotFoundException("Employee with ID 101 not found"));
+        when(repository.update(expectedEmployee, null)).thenReturn(0L);
 
         EmployeeNotFoundException exception = assertThrows(EmployeeNotFoundException.class,
                 () -> service.updateEmployee(101, expectedEmployee));
         assertTrue(exception.getMessage().contains("not found"));
     }
 
+    @Test
+    void shouldPatchOnlyTheChangedColumnsWhenVersionMatches() {
+        EmployeePatch patch = EmployeePatch.of(Map.of("salary", 65000),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        when(repository.patch(101, patch.getChanges(), 3L)).thenReturn(4L);
+
+        Long version = service.patchEmployee(101, patch, 3L);
+
+        assertEquals(4L, version);
+        verify(repository).patch(101, Map.of("salary", new BigDecimal("65000")), 3L);
+        verify(repository, never()).findById(101);
+        verify(events).publishEvent(EmployeeChangedEvent.patched(101, Map.of("salary", new BigDecimal("65000")), 4L));
+        verify(changeLog).append(101, 4L);
+    }
+
+    @Test
+    void shouldThrowEmployeeNotFoundExceptionWhenIdNotExistsForPatch() {
+        EmployeePatch patch = EmployeePatch.of(Map.of("salary", 65000),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        when(repository.patch(101, patch.getChanges(), null)).thenReturn(0L);
+
+        assertThrows(EmployeeNotFoundException.class, () -> service.patchEmployee(101, patch, null));
+        verify(events, never()).publishEvent(any(Object.class));
+        verify(changeLog, never()).append(any(), any());
+    }
+
+    @Test
+    void shouldCheckTheEmployeeAndItsVersionForAPatchThatChangesNothing() {
+        EmployeePatch patch = EmployeePatch.of(Map.of(), Validation.buildDefaultValidatorFactory().getValidator());
+        employee.setVersion(3L);
+        when(repository.findById(101)).thenReturn(Optional.of(employee));
+
+        assertEquals(3L, service.patchEmployee(101, patch, 3L));
+        assertEquals(3L, service.patchEmployee(101, patch, null));
+        assertThrows(EmployeeVersionConflictException.class, () -> service.patchEmployee(101, patch, 2L));
+        assertThrows(EmployeeNotFoundException.class, () -> service.patchEmployee(102, patch, 3L));
+        verify(repository, never()).patch(eq(101), any(), any());
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
     @Test
     void shouldDeleteEmployeeWhenIdExists() {
-        doNothing().when(repository).deleteById(101);
+        when(repository.deleteAllById(List.of(101))).thenReturn(1);
 
         service.deleteEmployee(101);
 
-        verify(repository).deleteById(101);
+        verify(repository, never()).findById(101);
+        verify(changeLog).appendDeletion(101);
+        verify(events).publishEvent(EmployeeChangedEvent.deleted(List.of(101)));
+    }
+
+    @Test
+    void shouldAuditAWriteWithTheRowItReplaced() {
+        Employee raised = new Employee(101, "Yousuf", "Shaik", "yousuf@gmail.com", "IT", new BigDecimal("123456"));
+        when(repository.update(raised, null)).thenReturn(4L);
+        when(repository.deleteAllById(List.of(101))).thenReturn(1);
+
+        service.updateEmployee(101, raised);
+        service.deleteEmployee(101);
+
+        verify(audited).updated(raised, 4L);
+        verify(audited).deleted(101);
+        verify(audited, times(2)).publish();
+    }
+
+    @Test
+    void shouldNotAuditAnUpdateThatChangedNothing() {
+        EmployeePatch patch = EmployeePatch.of(Map.of("salary", 65000),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        when(repository.findById(101)).thenReturn(Optional.empty());
+        when(repository.patch(101, patch.getChanges(), 3L)).thenReturn(0L);
+
+        assertThrows(EmployeeNotFoundException.class, () -> service.patchEmployee(101, patch, 3L));
+
+        verify(audited, never()).patched(anyInt(), any(), anyLong());
+        verify(audited, never()).publish();
     }
 
     @Test
     void shouldThrowEmployeeNotFoundExceptionWhenIdNotExistsForDelete() {
-        doThrow(new EmployeeNotFoundException("Employee with ID 101 not found"))
-                .when(repository).deleteById(101);
+        when(repository.deleteAllById(List.of(101))).thenReturn(0);
 
         EmployeeNotFoundException exception = assertThrows(EmployeeNotFoundException.class,
                 () -> service.deleteEmployee(101));
+        verify(audited, never()).deleted(anyInt());
+        verify(audited, never()).publish();
+        verify(changeLog, never()).appendDeletion(any());
+        verify(events, never()).publishEvent(any(Object.class));
         assertTrue(exception.getMessage().contains("not found"));
     }
 
+    @Test
+    void shouldDeleteDistinctIdsInOneCallWhenIdsAreGiven() {
+        Employee other = new Employee(102, "Ada", "Lovelace", "ada@example.com", "IT", new BigDecimal("90000"));
+        when(repository.findAllById(List.of(101, 102))).thenReturn(List.of(employee, other));
+        when(repository.deleteAllById(List.of(101, 102))).thenReturn(2);
+
+        int deleted = service.deleteEmployees(List.of(101, 102, 101), null, null);
+
+        assertEquals(2, deleted);
+        verify(repository).deleteAllById(List.of(101, 102));
+        verify(audited).deleted(employee);
+        verify(audited).deleted(other);
+        verify(audited).publish();
+        verify(coalescer).invalidate();
+        verify(events).publishEvent(EmployeeChangedEvent.deleted(List.of(101, 102)));
+    }
+
+    @Test
+    void shouldEndInFlightReadsBeforeInvalidatingCachedPages() {
+        when(repository.deleteAllById(List.of(101))).thenThrow(new QueryTimeoutException("database is away"));
+
+        assertThrows(QueryTimeoutException.class, () -> service.deleteEmployee(101));
+
+        InOrder order = inOrder(coalescer, pageCache);
+        order.verify(coalescer).invalidate();
+        order.verify(pageCache).invalidate();
+    }
+
+    @Test
+    void shouldDeleteByTrimmedCriteriaWhenNoIdsAreGiven() {
+        Employee other = new Employee(102, "Ada", "Lovelace", "ada@example.com", "IT", new BigDecimal("90000"));
+        when(repository.findByCriteriaForExport(null, "IT", Sort.by("id"))).thenReturn(List.of(employee), List.of(employee, other));
+        when(repository.deleteByCriteria(null, "IT")).thenReturn(2);
+
+        int deleted = service.deleteEmployees(null, " ", " IT ");
+
+        assertEquals(2, deleted);
+        verify(repository, times(2)).deleteByCriteria(null, "IT");
+        verify(audited, times(1)).deleted(employee);
+        verify(audited).deleted(other);
+        verify(changeLog, times(1)).appendDeletion(null);
+        verify(events).publishEvent(EmployeeChangedEvent.deletedMatching(null, "IT"));
+    }
+
+    @Test
+    void shouldRejectBulkDeleteWithoutIdsOrCriteria() {
+        assertThrows(InvalidRequestException.class, () -> service.deleteEmployees(List.of(), null, ""));
+
+        verify(repository, never()).deleteByCriteria(any(), any());
+    }
+
+    @Test
+    void shouldRejectBulkDeleteWithBothIdsAndCriteria() {
+        assertThrows(InvalidRequestException.class, () -> service.deleteEmployees(List.of(101), "Yousuf", null));
+
+        verify(repository, never()).deleteAllById(any());
+    }
+
+    @Test
+    void shouldNameThePublicMethodARepositoryCallWasAdmittedFor() {
+        EmployeePatch patch = EmployeePatch.of(Map.of(), Validation.buildDefaultValidatorFactory().getValidator());
+        when(repository.findById(101)).thenReturn(Optional.of(employee));
+
+        service.patchEmployee(101, patch, null);
+        service.getEmployeeCount();
+
+        verify(bulkheads).execute(eq(WorkloadClass.INTERACTIVE_READ), eq("patchEmployee"), any());
+        verify(bulkheads).execute(eq(WorkloadClass.INTERACTIVE_READ), eq("getEmployeeCount"), any());
+    }
+
+    @Test
+    void shouldRunExportAsBulkWorkload() {
+        when(repository.findAll(sort.and(Sort.by("id")))).thenReturn(List.of(employee));
+
+        service.findAllEmployeesForExport(null, null, sort);
+
+        verify(limiter).execute(eq(WorkloadClass.BULK), any());
+        verify(bulkheads).execute(eq(WorkloadClass.BULK), eq("findAllEmployeesForExport"), any());
+    }
+
+    @Test
+    void shouldNotTouchRepositoryWhenLimiterShedsTheRequest() {
+        doThrow(new ServiceOverloadedException("Service is overloaded, retry later", 1))
+                .when(limiter).execute(eq(WorkloadClass.INTERACTIVE_READ), any());
+
+        assertThrows(ServiceOverloadedException.class, () -> service.findByEmployeeId(101));
+
+        verify(repository, never()).findById(101);
+    }
+
     @Test
     void shouldReturnZeroWhenGetEmployeeCountIsCalled() {
         when(repository.count()).thenReturn(0L);
@@ -212,10 +662,10 @@ class EmployeeServiceTest {
 
     @Test
     void shouldReturnAllEmployeesWhenFindAllEmployeesForExportIsCalled() {
-        when(repository.findAll(sort)).thenReturn(List.of(employee));
+        when(repository.findAll(sort.and(Sort.by("id")))).thenReturn(List.of(employee));
 
         List<Employee> allEmployees = service.findAllEmployeesForExport(null, null, sort);
-        verify(repository, times(1)).findAll(sort);
+        verify(repository, times(1)).findAll(sort.and(Sort.by("id")));
         assertEquals(1, allEmployees.size());
         assertEquals(employee, allEmployees.get(0));
     }
@@ -223,11 +673,34 @@ class EmployeeServiceTest {
     @Test
     void shouldReturnAllEmployeesWhenBothNameAndDepartmentParametersArePassedToExport() {
         String name = "Yousuf", department = "IT";
-        when(repository.findByCriteriaForExport(name, department, sort)).thenReturn(List.of(employee));
+        when(repository.findByCriteriaForExport(name, department, sort.and(Sort.by("id")))).thenReturn(List.of(employee));
 
         List<Employee> allEmployees = service.findAllEmployeesForExport(name, department, sort);
-        verify(repository, times(1)).findByCriteriaForExport(name, department, sort);
+        verify(repository, times(1)).findByCriteriaForExport(name, department, sort.and(Sort.by("id")));
         assertEquals(1, allEmployees.size());
         assertEquals(employee, allEmployees.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldBreakExportSortTiesByIdUnlessTheSortAlreadyHasId() {
+        assertEquals(Sort.by("firstName").ascending().and(Sort.by("id")), EmployeeService.exportSort(sort));
+        assertEquals(Sort.by(Sort.Direction.DESC, "id"), EmployeeService.exportSort(Sort.by(Sort.Direction.DESC, "id")));
+        assertEquals(Sort.by("id"), EmployeeService.exportSort(Sort.unsorted()));
+    }
+
+    @Test
+    void shouldStreamExportRowsOnTheBulkWorkload() {
+        List<Employee> streamed = new ArrayList<>();
+        when(repository.streamForExport(eq(null), eq("IT"), eq(sort.and(Sort.by("id"))), any())).thenAnswer(invocation -> {
+            Consumer<Employee> rows = invocation.getArgument(3);
+            rows.accept(employee);
+            return 1;
+        });
+
+        int rows = service.exportEmployees(" ", " IT ", sort, streamed::add);
+
+        assertEquals(1, rows);
+        assertEquals(List.of(employee), streamed);
+        verify(bulkheads).execute(eq(WorkloadClass.BULK), eq("exportEmployees"), any());
+    }
+}
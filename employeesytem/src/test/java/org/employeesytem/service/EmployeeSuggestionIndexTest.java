@@ -0,0 +1,111 @@
+package org.employeesytem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeChangedEvent;
+import org.employeesytem.dto.EmployeeSuggestion;
+import org.employeesytem.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+class EmployeeSuggestionIndexTest {
+    @Mock
+    private EmployeeRepository repository;
+
+    private EmployeeBulkheads bulkheads;
+    private EmployeeSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkheads = new EmployeeBulkheads(new StandardEnvironment(), new SimpleMeterRegistry(), 1);
+        when(repository.findAll(Sort.by("id"))).thenReturn(List.of(
+                employee(1, "Yousuf", "Shaik", "IT", 0L),
+                employee(2, "John", "Smith", "HR", 0L),
+                employee(3, "Joanna", "Shah", "IT", 0L)));
+        index = new EmployeeSuggestionIndex(repository, bulkheads);
+        index.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.destroy();
+    }
+
+    @Test
+    void shouldMatchFirstLastAndFullNamePrefixesIgnoringCase() {
+        assertEquals(List.of(new EmployeeSuggestion(3, "Joanna", "Shah"), new EmployeeSuggestion(2, "John", "Smith")),
+                index.suggest(" JO", 10));
+        assertEquals(List.of(3, 1), ids(index.suggest("sha", 10)));
+        assertEquals(List.of(2), ids(index.suggest("john s", 10)));
+        assertEquals(List.of(), index.suggest("  ", 10));
+    }
+
+    @Test
+    void shouldFollowCreatesUpdatesAndPatches() {
+        index.onEmployeeChanged(EmployeeChangedEvent.created(employee(4, "Jo", "Lee", "SALES", 0L)));
+        index.onEmployeeChanged(EmployeeChangedEvent.updated(employee(2, "Ravi", "Smith", "HR", 1L)));
+        index.onEmployeeChanged(EmployeeChangedEvent.patched(1, Map.of("lastName", "Baba"), 1L));
+
+        assertEquals(List.of(4, 3), ids(index.suggest("jo", 10)));
+        assertEquals(List.of(2), ids(index.suggest("ravi", 10)));
+        assertEquals(List.of(1), ids(index.suggest("bab", 10)));
+        assertEquals(List.of(3), ids(index.suggest("sha", 10)));
+    }
+
+    @Test
+    void shouldIgnoreAnUpdateOlderThanTheIndexedVersion() {
+        index.onEmployeeChanged(EmployeeChangedEvent.updated(employee(2, "Ravi", "Smith", "HR", 3L)));
+        index.onEmployeeChanged(EmployeeChangedEvent.updated(employee(2, "Raj", "Smith", "HR", 2L)));
+
+        assertEquals(List.of(new EmployeeSuggestion(2, "Ravi", "Smith")), index.suggest("ra", 10));
+    }
+
+    @Test
+    void shouldDropDeletedEmployeesByIdAndByCriteria() {
+        index.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(2)));
+        index.onEmployeeChanged(EmployeeChangedEvent.deletedMatching("JOA", "it"));
+
+        assertEquals(List.of(1), ids(index.suggest("yo", 10)));
+        assertEquals(List.of(), index.suggest("jo", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shouldTakeEmployeesAnotherNodeChangedFromTheTable() {
+        index.refresh(List.of(1, 2, 5), List.of(employee(2, "Ravi", "Smith", "HR", 1L),
+                employee(5, "Jo", "Lee", "SALES", 0L)));
+
+        assertEquals(List.of(5, 3), ids(index.suggest("jo", 10)));
+        assertEquals(List.of(2), ids(index.suggest("ravi", 10)));
+        assertEquals(List.of(), index.suggest("yo", 10));
+
+        index.replaceAll(List.of(employee(7, "Yara", "Khan", "IT", 0L)));
+
+        assertEquals(List.of(7), ids(index.suggest("y", 10)));
+        assertEquals(1, index.size());
+    }
+
+    private static List<Integer> ids(List<EmployeeSuggestion> suggestions) {
+        return suggestions.stream().map(EmployeeSuggestion::id).toList();
+    }
+
+    private static Employee employee(int id, String firstName, String lastName, String department, Long version) {
+        Employee employee = new Employee(id, firstName, lastName, "employee" + id + "@example.com", department,
+                new BigDecimal("1000"));
+        employee.setVersion(version);
+        return employee;
+    }
+}
@@ -0,0 +1,115 @@
+package org.employeesytem.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long BASELINE_NANOS = 1_000_000;
+
+    private AdaptiveConcurrencyLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        limit = new AdaptiveConcurrencyLimit(10, 2, 20, 2.0, 0.5);
+    }
+
+    @Test
+    void shouldRejectCallsOverTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+        }
+
+        assertFalse(limit.tryAcquire(1.0));
+        assertEquals(10, limit.getInFlight());
+    }
+
+    @Test
+    void shouldRejectSmallerSharesBeforeTheWholeLimitIsUsed() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limit.tryAcquire(0.3));
+        }
+
+        assertFalse(limit.tryAcquire(0.3));
+        assertTrue(limit.tryAcquire(1.0));
+    }
+
+    @Test
+    void shouldGrowWhileSaturatedAndLatencyStaysNearBaseline() {
+        saturateAndComplete(200, BASELINE_NANOS);
+
+        assertTrue(limit.getLimit() > 10, "limit was " + limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void shouldNotGrowWhenTheLimitIsNotUsed() {
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+            limit.release(BASELINE_NANOS, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void shouldBackOffWhenLatencyExceedsTheToleratedBaseline() {
+        saturateAndComplete(10, BASELINE_NANOS);
+        int before = limit.getLimit();
+
+        saturateAndComplete(10, BASELINE_NANOS * 5);
+
+        assertTrue(limit.getLimit() < before, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    void shouldBackOffOnOverloadButNeverBelowTheMinimum() {
+        for (int i = 0; i < 500; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+            limit.release(BASELINE_NANOS, true);
+        }
+
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void shouldIgnoreTheDurationOfUnsampledCallsButNotTheirOverload() {
+        saturateAndComplete(10, BASELINE_NANOS);
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+            limit.releaseUnsampled(false);
+        }
+
+        assertEquals(before, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+        for (int i = 0; i < 500; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+            limit.releaseUnsampled(true);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void shouldRejectInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(1, 2, 20, 2.0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(10, 2, 20, 2.0, 1.0));
+    }
+
+    private void saturateAndComplete(int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire(1.0)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(rttNanos, false);
+            }
+        }
+    }
+}
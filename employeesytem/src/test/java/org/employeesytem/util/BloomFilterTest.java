@@ -0,0 +1,49 @@
+package org.employeesytem.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void shouldSizeTheBitArrayAndProbesForTheTargetRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+
+        assertEquals(958_528, filter.bitSize());
+        assertEquals(7, filter.hashFunctions());
+        assertEquals(119_816, filter.memoryBytes());
+        assertFalse(filter.mightContain("anyone@example.com"));
+    }
+
+    @Test
+    void shouldNeverMissAnInsertedValueAndStayNearTheTargetFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("employee" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("employee" + i + "@example.com"));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("candidate" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        double measured = falsePositives / 100_000.0;
+        assertTrue(measured < 0.015, "measured false-positive rate " + measured);
+        assertEquals(0.01, filter.expectedFalsePositiveProbability(), 0.002);
+        assertEquals(100_000, filter.approximateElementCount(), 2_000);
+    }
+
+    @Test
+    void shouldRejectImpossibleSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1.0));
+    }
+}
@@ -0,0 +1,89 @@
+package org.employeesytem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedMpscQueueTest {
+
+    @Test
+    void shouldHandElementsBackInTheOrderTheyWereOffered() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(4);
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(3, queue.poll());
+        assertNull(queue.poll());
+        assertEquals(List.of(1, 2), drained);
+    }
+
+    @Test
+    void shouldRejectAnOfferWhenFullUntilAnElementIsTaken() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(3);
+        assertEquals(4, queue.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+
+        assertFalse(queue.offer(4));
+        queue.poll();
+        assertTrue(queue.offer(4));
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    void shouldDeliverEveryElementOnceWhenManyThreadsOffer() throws Exception {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(64);
+        int producers = 4;
+        int perProducer = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!queue.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        Set<Integer> seen = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer element = queue.poll();
+            if (element == null) {
+                Thread.yield();
+            } else {
+                assertTrue(seen.add(element), "delivered twice: " + element);
+            }
+        }
+        executor.shutdownNow();
+
+        assertEquals(producers * perProducer, seen.size());
+        assertNull(queue.poll());
+    }
+}
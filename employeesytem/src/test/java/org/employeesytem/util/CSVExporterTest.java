@@ -1,9 +1,11 @@
 package org.employeesytem.util;
 
 import org.employeesytem.dto.Employee;
+import org.employeesytem.dto.EmployeeDelta;
 import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,4 +41,19 @@ class CSVExporterTest {
 
         assertEquals(expectedCsv, resultString, "The CSV should only contain the header for an empty list.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldWriteChangedRowsThenTombstonesForADelta() {
+        Employee employee = new Employee(101, "Yousuf", "Shaik", "yousuf@gmail.com", "IT", BigDecimal.valueOf(100000));
+        EmployeeDelta delta = new EmployeeDelta(List.of(employee), List.of(102), LocalDateTime.now());
+        String newLine = System.lineSeparator();
+        String expectedCsv =
+                "ID,First Name,Last Name,Email,Department,Salary,Deleted" + newLine +
+                        "101,\"Yousuf\",\"Shaik\",\"yousuf@gmail.com\",\"IT\",100000.00,false" + newLine +
+                        "102,,,,,,true" + newLine;
+
+        String resultString = new String(csvExporter.writeDeltaToCsv(delta), StandardCharsets.UTF_8);
+
+        assertEquals(expectedCsv, resultString);
+    }
+}
@@ -0,0 +1,36 @@
+package org.employeesytem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContentCodingTest {
+
+    @Test
+    void shouldPreferGzipWhenBothAreAcceptedEqually() {
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("deflate, gzip, br"));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("*"));
+    }
+
+    @Test
+    void shouldPickTheCodingWithTheHigherQuality() {
+        assertEquals(ContentCoding.DEFLATE, ContentCoding.negotiate("gzip;q=0.5, deflate;q=0.8"));
+        assertEquals(ContentCoding.DEFLATE, ContentCoding.negotiate("gzip;q=0, *;q=0.3"));
+    }
+
+    @Test
+    void shouldFallBackToIdentityWhenNeitherIsAccepted() {
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate(null));
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate("br, zstd"));
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate("gzip;q=0, deflate;q=0"));
+    }
+
+    @Test
+    void shouldResolveExplicitNames() {
+        assertEquals(Optional.of(ContentCoding.GZIP), ContentCoding.forName(" GZIP "));
+        assertEquals(Optional.of(ContentCoding.IDENTITY), ContentCoding.forName("none"));
+        assertEquals(Optional.empty(), ContentCoding.forName("br"));
+    }
+}
@@ -0,0 +1,118 @@
+package org.employeesytem.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixTrieTest {
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new PrefixTrie();
+    }
+
+    @Test
+    void shouldFindIdsInKeyOrderThenIdOrder() {
+        trie.add("sharma", 7);
+        trie.add("shaik", 9);
+        trie.add("shaik", 3);
+        trie.add("smith", 1);
+
+        assertEquals(List.of(3, 9, 7, 1), trie.find("s", 10));
+        assertEquals(List.of(3, 9, 7), trie.find("sha", 10));
+        assertEquals(List.of(3, 9), trie.find("shai", 10));
+        assertEquals(List.of(), trie.find("shax", 10));
+        assertEquals(List.of(), trie.find("shaikh", 10));
+    }
+
+    @Test
+    void shouldStopAtTheLimitAndReportEachIdOnce() {
+        trie.add("john", 2);
+        trie.add("john smith", 2);
+        trie.add("johnson", 1);
+        trie.add("johnson", 4);
+
+        assertEquals(List.of(2, 1), trie.find("john", 2));
+        assertEquals(List.of(2, 1, 4), trie.find("john", 10));
+    }
+
+    @Test
+    void shouldMergeNodesBackWhenKeysAreRemoved() {
+        trie.add("ann", 1);
+        trie.add("anna", 2);
+        trie.add("annie", 3);
+
+        assertTrue(trie.remove("anna", 2));
+        assertFalse(trie.remove("anna", 2));
+        assertFalse(trie.remove("an", 1));
+        assertTrue(trie.remove("ann", 1));
+
+        assertEquals(List.of(3), trie.find("a", 10));
+        assertEquals(List.of(3), trie.find("annie", 10));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void shouldAgreeWithASortedMapUnderRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        TreeMap<String, TreeSet<Integer>> expected = new TreeMap<>();
+        for (int operation = 0; operation < 20_000; operation++) {
+            String key = randomKey(random);
+            int id = random.nextInt(50);
+            if (random.nextInt(3) == 0) {
+                TreeSet<Integer> ids = expected.get(key);
+                boolean present = ids != null && ids.remove(id);
+                if (ids != null && ids.isEmpty()) {
+                    expected.remove(key);
+                }
+                assertEquals(present, trie.remove(key, id));
+            } else {
+                expected.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+                trie.add(key, id);
+            }
+        }
+
+        assertEquals(expected.values().stream().mapToInt(Set::size).sum(), trie.size());
+        for (int probe = 0; probe < 500; probe++) {
+            String prefix = randomKey(random).substring(0, 1 + random.nextInt(2));
+            int limit = 1 + random.nextInt(20);
+            assertEquals(reference(expected, prefix, limit), trie.find(prefix, limit), prefix);
+        }
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        int length = 2 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            key.append("abc".charAt(random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    private static List<Integer> reference(TreeMap<String, TreeSet<Integer>> keys, String prefix, int limit) {
+        Set<Integer> found = new LinkedHashSet<>();
+        for (Map.Entry<String, TreeSet<Integer>> entry : keys.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            for (int id : entry.getValue()) {
+                if (found.size() < limit) {
+                    found.add(id);
+                }
+            }
+        }
+        return List.copyOf(found);
+    }
+}
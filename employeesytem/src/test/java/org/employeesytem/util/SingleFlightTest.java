@@ -0,0 +1,92 @@
+package org.employeesytem.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    private Counter coalesced;
+    private SingleFlight<String, Integer> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        coalesced = Counter.builder("coalesced").register(new SimpleMeterRegistry());
+        singleFlight = new SingleFlight<>(coalesced);
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentCallersWithTheSameKey() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("page-0", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return 42;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("page-0", () -> {
+            loads.incrementAndGet();
+            return 7;
+        }));
+        while (coalesced.count() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(42, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1.0, coalesced.count());
+    }
+
+    @Test
+    void shouldNotJoinALoadThatStartedBeforeAnInvalidation() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> stale = CompletableFuture.supplyAsync(() -> singleFlight.execute("page-0", () -> {
+            loading.countDown();
+            await(release);
+            return 1;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        singleFlight.invalidate();
+
+        assertEquals(2, singleFlight.execute("page-0", () -> 2));
+        release.countDown();
+        assertEquals(1, stale.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, coalesced.count());
+    }
+
+    @Test
+    void shouldRethrowTheLoaderFailure() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("page-0", () -> {
+                    throw new IllegalStateException("database unavailable");
+                }));
+
+        assertEquals("database unavailable", exception.getMessage());
+        assertEquals(3, singleFlight.execute("page-0", () -> 3));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
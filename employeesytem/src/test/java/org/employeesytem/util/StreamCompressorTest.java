@@ -0,0 +1,99 @@
+package org.employeesytem.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamCompressorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StreamCompressor compressor = new StreamCompressor(meterRegistry, 6, DataSize.ofBytes(64), 1);
+
+    @Test
+    void shouldWriteGzipThatTheJdkCanRead() throws IOException {
+        byte[] body = csv(2_000);
+
+        byte[] compressed = compress(ContentCoding.GZIP, body);
+
+        assertArrayEquals(body, new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes());
+        assertTrue(compressed.length * 10 < body.length, "compressed to " + compressed.length + " bytes");
+    }
+
+    @Test
+    void shouldWriteZlibForDeflate() throws IOException {
+        byte[] body = csv(500);
+
+        byte[] compressed = compress(ContentCoding.DEFLATE, body);
+
+        assertArrayEquals(body, inflate(new InflaterInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    void shouldReuseAPooledDeflaterForTheNextBody() throws IOException {
+        byte[] first = csv(300);
+        byte[] second = "ID,First Name\n".getBytes(StandardCharsets.UTF_8);
+
+        compress(ContentCoding.GZIP, first);
+        byte[] compressed = compress(ContentCoding.GZIP, second);
+
+        assertArrayEquals(second, new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes());
+        assertEquals(first.length + second.length,
+                meterRegistry.get("employee.export.compression.input").tag("coding", "gzip").counter().count());
+    }
+
+    @Test
+    void shouldWriteNothingWhenTheBodyFailsBeforeFillingABuffer() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(IllegalStateException.class, () -> compressor.compress(ContentCoding.GZIP, out, csv -> {
+            csv.write("ID".getBytes(StandardCharsets.UTF_8));
+            throw new IllegalStateException("Service is overloaded");
+        }));
+
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void shouldPassIdentityBodiesThrough() throws IOException {
+        byte[] body = csv(10);
+
+        assertArrayEquals(body, compress(ContentCoding.IDENTITY, body));
+    }
+
+    private byte[] compress(ContentCoding coding, byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.compress(coding, out, csv -> {
+            for (int offset = 0; offset < body.length; offset += 37) {
+                csv.write(body, offset, Math.min(37, body.length - offset));
+            }
+        });
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] csv(int rows) {
+        StringBuilder csv = new StringBuilder("ID,First Name,Last Name,Email,Department,Salary\n");
+        for (int id = 1; id <= rows; id++) {
+            csv.append(id).append(",\"First").append(id % 50).append("\",\"Last\",\"employee").append(id)
+                    .append("@example.com\",\"IT\",").append(40_000 + id % 100).append(".00\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package org.employeesytem.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VersionedCacheTest {
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+    private VersionedCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        hits = meterRegistry.counter("hits");
+        misses = meterRegistry.counter("misses");
+        evictions = meterRegistry.counter("evictions");
+        cache = new VersionedCache<>(10, Duration.ofMinutes(1), String::length, hits, misses, evictions);
+    }
+
+    @Test
+    void shouldLoadOnceAndServeLaterLookupsFromMemory() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("abc", cache.get("page-0", () -> {
+            loads.incrementAndGet();
+            return "abc";
+        }));
+        assertEquals("abc", cache.get("page-0", () -> {
+            loads.incrementAndGet();
+            return "xyz";
+        }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, hits.count());
+        assertEquals(1.0, misses.count());
+    }
+
+    @Test
+    void shouldNotServeAValueCachedBeforeAnInvalidation() {
+        cache.get("page-0", () -> "old");
+        cache.invalidate();
+
+        assertEquals("new", cache.get("page-0", () -> "new"));
+        assertEquals("new", cache.get("page-0", () -> "newer"));
+        assertEquals(3, cache.weight());
+    }
+
+    @Test
+    void shouldNotStoreAValueWhoseLoadOverlappedAnInvalidation() {
+        cache.get("page-0", () -> {
+            cache.invalidate();
+            return "stale";
+        });
+
+        assertEquals("fresh", cache.get("page-0", () -> "fresh"));
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedToStayWithinTheWeightLimit() {
+        cache.get("a", () -> "aaaa");
+        cache.get("b", () -> "bbbb");
+        cache.get("a", () -> "unused");
+        cache.get("c", () -> "cccc");
+        cache.get("huge", () -> "more than ten");
+
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.weight());
+        assertEquals(1.0, evictions.count());
+        assertEquals("aaaa", cache.get("a", () -> "reloaded"));
+        assertEquals("b2", cache.get("b", () -> "b2"));
+    }
+
+    @Test
+    void shouldNotServeAValueOlderThanTheMaximumAge() {
+        VersionedCache<String, String> expiring = new VersionedCache<>(10, Duration.ZERO, String::length,
+                hits, misses, evictions);
+        expiring.get("page-0", () -> "old");
+
+        assertEquals("new", expiring.get("page-0", () -> "new"));
+        assertEquals(2.0, misses.count());
+    }
+}